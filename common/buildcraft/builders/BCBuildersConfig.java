@@ -16,9 +16,14 @@ public class BCBuildersConfig {
      * drill. */
     public static boolean quarryFrameMoveBoth;
 
+    /** If true then the architect table reads whole chunk sections at a time, and only sends its progress to clients
+     * every so often, rather than reading a few blocks per tick and sending a message for every block. */
+    public static boolean architectBulkScan = true;
+
     private static Property propBptStoreExternalThreshold;
     private static Property propQuarryFrameMinHeight;
     private static Property propQuarryFrameMoveBoth;
+    private static Property propArchitectBulkScan;
 
     public static void preInit() {
         EnumRestartRequirement none = EnumRestartRequirement.NONE;
@@ -36,6 +41,10 @@ public class BCBuildersConfig {
         propQuarryFrameMoveBoth.setComment("If true then the quarry frame will move with both of its axis rather than just one.");
         none.setTo(propQuarryFrameMoveBoth);
 
+        propArchitectBulkScan = BCCoreConfig.config.get("general", "architectBulkScan", true);
+        propArchitectBulkScan.setComment("If true then the architect table will scan whole chunk sections at once, which is much faster for large areas.");
+        none.setTo(propArchitectBulkScan);
+
         reloadConfig(EnumRestartRequirement.GAME);
     }
 
@@ -43,5 +52,6 @@ public class BCBuildersConfig {
         bptStoreExternalThreshold = propBptStoreExternalThreshold.getInt();
         quarryFrameMinHeight = propQuarryFrameMinHeight.getInt();
         quarryFrameMoveBoth = propQuarryFrameMoveBoth.getBoolean();
+        architectBulkScan = propArchitectBulkScan.getBoolean();
     }
 }
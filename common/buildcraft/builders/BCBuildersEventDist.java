@@ -0,0 +1,21 @@
+/* Copyright (c) 2016 SpaceToad and the BuildCraft team
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/. */
+package buildcraft.builders;
+
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import buildcraft.builders.snapshot.SnapshotBuilderWorldListener;
+
+public enum BCBuildersEventDist {
+    INSTANCE;
+
+    @SubscribeEvent
+    public void onWorldLoad(WorldEvent.Load event) {
+        if (!event.getWorld().isRemote) {
+            event.getWorld().addEventListener(new SnapshotBuilderWorldListener());
+        }
+    }
+}
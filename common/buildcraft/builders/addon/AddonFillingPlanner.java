@@ -40,7 +40,7 @@ public class AddonFillingPlanner extends Addon implements ISingleAddon {
         Template template = new Template();
         template.size = box.box.size();
         template.offset = BlockPos.ORIGIN;
-        template.data = getFillingPlan();
+        template.setFromArray(getFillingPlan());
         buildingInfo = template.new BuildingInfo(box.box.min(), Rotation.NONE);
     }
 
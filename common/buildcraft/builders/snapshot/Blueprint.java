@@ -1,7 +1,10 @@
 package buildcraft.builders.snapshot;
 
+import buildcraft.api.core.BCLog;
 import buildcraft.lib.misc.NBTUtilBC;
 import buildcraft.lib.misc.data.Box;
+import buildcraft.lib.misc.data.LoadingException;
+import buildcraft.lib.misc.data.PackedIntArray;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.Rotation;
 import net.minecraft.util.math.BlockPos;
@@ -9,57 +12,127 @@ import net.minecraftforge.common.util.Constants;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
 public class Blueprint extends Snapshot {
-    public SchematicBlock[][][] data;
+    /** Every unique {@link SchematicBlock} in this blueprint. */
+    public final List<SchematicBlock> palette = new ArrayList<>();
+    /** The index into {@link #palette} of every block, indexed by {@link #posToIndex(int, int, int)}. */
+    public PackedIntArray data;
     public List<SchematicEntity> entities;
 
+    private final Map<SchematicBlock, Integer> paletteIndices = new HashMap<>();
+
     @Override
     public <T extends ITileForSnapshotBuilder> SnapshotBuilder<T> createBuilder(T tile) {
         // noinspection unchecked
         return (SnapshotBuilder<T>) new BlueprintBuilder((ITileForBlueprintBuilder) tile);
     }
 
+    public SchematicBlock get(int x, int y, int z) {
+        return palette.get(data.get(posToIndex(x, y, z)));
+    }
+
+    public int getPaletteIndex(int x, int y, int z) {
+        return data.get(posToIndex(x, y, z));
+    }
+
+    /** Sets the block at the given position, re-using an equal {@link SchematicBlock} from the palette if one
+     * exists. */
+    public void set(int x, int y, int z, SchematicBlock schematicBlock) {
+        if (data == null) {
+            data = new PackedIntArray(getDataSize());
+        }
+        data.set(posToIndex(x, y, z), addToPalette(schematicBlock));
+    }
+
+    int addToPalette(SchematicBlock schematicBlock) {
+        return paletteIndices.computeIfAbsent(schematicBlock, s -> {
+            palette.add(s);
+            return palette.size() - 1;
+        });
+    }
+
+    void clearData() {
+        palette.clear();
+        paletteIndices.clear();
+        data = new PackedIntArray(getDataSize());
+    }
+
     @Override
     public NBTTagCompound serializeNBT() {
         NBTTagCompound nbt = super.serializeNBT();
-        SchematicBlock[] serializedData = new SchematicBlock[size.getX() * size.getY() * size.getZ()];
-        int i = 0;
-        for (int z = 0; z < size.getZ(); z++) {
-            for (int y = 0; y < size.getY(); y++) {
-                for (int x = 0; x < size.getX(); x++) {
-                    serializedData[i++] = data[x][y][z];
-                }
-            }
-        }
-        nbt.setTag("data", NBTUtilBC.writeCompoundList(Stream.of(serializedData).map(SchematicBlock::serializeNBT)));
+        nbt.setTag("palette", NBTUtilBC.writeCompoundList(palette.stream().map(SchematicBlock::serializeNBT)));
+        nbt.setByteArray("blocks", data.toByteArray());
         return nbt;
     }
 
     @Override
     public void deserializeNBT(NBTTagCompound nbt) {
         super.deserializeNBT(nbt);
-        data = new SchematicBlock[size.getX()][size.getY()][size.getZ()];
-        SchematicBlock[] serializedData = NBTUtilBC.readCompoundList(nbt.getTagList("data", Constants.NBT.TAG_COMPOUND))
-                .map(schematicBlockTag -> {
-                    SchematicBlock schematicBlock = new SchematicBlock();
-                    schematicBlock.deserializeNBT(schematicBlockTag);
-                    return schematicBlock;
-                })
-                .toArray(SchematicBlock[]::new);
-        int i = 0;
-        for (int z = 0; z < size.getZ(); z++) {
-            for (int y = 0; y < size.getY(); y++) {
-                for (int x = 0; x < size.getX(); x++) {
-                    data[x][y][z] = serializedData[i++];
+        clearData();
+        if (nbt.hasKey("blocks")) {
+            // Equal entries are merged as they are added, so the saved indices might not match the new ones
+            int[] paletteIndices = NBTUtilBC.readCompoundList(nbt.getTagList("palette", Constants.NBT.TAG_COMPOUND))
+                    .map(Blueprint::readSchematicBlock)
+                    .mapToInt(this::addToPalette)
+                    .toArray();
+            PackedIntArray savedData;
+            try {
+                savedData = PackedIntArray.fromByteArray(getDataSize(), nbt.getByteArray("blocks"));
+            } catch (LoadingException e) {
+                BCLog.logger.warn("[builders.snapshot] Invalid block data in " + header.getFileName() + ": " + e.getMessage());
+                data = null;
+                return;
+            }
+            boolean remapped = false;
+            for (int i = 0; i < paletteIndices.length; i++) {
+                remapped |= paletteIndices[i] != i;
+            }
+            for (int i = 0; i < savedData.length(); i++) {
+                int saved = savedData.get(i);
+                if (saved >= paletteIndices.length) {
+                    BCLog.logger.warn("[builders.snapshot] Invalid block data in " + header.getFileName()
+                            + ": palette index " + saved + " out of bounds for " + paletteIndices.length + " entries");
+                    data = null;
+                    return;
+                }
+                if (remapped) {
+                    savedData.set(i, paletteIndices[saved]);
+                }
+            }
+            data = savedData;
+        } else {
+            // Old format: a full compound for every single block
+            SchematicBlock[] serializedData = NBTUtilBC.readCompoundList(nbt.getTagList("data", Constants.NBT.TAG_COMPOUND))
+                    .map(Blueprint::readSchematicBlock)
+                    .toArray(SchematicBlock[]::new);
+            int i = 0;
+            for (int z = 0; z < size.getZ(); z++) {
+                for (int y = 0; y < size.getY(); y++) {
+                    for (int x = 0; x < size.getX(); x++) {
+                        set(x, y, z, serializedData[i++]);
+                    }
                 }
             }
         }
     }
 
+    /** @return False if the block data couldn't be read, in which case this blueprint can't be used. */
+    @Override
+    public boolean isValid() {
+        return data != null;
+    }
+
+    private static SchematicBlock readSchematicBlock(NBTTagCompound schematicBlockTag) {
+        SchematicBlock schematicBlock = new SchematicBlock();
+        schematicBlock.deserializeNBT(schematicBlockTag);
+        return schematicBlock;
+    }
+
     @Override
     public EnumSnapshotType getType() {
         return EnumSnapshotType.BLUEPRINT;
@@ -77,24 +150,25 @@ public class Blueprint extends Snapshot {
         public BuildingInfo(BlockPos basePos, Rotation rotation) {
             this.basePos = basePos;
             this.rotation = rotation;
-            SchematicBlockFactory.computeRequired(getSnapshot());
-            SchematicEntityFactory.computeRequired(getSnapshot());
+            SchematicBlock[] required = SchematicBlockFactory.computeRequired(getSnapshot());
+            List<SchematicEntity> requiredEntities = SchematicEntityFactory.computeRequired(getSnapshot());
+            Map<SchematicBlock, SchematicBlock> rotated = new IdentityHashMap<>();
             for (int z = 0; z < getSnapshot().size.getZ(); z++) {
                 for (int y = 0; y < getSnapshot().size.getY(); y++) {
                     for (int x = 0; x < getSnapshot().size.getX(); x++) {
-                        SchematicBlock schematicBlock = data[x][y][z];
+                        SchematicBlock schematicBlock = required[posToIndex(x, y, z)];
                         BlockPos blockPos = new BlockPos(x, y, z).rotate(rotation)
                                 .add(basePos)
                                 .add(offset.rotate(rotation));
                         if (schematicBlock.blockState.getBlock().isAir(schematicBlock.blockState, null, null)) {
                             toBreak.add(blockPos);
                         } else {
-                            toPlace.put(blockPos, schematicBlock.getRotated(rotation));
+                            toPlace.put(blockPos, rotated.computeIfAbsent(schematicBlock, s -> s.getRotated(rotation)));
                         }
                     }
                 }
             }
-            getSnapshot().entities.stream()
+            requiredEntities.stream()
                     .map(schematicEntity -> schematicEntity.getRotated(rotation))
                     .forEach(entities::add);
             box = new Box();
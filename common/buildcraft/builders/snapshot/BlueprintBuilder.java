@@ -20,16 +20,29 @@ import java.util.stream.Stream;
 public class BlueprintBuilder extends SnapshotBuilder<ITileForBlueprintBuilder> {
     private static final double MAX_ENTITY_DISTANCE = 0.1D;
     public List<ItemStack> neededStacks = new ArrayList<>();
+    /** Cached value of {@link #getBuiltLevel()}, as it is checked for every position that could be placed. */
+    private int builtLevel;
+    private long builtLevelTick = -1;
 
     public BlueprintBuilder(ITileForBlueprintBuilder tile) {
         super(tile);
     }
 
-    private Blueprint.BuildingInfo getBuildingInfo() {
+    @Override
+    protected Blueprint.BuildingInfo getBuildingInfo() {
         return tile.getBlueprintBuildingInfo();
     }
 
     private int getBuiltLevel() {
+        long now = tile.getWorldBC().getTotalWorldTime();
+        if (builtLevelTick != now) {
+            builtLevelTick = now;
+            builtLevel = computeBuiltLevel();
+        }
+        return builtLevel;
+    }
+
+    private int computeBuiltLevel() {
         return Optional.ofNullable(getBuildingInfo())
                 .map(buildingInfo ->
                         Stream.concat(
@@ -71,7 +71,7 @@ public class FakeWorld extends World {
                             z == blueprint.size.getZ()) {
                         setBlockState(pos, Blocks.STONE.getDefaultState());
                     } else {
-                        SchematicBlock schematicBlock = blueprint.data[x][y][z];
+                        SchematicBlock schematicBlock = blueprint.get(x, y, z);
                         schematicBlock.buildWithoutChecks(this, pos);
                     }
                 }
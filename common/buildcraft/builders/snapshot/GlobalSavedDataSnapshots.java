@@ -1,5 +1,6 @@
 package buildcraft.builders.snapshot;
 
+import buildcraft.api.core.BCLog;
 import buildcraft.lib.misc.NBTUtilBC;
 import net.minecraft.nbt.CompressedStreamTools;
 import net.minecraft.nbt.NBTTagCompound;
@@ -58,7 +59,12 @@ public class GlobalSavedDataSnapshots {
         // noinspection ConstantConditions
         for (File snapshotFile : snapshotsFile.listFiles()) {
             NBTTagCompound nbt = CompressedStreamTools.read(snapshotFile);
-            snapshots.add(Snapshot.readFromNBT(nbt));
+            Snapshot snapshot = Snapshot.readFromNBT(nbt);
+            if (snapshot.isValid()) {
+                snapshots.add(snapshot);
+            } else {
+                BCLog.logger.warn("[builders.snapshot] Skipping invalid snapshot " + snapshotFile);
+            }
         }
     }
 
@@ -23,6 +23,7 @@ import org.apache.commons.lang3.tuple.Pair;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -108,6 +109,24 @@ public class SchematicBlock implements INBTSerializable<NBTTagCompound> {
                 .forEach(canBeReplacedWithBlocks::add);
     }
 
+    /** @return A copy of this schematic that can be changed (or computed) separately from this one. The collections
+     *         are shared, as they are never modified after being set. */
+    public SchematicBlock copy() {
+        SchematicBlock schematicBlock = new SchematicBlock();
+        schematicBlock.level = level;
+        schematicBlock.requiredBlockOffsets = requiredBlockOffsets;
+        schematicBlock.blockState = blockState;
+        schematicBlock.ignoredProperties = ignoredProperties;
+        schematicBlock.tileNbt = tileNbt == null ? null : tileNbt.copy();
+        schematicBlock.ignoredTags = ignoredTags;
+        schematicBlock.tileRotation = tileRotation;
+        schematicBlock.placeBlock = placeBlock;
+        schematicBlock.canBeReplacedWithBlocks = canBeReplacedWithBlocks;
+        schematicBlock.requiredItems = requiredItems.stream().map(ItemStack::copy).collect(Collectors.toList());
+        schematicBlock.requiredFluids = new ArrayList<>(requiredFluids);
+        return schematicBlock;
+    }
+
     public SchematicBlock getRotated(Rotation rotation) {
         SchematicBlock schematicBlock = new SchematicBlock();
         schematicBlock.level = level;
@@ -206,4 +225,42 @@ public class SchematicBlock implements INBTSerializable<NBTTagCompound> {
         }
         return false;
     }
+
+    /** Only compares the captured state of the block, and not the required items or fluids (as they are computed from
+     * the captured state), so that equal blocks can share a single entry in a {@link Blueprint#palette}. */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        SchematicBlock that = (SchematicBlock) o;
+
+        return level == that.level &&
+                requiredBlockOffsets.equals(that.requiredBlockOffsets) &&
+                blockState == that.blockState &&
+                ignoredProperties.equals(that.ignoredProperties) &&
+                Objects.equals(tileNbt, that.tileNbt) &&
+                ignoredTags.equals(that.ignoredTags) &&
+                tileRotation == that.tileRotation &&
+                placeBlock == that.placeBlock &&
+                canBeReplacedWithBlocks.equals(that.canBeReplacedWithBlocks);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = level;
+        result = 31 * result + requiredBlockOffsets.hashCode();
+        result = 31 * result + System.identityHashCode(blockState);
+        result = 31 * result + ignoredProperties.hashCode();
+        result = 31 * result + Objects.hashCode(tileNbt);
+        result = 31 * result + ignoredTags.hashCode();
+        result = 31 * result + tileRotation.hashCode();
+        result = 31 * result + System.identityHashCode(placeBlock);
+        result = 31 * result + canBeReplacedWithBlocks.hashCode();
+        return result;
+    }
 }
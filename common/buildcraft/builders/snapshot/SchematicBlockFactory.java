@@ -3,9 +3,11 @@ package buildcraft.builders.snapshot;
 import buildcraft.lib.misc.BlockUtil;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockFalling;
+import net.minecraft.block.properties.IProperty;
 import net.minecraft.block.properties.PropertyBool;
 import net.minecraft.block.properties.PropertyDirection;
 import net.minecraft.block.properties.PropertyInteger;
@@ -26,13 +28,59 @@ import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 public class SchematicBlockFactory {
     private static LoadingCache<IBlockState, Set<JsonRule>> rulesCache = CacheBuilder.newBuilder()
             .expireAfterAccess(5, TimeUnit.MINUTES)
             .build(CacheLoader.from(SchematicBlockFactory::getRules));
 
+    private static final LoadingCache<IBlockState, StateParts> statePartsCache = CacheBuilder.newBuilder()
+            .expireAfterAccess(5, TimeUnit.MINUTES)
+            .recordStats()
+            .build(CacheLoader.from(SchematicBlockFactory::getStateParts));
+
+    /** The parts of a {@link SchematicBlock} that only depend on the block state (through the rules for it), and not
+     * on the world around the position being read. Everything else (the level, tile, required items and fluids, and
+     * the fallback place block) is read again for every position. */
+    private static class StateParts {
+        boolean ignore;
+        Set<BlockPos> requiredBlockOffsets;
+        List<IProperty<?>> ignoredProperties;
+        List<String> ignoredTags;
+        /** The place block given by the rules, or null if the default should be used. */
+        Block rulePlaceBlock;
+        /** The blocks given by the rules that this can be replaced with. */
+        Set<Block> ruleReplaceBlocks;
+    }
+
+    private static StateParts getStateParts(IBlockState blockState) {
+        Set<JsonRule> rules = rulesCache.getUnchecked(blockState);
+        Block block = blockState.getBlock();
+        StateParts parts = new StateParts();
+        parts.ignore = rules.stream().anyMatch(rule -> rule.ignore);
+        SchematicBlock scratch = new SchematicBlock();
+        // None of these use the world or position
+        setRequiredBlockOffsets(null, null, null, blockState, block, rules, scratch);
+        setIgnoredProperties(null, null, null, blockState, block, rules, scratch);
+        setIgnoredTags(null, null, null, blockState, block, rules, scratch);
+        parts.requiredBlockOffsets = scratch.requiredBlockOffsets;
+        parts.ignoredProperties = scratch.ignoredProperties;
+        parts.ignoredTags = scratch.ignoredTags;
+        parts.rulePlaceBlock = rules.stream()
+                .map(rule -> rule.placeBlock)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .map(Block::getBlockFromName)
+                .orElse(null);
+        parts.ruleReplaceBlocks = rules.stream()
+                .map(rule -> rule.canBeReplacedWithBlocks)
+                .filter(Objects::nonNull)
+                .flatMap(Collection::stream)
+                .map(Block::getBlockFromName)
+                .collect(Collectors.toCollection(HashSet::new));
+        return parts;
+    }
+
     private static Set<JsonRule> getRules(IBlockState blockState) {
         return RulesLoader.INSTANCE.rules.stream()
                 .filter(rule -> rule.selectors != null)
@@ -207,16 +255,15 @@ public class SchematicBlockFactory {
             Set<JsonRule> rules,
             SchematicBlock schematicBlock
     ) {
-        schematicBlock.placeBlock = rules.stream()
-                .map(rule -> rule.placeBlock)
-                .filter(Objects::nonNull)
-                .findFirst()
-                .map(Block::getBlockFromName)
-                .orElse(
-                        BlockUtil.getFluidWithFlowing(world, pos) != null && BlockUtil.getFluid(world, pos) == null
-                                ? Blocks.AIR
-                                : block
-                );
+        Block rulePlaceBlock = statePartsCache.getUnchecked(blockState).rulePlaceBlock;
+        if (rulePlaceBlock != null) {
+            schematicBlock.placeBlock = rulePlaceBlock;
+        } else {
+            schematicBlock.placeBlock =
+                    BlockUtil.getFluidWithFlowing(world, pos) != null && BlockUtil.getFluid(world, pos) == null
+                            ? Blocks.AIR
+                            : block;
+        }
         return true;
     }
 
@@ -229,16 +276,10 @@ public class SchematicBlockFactory {
             Set<JsonRule> rules,
             SchematicBlock schematicBlock
     ) {
-        schematicBlock.canBeReplacedWithBlocks =
-                Stream.concat(
-                        rules.stream()
-                                .map(rule -> rule.canBeReplacedWithBlocks)
-                                .filter(Objects::nonNull)
-                                .flatMap(Collection::stream)
-                                .map(Block::getBlockFromName),
-                        Stream.of(block, schematicBlock.placeBlock)
-                )
-                        .collect(Collectors.toCollection(HashSet::new));
+        Set<Block> canBeReplacedWithBlocks = new HashSet<>(statePartsCache.getUnchecked(blockState).ruleReplaceBlocks);
+        canBeReplacedWithBlocks.add(block);
+        canBeReplacedWithBlocks.add(schematicBlock.placeBlock);
+        schematicBlock.canBeReplacedWithBlocks = canBeReplacedWithBlocks;
         return true;
     }
 
@@ -343,6 +384,20 @@ public class SchematicBlockFactory {
             BlockPos pos,
             IBlockState blockState,
             Block block
+    ) {
+        return readSchematicBlock(world, basePos, pos, blockState, block);
+    }
+
+    public static CacheStats getStatePartsCacheStats() {
+        return statePartsCache.stats();
+    }
+
+    private static SchematicBlock readSchematicBlock(
+            World world,
+            BlockPos basePos,
+            BlockPos pos,
+            IBlockState blockState,
+            Block block
     ) {
         SchematicBlock schematicBlock = new SchematicBlock();
         boolean ignore = false;
@@ -358,13 +413,18 @@ public class SchematicBlockFactory {
         }
         if (!ignore) {
             Set<JsonRule> rules = rulesCache.getUnchecked(blockState);
-            if (rules.stream().anyMatch(rule -> rule.ignore) ||
+            StateParts parts = statePartsCache.getUnchecked(blockState);
+            if (parts.ignore) {
+                ignore = true;
+            } else {
+                schematicBlock.requiredBlockOffsets = parts.requiredBlockOffsets;
+                schematicBlock.ignoredProperties = parts.ignoredProperties;
+                schematicBlock.ignoredTags = parts.ignoredTags;
+            }
+            if (ignore ||
                     !setLevel /*                  */(world, basePos, pos, blockState, block, rules, schematicBlock) ||
-                    !setRequiredBlockOffsets /*   */(world, basePos, pos, blockState, block, rules, schematicBlock) ||
                     !setBlockState /*             */(world, basePos, pos, blockState, block, rules, schematicBlock) ||
-                    !setIgnoredProperties /*      */(world, basePos, pos, blockState, block, rules, schematicBlock) ||
                     !setTileNbt /*                */(world, basePos, pos, blockState, block, rules, schematicBlock) ||
-                    !setIgnoredTags /*            */(world, basePos, pos, blockState, block, rules, schematicBlock) ||
                     !setPlaceBlock /*             */(world, basePos, pos, blockState, block, rules, schematicBlock) ||
                     !setCanBeReplacedWithBlocks /**/(world, basePos, pos, blockState, block, rules, schematicBlock) ||
                     !setRequiredItems /*          */(world, basePos, pos, blockState, block, rules, schematicBlock) ||
@@ -373,35 +433,82 @@ public class SchematicBlockFactory {
             }
         }
         if (ignore) {
-            schematicBlock = getSchematicBlock(world, basePos, pos, Blocks.AIR.getDefaultState(), Blocks.AIR);
+            schematicBlock = readSchematicBlock(world, basePos, pos, Blocks.AIR.getDefaultState(), Blocks.AIR);
         }
         return schematicBlock;
     }
 
-    public static void computeRequired(Blueprint blueprint) {
+    /** Works out the items and fluids needed to build every block in the given blueprint. These can depend on the
+     * blocks around each one (for example the top half of a double plant), so they are worked out at every position,
+     * but positions with the same palette entry and the same requirements share a single copy of the entry. The
+     * blueprint itself isn't changed.
+     *
+     * @return A copy of the palette entry of every block, with its requirements set, indexed by
+     *         {@link Blueprint#posToIndex(int, int, int)}. */
+    public static SchematicBlock[] computeRequired(Blueprint blueprint) {
+        SchematicBlock[] required = new SchematicBlock[blueprint.getDataSize()];
+        List<List<SchematicBlock>> variants = new ArrayList<>(blueprint.palette.size());
+        for (int i = 0; i < blueprint.palette.size(); i++) {
+            variants.add(new ArrayList<>(1));
+        }
+        SchematicBlock computing = new SchematicBlock();
         FakeWorld world = FakeWorld.INSTANCE;
         world.uploadBlueprint(blueprint);
         world.editable = false;
         for (int z = 0; z < blueprint.size.getZ(); z++) {
             for (int y = 0; y < blueprint.size.getY(); y++) {
                 for (int x = 0; x < blueprint.size.getX(); x++) {
+                    int paletteIndex = blueprint.getPaletteIndex(x, y, z);
                     BlockPos pos = new BlockPos(x, y, z).add(FakeWorld.BLUEPRINT_OFFSET);
-                    SchematicBlock schematicBlock = blueprint.data
-                            [pos.getX() - FakeWorld.BLUEPRINT_OFFSET.getX()]
-                            [pos.getY() - FakeWorld.BLUEPRINT_OFFSET.getY()]
-                            [pos.getZ() - FakeWorld.BLUEPRINT_OFFSET.getZ()];
                     IBlockState blockState = world.getBlockState(pos);
                     Block block = blockState.getBlock();
                     Set<JsonRule> rules = rulesCache.getUnchecked(blockState);
-                    if (!setRequiredItems(world, FakeWorld.BLUEPRINT_OFFSET, pos, blockState, block, rules, schematicBlock) ||
-                            !setRequiredFluids(world, FakeWorld.BLUEPRINT_OFFSET, pos, blockState, block, rules, schematicBlock)) {
-                        schematicBlock.requiredItems = null;
-                        schematicBlock.requiredFluids = null;
+                    // Work out the requirements into a scratch schematic, and only copy the palette entry (and its
+                    // tile NBT) if nothing with the same requirements has been seen yet
+                    computing.requiredItems = null;
+                    computing.requiredFluids = null;
+                    if (!setRequiredItems(world, FakeWorld.BLUEPRINT_OFFSET, pos, blockState, block, rules, computing) ||
+                            !setRequiredFluids(world, FakeWorld.BLUEPRINT_OFFSET, pos, blockState, block, rules, computing)) {
+                        computing.requiredItems = null;
+                        computing.requiredFluids = null;
+                    }
+                    SchematicBlock shared = null;
+                    for (SchematicBlock variant : variants.get(paletteIndex)) {
+                        if (isSameRequired(variant, computing)) {
+                            shared = variant;
+                            break;
+                        }
+                    }
+                    if (shared == null) {
+                        shared = blueprint.palette.get(paletteIndex).copy();
+                        shared.requiredItems = computing.requiredItems;
+                        shared.requiredFluids = computing.requiredFluids;
+                        variants.get(paletteIndex).add(shared);
                     }
+                    required[blueprint.posToIndex(x, y, z)] = shared;
                 }
             }
         }
         world.editable = true;
         world.clear();
+        return required;
+    }
+
+    private static boolean isSameRequired(SchematicBlock a, SchematicBlock b) {
+        if (!Objects.equals(a.requiredFluids, b.requiredFluids)) {
+            return false;
+        }
+        if (a.requiredItems == null || b.requiredItems == null) {
+            return a.requiredItems == b.requiredItems;
+        }
+        if (a.requiredItems.size() != b.requiredItems.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.requiredItems.size(); i++) {
+            if (!ItemStack.areItemStacksEqual(a.requiredItems.get(i), b.requiredItems.get(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -50,6 +50,12 @@ public class SchematicEntity implements INBTSerializable<NBTTagCompound> {
         entityRotation = NBTUtilBC.readEnum(nbt.getTag("entityRotation"), Rotation.class);
     }
 
+    /** @return A copy of this schematic that can be computed separately from this one. The NBT and collections are
+     *         shared, as they are never modified after being set. */
+    public SchematicEntity copy() {
+        return getRotated(Rotation.NONE);
+    }
+
     public SchematicEntity getRotated(Rotation rotation) {
         SchematicEntity schematicEntity = new SchematicEntity();
         schematicEntity.entityNbt = entityNbt;
@@ -62,10 +62,17 @@ public class SchematicEntityFactory {
         return schematicEntity;
     }
 
-    public static void computeRequired(Blueprint blueprint) {
+    /** Works out the items and fluids needed to build every entity in the given blueprint. The blueprint itself isn't
+     * changed.
+     *
+     * @return A copy of every entity, with its requirements set. */
+    public static List<SchematicEntity> computeRequired(Blueprint blueprint) {
+        List<SchematicEntity> required = new ArrayList<>(blueprint.entities.size());
         FakeWorld world = FakeWorld.INSTANCE;
         world.uploadBlueprint(blueprint);
-        for (SchematicEntity schematicEntity : blueprint.entities) {
+        for (SchematicEntity original : blueprint.entities) {
+            SchematicEntity schematicEntity = original.copy();
+            required.add(schematicEntity);
             Entity entity = schematicEntity.buildWithoutChecks(world, FakeWorld.BLUEPRINT_OFFSET);
             if (entity != null) {
                 Set<JsonRule> rules = getRules(entity);
@@ -89,5 +96,6 @@ public class SchematicEntityFactory {
             }
         }
         world.clear();
+        return required;
     }
 }
@@ -32,6 +32,17 @@ public abstract class Snapshot implements INBTSerializable<NBTTagCompound> {
 
     public abstract <T extends ITileForSnapshotBuilder> SnapshotBuilder<T> createBuilder(T tile);
 
+    /** @return The number of blocks that this snapshot covers. */
+    public int getDataSize() {
+        return size.getX() * size.getY() * size.getZ();
+    }
+
+    /** @return The index of the given position in the flat data array. This uses the same (z, y, x) order that the old
+     *         per-block NBT lists were written in. */
+    public int posToIndex(int x, int y, int z) {
+        return (z * size.getY() + y) * size.getX() + x;
+    }
+
     public static NBTTagCompound writeToNBT(Snapshot snapshot) {
         NBTTagCompound nbt = snapshot.serializeNBT();
         nbt.setTag("type", NBTUtilBC.writeEnum(snapshot.getType()));
@@ -44,6 +55,11 @@ public abstract class Snapshot implements INBTSerializable<NBTTagCompound> {
         return snapshot;
     }
 
+    /** @return False if this snapshot couldn't be read properly, and so shouldn't be used. */
+    public boolean isValid() {
+        return true;
+    }
+
     @Override
     public NBTTagCompound serializeNBT() {
         NBTTagCompound nbt = new NBTTagCompound();
@@ -0,0 +1,352 @@
+/* Copyright (c) 2016 SpaceToad and the BuildCraft team
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/. */
+package buildcraft.builders.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTSizeTracker;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+
+import buildcraft.lib.misc.data.PackedIntArray;
+import buildcraft.lib.net.PacketBufferBC;
+
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+
+/** A compact binary format for {@link Snapshot}'s, that is written straight to (and read straight from) a stream
+ * without building the whole snapshot as NBT first.
+ * <p>
+ * The format is:
+ * <ol>
+ * <li>The format version and the {@link Snapshot.EnumSnapshotType} (both bytes), the header, size, facing and
+ * offset</li>
+ * <li>For templates: alternating run lengths of empty and solid blocks, starting with empty, in the same order as
+ * {@link Snapshot#posToIndex(int, int, int)}</li>
+ * <li>For blueprints: every distinct tile entity tag, then the palette (with each tile tag replaced by its index),
+ * then pairs of (palette index, run length) in the same order as above, then the entities</li>
+ * </ol>
+ * Every count, index and length is a varint. */
+public class SnapshotBinaryFormat {
+    public static final int VERSION = 1;
+    /** The most NBT data that will be read from a single snapshot sent over the network: the same as the limit of
+     * {@link net.minecraft.network.PacketBuffer#readCompoundTag()}. */
+    public static final long MAX_NETWORK_NBT_SIZE = 2097152L;
+    /** The largest volume of snapshot that will be read. */
+    public static final int MAX_VOLUME = 256 * 256 * 256;
+
+    // Writing
+
+    public static void writeToBuffer(Snapshot snapshot, PacketBufferBC buffer) {
+        try {
+            write(snapshot, new ByteBufOutputStream(buffer));
+        } catch (IOException e) {
+            // Writing to a buffer never fails
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static void writeToStream(Snapshot snapshot, OutputStream stream) throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream));
+        write(snapshot, output);
+        output.flush();
+    }
+
+    public static void write(Snapshot snapshot, DataOutput output) throws IOException {
+        output.writeByte(VERSION);
+        output.writeByte(snapshot.getType().ordinal());
+        writeHeader(snapshot.header, output);
+        writeVarInt(output, snapshot.size.getX());
+        writeVarInt(output, snapshot.size.getY());
+        writeVarInt(output, snapshot.size.getZ());
+        output.writeByte(snapshot.facing.getIndex());
+        writeSignedVarInt(output, snapshot.offset.getX());
+        writeSignedVarInt(output, snapshot.offset.getY());
+        writeSignedVarInt(output, snapshot.offset.getZ());
+        if (snapshot instanceof Template) {
+            writeTemplate((Template) snapshot, output);
+        } else if (snapshot instanceof Blueprint) {
+            writeBlueprint((Blueprint) snapshot, output);
+        } else {
+            throw new IllegalArgumentException("Unknown snapshot " + snapshot.getClass());
+        }
+    }
+
+    private static void writeHeader(Snapshot.Header header, DataOutput output) throws IOException {
+        output.writeLong(header.id.getMostSignificantBits());
+        output.writeLong(header.id.getLeastSignificantBits());
+        output.writeLong(header.owner.getMostSignificantBits());
+        output.writeLong(header.owner.getLeastSignificantBits());
+        output.writeLong(header.created.getTime());
+        output.writeUTF(header.name);
+    }
+
+    private static void writeTemplate(Template template, DataOutput output) throws IOException {
+        BitSet data = template.data;
+        int size = template.getDataSize();
+        int index = 0;
+        while (index < size) {
+            int solidStart = data.nextSetBit(index);
+            if (solidStart < 0 || solidStart > size) {
+                solidStart = size;
+            }
+            writeVarInt(output, solidStart - index);
+            if (solidStart == size) {
+                break;
+            }
+            int solidEnd = Math.min(data.nextClearBit(solidStart), size);
+            writeVarInt(output, solidEnd - solidStart);
+            index = solidEnd;
+        }
+    }
+
+    private static void writeBlueprint(Blueprint blueprint, DataOutput output) throws IOException {
+        // Tile tags
+        Map<NBTTagCompound, Integer> tileIndices = new HashMap<>();
+        List<NBTTagCompound> tiles = new ArrayList<>();
+        int[] paletteTiles = new int[blueprint.palette.size()];
+        for (int i = 0; i < paletteTiles.length; i++) {
+            NBTTagCompound tileNbt = blueprint.palette.get(i).tileNbt;
+            if (tileNbt == null) {
+                paletteTiles[i] = -1;
+            } else {
+                paletteTiles[i] = tileIndices.computeIfAbsent(tileNbt, nbt -> {
+                    tiles.add(nbt);
+                    return tiles.size() - 1;
+                });
+            }
+        }
+        writeVarInt(output, tiles.size());
+        for (NBTTagCompound tileNbt : tiles) {
+            CompressedStreamTools.write(tileNbt, output);
+        }
+
+        // Palette
+        writeVarInt(output, paletteTiles.length);
+        for (int i = 0; i < paletteTiles.length; i++) {
+            NBTTagCompound nbt = blueprint.palette.get(i).serializeNBT();
+            nbt.removeTag("tileNbt");
+            CompressedStreamTools.write(nbt, output);
+            writeVarInt(output, paletteTiles[i] + 1);
+        }
+
+        // Blocks
+        PackedIntArray data = blueprint.data;
+        int size = blueprint.getDataSize();
+        int index = 0;
+        while (index < size) {
+            int value = data.get(index);
+            int end = index + 1;
+            while (end < size && data.get(end) == value) {
+                end++;
+            }
+            writeVarInt(output, value);
+            writeVarInt(output, end - index);
+            index = end;
+        }
+
+        // Entities
+        // Not writeBoolean: PacketBufferBC packs booleans into shared bytes
+        output.writeByte(blueprint.entities != null ? 1 : 0);
+        if (blueprint.entities != null) {
+            writeVarInt(output, blueprint.entities.size());
+            for (SchematicEntity entity : blueprint.entities) {
+                CompressedStreamTools.write(entity.serializeNBT(), output);
+            }
+        }
+    }
+
+    // Reading
+
+    /** Reads a snapshot sent over the network, limiting the total amount of NBT read to
+     * {@link #MAX_NETWORK_NBT_SIZE}. */
+    public static Snapshot readFromBuffer(PacketBufferBC buffer) throws IOException {
+        try {
+            return read(new ByteBufInputStream(buffer), new NBTSizeTracker(MAX_NETWORK_NBT_SIZE));
+        } catch (RuntimeException e) {
+            // NBTSizeTracker throws a RuntimeException when the limit is reached
+            throw new IOException(e);
+        }
+    }
+
+    public static Snapshot readFromStream(InputStream stream) throws IOException {
+        return read(new DataInputStream(new BufferedInputStream(stream)));
+    }
+
+    public static Snapshot read(DataInput input) throws IOException {
+        return read(input, NBTSizeTracker.INFINITE);
+    }
+
+    /** @param tracker Shared by every tag in the snapshot, so it limits the total size of all of them. */
+    public static Snapshot read(DataInput input, NBTSizeTracker tracker) throws IOException {
+        int version = input.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unknown snapshot format version " + version);
+        }
+        int type = input.readUnsignedByte();
+        Snapshot.EnumSnapshotType[] types = Snapshot.EnumSnapshotType.values();
+        if (type >= types.length) {
+            throw new IOException("Unknown snapshot type " + type);
+        }
+        Snapshot snapshot = types[type].create.get();
+        readHeader(snapshot.header, input);
+        int sizeX = readVarInt(input);
+        int sizeY = readVarInt(input);
+        int sizeZ = readVarInt(input);
+        if (sizeX <= 0 || sizeY <= 0 || sizeZ <= 0 || (long) sizeX * sizeY * sizeZ > MAX_VOLUME) {
+            throw new IOException("Invalid snapshot size " + sizeX + ", " + sizeY + ", " + sizeZ);
+        }
+        snapshot.size = new BlockPos(sizeX, sizeY, sizeZ);
+        snapshot.facing = EnumFacing.getFront(input.readUnsignedByte());
+        int offsetX = readSignedVarInt(input);
+        int offsetY = readSignedVarInt(input);
+        int offsetZ = readSignedVarInt(input);
+        snapshot.offset = new BlockPos(offsetX, offsetY, offsetZ);
+        if (snapshot instanceof Template) {
+            readTemplate((Template) snapshot, input);
+        } else {
+            readBlueprint((Blueprint) snapshot, input, tracker);
+        }
+        return snapshot;
+    }
+
+    private static void readHeader(Snapshot.Header header, DataInput input) throws IOException {
+        header.id = new UUID(input.readLong(), input.readLong());
+        header.owner = new UUID(input.readLong(), input.readLong());
+        header.created = new Date(input.readLong());
+        header.name = input.readUTF();
+    }
+
+    private static void readTemplate(Template template, DataInput input) throws IOException {
+        int size = template.getDataSize();
+        BitSet data = new BitSet(size);
+        int index = 0;
+        while (index < size) {
+            index = checkedEnd(index, readVarInt(input), size);
+            if (index == size) {
+                break;
+            }
+            int end = checkedEnd(index, readVarInt(input), size);
+            data.set(index, end);
+            index = end;
+        }
+        template.data = data;
+    }
+
+    private static void readBlueprint(Blueprint blueprint, DataInput input, NBTSizeTracker tracker) throws IOException {
+        blueprint.clearData();
+        int size = blueprint.getDataSize();
+
+        int tileCount = checkedCount(readVarInt(input), size, "tile entities");
+        NBTTagCompound[] tiles = new NBTTagCompound[tileCount];
+        for (int i = 0; i < tileCount; i++) {
+            tiles[i] = CompressedStreamTools.read(input, tracker);
+        }
+
+        int paletteSize = checkedCount(readVarInt(input), size, "palette entries");
+        int[] paletteIndices = new int[paletteSize];
+        for (int i = 0; i < paletteSize; i++) {
+            SchematicBlock schematicBlock = new SchematicBlock();
+            schematicBlock.deserializeNBT(CompressedStreamTools.read(input, tracker));
+            int tile = readVarInt(input) - 1;
+            if (tile >= tileCount) {
+                throw new IOException("Tile index " + tile + " out of bounds for " + tileCount + " tiles");
+            }
+            schematicBlock.tileNbt = tile < 0 ? null : tiles[tile].copy();
+            paletteIndices[i] = blueprint.addToPalette(schematicBlock);
+        }
+
+        // Size the array for the whole palette up front, rather than growing it as larger indices are read
+        int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(0, blueprint.palette.size() - 1)));
+        PackedIntArray data = new PackedIntArray(size, bits);
+        blueprint.data = data;
+        int index = 0;
+        while (index < size) {
+            int value = readVarInt(input);
+            if (value < 0 || value >= paletteSize) {
+                throw new IOException("Palette index " + value + " out of bounds for " + paletteSize + " entries");
+            }
+            int end = checkedEnd(index, readVarInt(input), size);
+            int paletteIndex = paletteIndices[value];
+            for (; index < end; index++) {
+                data.set(index, paletteIndex);
+            }
+        }
+
+        if (input.readUnsignedByte() != 0) {
+            int entityCount = checkedCount(readVarInt(input), size, "entities");
+            blueprint.entities = new ArrayList<>();
+            for (int i = 0; i < entityCount; i++) {
+                SchematicEntity entity = new SchematicEntity();
+                entity.deserializeNBT(CompressedStreamTools.read(input, tracker));
+                blueprint.entities.add(entity);
+            }
+        } else {
+            blueprint.entities = null;
+        }
+    }
+
+    private static int checkedCount(int count, int max, String what) throws IOException {
+        if (count < 0 || count > max) {
+            throw new IOException("Too many " + what + " (" + count + ") for a snapshot with " + max + " blocks");
+        }
+        return count;
+    }
+
+    private static int checkedEnd(int index, int length, int size) throws IOException {
+        if (length < 0 || length > size - index) {
+            throw new IOException("Run of " + length + " at " + index + " is longer than the snapshot (" + size + ")");
+        }
+        return index + length;
+    }
+
+    // Varints
+
+    static void writeVarInt(DataOutput output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    static int readVarInt(DataInput input) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = input.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarInt too big");
+    }
+
+    private static void writeSignedVarInt(DataOutput output, int value) throws IOException {
+        writeVarInt(output, (value << 1) ^ (value >> 31));
+    }
+
+    private static int readSignedVarInt(DataInput input) throws IOException {
+        int value = readVarInt(input);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -6,6 +6,7 @@ import buildcraft.lib.misc.FakePlayerUtil;
 import buildcraft.lib.misc.data.Box;
 import buildcraft.lib.net.PacketBufferBC;
 import net.minecraft.item.ItemStack;
+import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.WorldServer;
@@ -14,13 +15,17 @@ import net.minecraftforge.event.world.BlockEvent;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> {
     private static final int MAX_QUEUE_SIZE = 64;
+    /** The maximum number of positions from the work queues that will be looked at in a single tick. */
+    private static final int MAX_CHECKS_PER_TICK = 4096;
+    /** How often (in ticks) positions that were checked but couldn't be worked on yet are checked again. Positions next
+     * to a block change are always checked again straight away. */
+    private static final int RETRY_INTERVAL = 20;
 
     protected final T tile;
     private Queue<BreakTask> breakTasks = new ArrayDeque<>();
@@ -31,11 +36,23 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> {
     public Queue<PlaceTask> prevClientPlaceTasks = new ArrayDeque<>();
     public Vec3d robotPos = null;
     public Vec3d prevRobotPos = null;
+    /** The positions of every task in {@link #breakTasks} and {@link #placeTasks}, for fast lookup. Server only. */
+    private final Set<BlockPos> breakPositions = new HashSet<>();
+    private final Set<BlockPos> placePositions = new HashSet<>();
+    private Object queuedBuildingInfo = null;
+    private WorkQueue breakQueue = null;
+    private WorkQueue placeQueue = null;
+    /** The box the work queues were built for, grown by one block so changes next to it are seen too. */
+    private BlockPos queuedMin, queuedMax;
+    private int ticksUntilRetry = RETRY_INTERVAL;
 
     protected SnapshotBuilder(T tile) {
         this.tile = tile;
     }
 
+    /** @return The current building info. The work queues are rebuilt whenever this changes (by identity). */
+    protected abstract Object getBuildingInfo();
+
     protected abstract List<BlockPos> getToBreak();
 
     protected abstract List<BlockPos> getToPlace();
@@ -115,51 +132,70 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> {
             return false;
         }
 
-        breakTasks.removeIf(breakTask -> tile.getWorldBC().isAirBlock(breakTask.pos) || isBlockCorrect(breakTask.pos));
-        placeTasks.removeIf(placeTask -> isBlockCorrect(placeTask.pos));
-
-        if (breakTasks.size() < MAX_QUEUE_SIZE) {
-            Stream.concat(getToBreak().stream(), getToPlace().stream())
-                    .sorted(Comparator.comparing(blockPos ->
-                            Math.pow(blockPos.getX() - getBox().center().getX(), 2) +
-                                    Math.pow(blockPos.getZ() - getBox().center().getZ(), 2) +
-                                    100_000 - Math.abs(blockPos.getY() - tile.getBuilderPos().getY()) * 100_000
-                    ))
-                    .filter(blockPos -> breakTasks.stream().map(BreakTask::getPos).noneMatch(Predicate.isEqual(blockPos)))
-                    .filter(blockPos -> !tile.getWorldBC().isAirBlock(blockPos))
-                    .filter(blockPos -> !isBlockCorrect(blockPos))
-                    .filter(blockPos -> BlockUtil.getFluidWithFlowing(tile.getWorldBC(), blockPos) == null)
-                    .map(blockPos ->
-                            new BreakTask(
-                                    blockPos,
-                                    0
-                            )
-                    )
-                    .limit(MAX_QUEUE_SIZE - breakTasks.size())
-                    .forEach(breakTasks::add);
-        }
-
-        if (breakTasks.isEmpty() && placeTasks.size() < MAX_QUEUE_SIZE) {
-            getToPlace().stream()
-                    .sorted(Comparator.comparing(blockPos ->
-                            100_000 - (Math.pow(blockPos.getX() - tile.getBuilderPos().getX(), 2) +
-                                    Math.pow(blockPos.getZ() - tile.getBuilderPos().getZ(), 2)) +
-                                    Math.abs(blockPos.getY() - tile.getBuilderPos().getY()) * 100_000
-                    ))
-                    .filter(blockPos -> placeTasks.stream().map(PlaceTask::getPos).noneMatch(Predicate.isEqual(blockPos)))
-                    .filter(blockPos -> !isBlockCorrect(blockPos))
-                    .filter(this::canPlace)
-                    .map(blockPos ->
-                            new PlaceTask(
-                                    blockPos,
-                                    getToPlaceItems(blockPos),
-                                    0
-                            )
-                    )
-                    .filter(placeTask -> placeTask.items != null)
-                    .filter(placeTask -> !placeTask.items.contains(ItemStack.EMPTY))
-                    .limit(MAX_QUEUE_SIZE - placeTasks.size())
-                    .forEach(placeTasks::add);
+        for (Iterator<BreakTask> iterator = breakTasks.iterator(); iterator.hasNext(); ) {
+            BreakTask breakTask = iterator.next();
+            if (tile.getWorldBC().isAirBlock(breakTask.pos) || isBlockCorrect(breakTask.pos)) {
+                breakPositions.remove(breakTask.pos);
+                iterator.remove();
+            }
+        }
+        for (Iterator<PlaceTask> iterator = placeTasks.iterator(); iterator.hasNext(); ) {
+            PlaceTask placeTask = iterator.next();
+            if (isBlockCorrect(placeTask.pos)) {
+                placePositions.remove(placeTask.pos);
+                iterator.remove();
+            }
+        }
+
+        if (getBuildingInfo() != queuedBuildingInfo) {
+            rebuildQueues();
+        }
+
+        if (breakQueue != null && --ticksUntilRetry <= 0) {
+            ticksUntilRetry = RETRY_INTERVAL;
+            breakQueue.retryWaiting();
+            placeQueue.retryWaiting();
+        }
+
+        if (breakTasks.size() < MAX_QUEUE_SIZE && breakQueue != null) {
+            BlockPos blockPos;
+            int checked = 0;
+            while (breakTasks.size() < MAX_QUEUE_SIZE && checked++ < MAX_CHECKS_PER_TICK && (blockPos = breakQueue.poll()) != null) {
+                if (breakPositions.contains(blockPos) ||
+                        tile.getWorldBC().isAirBlock(blockPos) ||
+                        isBlockCorrect(blockPos)) {
+                    // Nothing to do here until the block changes
+                    continue;
+                }
+                if (BlockUtil.getFluidWithFlowing(tile.getWorldBC(), blockPos) != null) {
+                    breakQueue.defer(blockPos);
+                    continue;
+                }
+                breakTasks.add(new BreakTask(blockPos, 0));
+                breakPositions.add(blockPos);
+            }
+        }
+
+        if (breakTasks.isEmpty() && placeTasks.size() < MAX_QUEUE_SIZE && placeQueue != null) {
+            BlockPos blockPos;
+            int checked = 0;
+            while (placeTasks.size() < MAX_QUEUE_SIZE && checked++ < MAX_CHECKS_PER_TICK && (blockPos = placeQueue.poll()) != null) {
+                if (placePositions.contains(blockPos) || isBlockCorrect(blockPos)) {
+                    continue;
+                }
+                if (!canPlace(blockPos)) {
+                    placeQueue.defer(blockPos);
+                    continue;
+                }
+                PlaceTask placeTask = new PlaceTask(blockPos, getToPlaceItems(blockPos), 0);
+                if (placeTask.items != null && !placeTask.items.contains(ItemStack.EMPTY)) {
+                    placeTasks.add(placeTask);
+                    placePositions.add(blockPos);
+                } else {
+                    // Wait for more items
+                    placeQueue.defer(blockPos);
+                }
+            }
         }
 
         if (!breakTasks.isEmpty()) {
@@ -194,7 +230,10 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> {
                                 Math.min(target, tile.getBattery().getCapacity() - tile.getBattery().getStored()),
                                 false
                         );
+                        // The world didn't change so the listener won't re-queue it
+                        breakQueue.requeue(breakTask.pos);
                     }
+                    breakPositions.remove(breakTask.pos);
                     iterator.remove();
                 } else {
                     tile.getWorldBC().sendBlockBreakProgress(
@@ -221,7 +260,9 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> {
                                 false
                         );
                         cancelPlaceTask(placeTask);
+                        placeQueue.requeue(placeTask.pos);
                     }
+                    placePositions.remove(placeTask.pos);
                     iterator.remove();
                 }
             }
@@ -230,6 +271,52 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> {
         return isDone();
     }
 
+    private void rebuildQueues() {
+        queuedBuildingInfo = getBuildingInfo();
+        Box box = getBox();
+        if (queuedBuildingInfo == null || box == null) {
+            breakQueue = null;
+            placeQueue = null;
+            return;
+        }
+        SnapshotBuilderWorldListener.register(this);
+        queuedMin = box.min().add(-1, -1, -1);
+        queuedMax = box.max().add(1, 1, 1);
+        BlockPos center = box.center();
+        BlockPos builderPos = tile.getBuilderPos();
+        List<BlockPos> toBreak = new ArrayList<>(getToBreak());
+        List<BlockPos> toPlace = getToPlace();
+        toBreak.addAll(toPlace);
+        breakQueue = new WorkQueue(toBreak, blockPos ->
+                Math.pow(blockPos.getX() - center.getX(), 2) +
+                        Math.pow(blockPos.getZ() - center.getZ(), 2) +
+                        100_000 - Math.abs(blockPos.getY() - builderPos.getY()) * 100_000
+        );
+        placeQueue = new WorkQueue(toPlace, blockPos ->
+                100_000 - (Math.pow(blockPos.getX() - builderPos.getX(), 2) +
+                        Math.pow(blockPos.getZ() - builderPos.getZ(), 2)) +
+                        Math.abs(blockPos.getY() - builderPos.getY()) * 100_000
+        );
+        ticksUntilRetry = RETRY_INTERVAL;
+    }
+
+    /** Called by {@link SnapshotBuilderWorldListener} whenever a block changes in this builder's world. Puts the
+     * position and its neighbours back into the work queues, as they might need (or allow) some work now. */
+    void onBlockChanged(BlockPos pos) {
+        if (breakQueue == null ||
+                pos.getX() < queuedMin.getX() || pos.getY() < queuedMin.getY() || pos.getZ() < queuedMin.getZ() ||
+                pos.getX() > queuedMax.getX() || pos.getY() > queuedMax.getY() || pos.getZ() > queuedMax.getZ()) {
+            return;
+        }
+        breakQueue.requeue(pos);
+        placeQueue.requeue(pos);
+        for (EnumFacing face : EnumFacing.VALUES) {
+            BlockPos offset = pos.offset(face);
+            breakQueue.requeue(offset);
+            placeQueue.requeue(offset);
+        }
+    }
+
     public void writeToByteBuf(PacketBufferBC buffer) {
         buffer.writeInt(breakTasks.size());
         breakTasks.forEach(breakTask -> breakTask.writePayload(buffer));
@@ -259,6 +346,76 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> {
         );
     }
 
+    /** A priority queue of positions ordered by a fixed metric (lowest first). Every position is given a rank by sorting
+     * it once, so the queue itself is just a set of ranks: polling always returns the pending position with the lowest
+     * metric, no matter the order positions were (re-)added in. Polled positions are dropped unless they are explicitly
+     * deferred (checked, but can't be worked on yet) or re-queued because the world changed around them. */
+    static final class WorkQueue {
+        private final BlockPos[] positions;
+        private final Map<BlockPos, Integer> ranks;
+        /** The ranks of every position that should be checked. */
+        private final BitSet pending;
+        /** The ranks of every position that was checked but couldn't be worked on yet. */
+        private final BitSet waiting;
+
+        WorkQueue(List<BlockPos> all, ToDoubleFunction<BlockPos> metric) {
+            int size = all.size();
+            double[] keys = new double[size];
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = metric.applyAsDouble(all.get(i));
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(keys[a], keys[b]));
+            positions = new BlockPos[size];
+            ranks = new HashMap<>(size * 2);
+            int rank = 0;
+            for (Integer i : order) {
+                BlockPos pos = all.get(i);
+                // Positions can be in the list twice (break queue), so only keep the first (highest priority) one
+                if (ranks.putIfAbsent(pos, rank) == null) {
+                    positions[rank++] = pos;
+                }
+            }
+            pending = new BitSet(rank);
+            pending.set(0, rank);
+            waiting = new BitSet(rank);
+        }
+
+        /** @return The pending position with the highest priority (removing it from the queue), or null if nothing is
+         *         pending. */
+        BlockPos poll() {
+            int rank = pending.nextSetBit(0);
+            if (rank < 0) {
+                return null;
+            }
+            pending.clear(rank);
+            return positions[rank];
+        }
+
+        /** Keeps a polled position around to be checked again on the next {@link #retryWaiting()}. */
+        void defer(BlockPos pos) {
+            Integer rank = ranks.get(pos);
+            if (rank != null) {
+                waiting.set(rank);
+            }
+        }
+
+        /** Makes the given position pending again, if it is part of this queue. */
+        void requeue(BlockPos pos) {
+            Integer rank = ranks.get(pos);
+            if (rank != null) {
+                waiting.clear(rank);
+                pending.set(rank);
+            }
+        }
+
+        void retryWaiting() {
+            pending.or(waiting);
+            waiting.clear();
+        }
+    }
+
     public class BreakTask {
         public BlockPos pos;
         public long power;
@@ -6,11 +6,13 @@ import net.minecraft.util.Rotation;
 import net.minecraft.util.math.BlockPos;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.stream.Stream;
 
 public class Template extends Snapshot {
-    public boolean[][][] data;
+    /** One bit per block, set if the block is solid. Indexed by {@link #posToIndex(int, int, int)}. */
+    public BitSet data = new BitSet();
 
     @Override
     public <T extends ITileForSnapshotBuilder> SnapshotBuilder<T> createBuilder(T tile) {
@@ -18,32 +20,45 @@ public class Template extends Snapshot {
         return (SnapshotBuilder<T>) new TemplateBuilder((ITileForTemplateBuilder) tile);
     }
 
-    @Override
-    public NBTTagCompound serializeNBT() {
-        NBTTagCompound nbt = super.serializeNBT();
-        byte[] serializedData = new byte[size.getX() * size.getY() * size.getZ()];
-        int i = 0;
+    public boolean get(int x, int y, int z) {
+        return data.get(posToIndex(x, y, z));
+    }
+
+    public void set(int x, int y, int z, boolean solid) {
+        data.set(posToIndex(x, y, z), solid);
+    }
+
+    /** Copies every value from the given array, which must have the same size as this template. */
+    public void setFromArray(boolean[][][] array) {
+        data = new BitSet(getDataSize());
         for (int z = 0; z < size.getZ(); z++) {
             for (int y = 0; y < size.getY(); y++) {
                 for (int x = 0; x < size.getX(); x++) {
-                    serializedData[i++] = data[x][y][z] ? (byte) 1 : (byte) 0;
+                    set(x, y, z, array[x][y][z]);
                 }
             }
         }
-        nbt.setByteArray("data", serializedData);
+    }
+
+    @Override
+    public NBTTagCompound serializeNBT() {
+        NBTTagCompound nbt = super.serializeNBT();
+        nbt.setByteArray("blocks", data.toByteArray());
         return nbt;
     }
 
     @Override
     public void deserializeNBT(NBTTagCompound nbt) {
         super.deserializeNBT(nbt);
-        data = new boolean[size.getX()][size.getY()][size.getZ()];
-        byte[] serializedData = nbt.getByteArray("data");
-        int i = 0;
-        for (int z = 0; z < size.getZ(); z++) {
-            for (int y = 0; y < size.getY(); y++) {
-                for (int x = 0; x < size.getX(); x++) {
-                    data[x][y][z] = serializedData[i++] != 0;
+        if (nbt.hasKey("blocks")) {
+            data = BitSet.valueOf(nbt.getByteArray("blocks"));
+        } else {
+            // Old format: one byte per block
+            byte[] serializedData = nbt.getByteArray("data");
+            data = new BitSet(getDataSize());
+            for (int i = 0; i < serializedData.length; i++) {
+                if (serializedData[i] != 0) {
+                    data.set(i);
                 }
             }
         }
@@ -70,7 +85,7 @@ public class Template extends Snapshot {
                         BlockPos blockPos = new BlockPos(x, y, z).rotate(rotation)
                                 .add(basePos)
                                 .add(offset.rotate(rotation));
-                        if (!data[x][y][z]) {
+                        if (!get(x, y, z)) {
                             toBreak.add(blockPos);
                         } else {
                             toPlace.add(blockPos);
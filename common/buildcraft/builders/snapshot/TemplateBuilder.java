@@ -18,7 +18,8 @@ public class TemplateBuilder extends SnapshotBuilder<ITileForTemplateBuilder> {
         super(tile);
     }
 
-    private Template.BuildingInfo getBuildingInfo() {
+    @Override
+    protected Template.BuildingInfo getBuildingInfo() {
         return tile.getTemplateBuildingInfo();
     }
 
@@ -0,0 +1,185 @@
+/* Copyright (c) 2016 SpaceToad and the BuildCraft team
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/. */
+package buildcraft.builders.tile;
+
+import java.util.function.Predicate;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import buildcraft.lib.misc.data.Box;
+import buildcraft.lib.misc.data.LoadingException;
+import buildcraft.lib.misc.data.PackedIntArray;
+
+/** Works out which block a quarry should mine next, without walking through every block in its mining box.
+ * <p>
+ * For every column in the box this stores the highest y that might still contain a block to mine: every block above
+ * it is known to be air, or something that the quarry skips. Blocks are mined from the top layer down, so the current
+ * layer is the highest of these. When a column turns out to not have a minable block at that y it is scanned downwards
+ * using the chunk data, skipping over empty chunk sections entirely. */
+public class QuarryMiningPlan {
+    /** The value of a column that doesn't have anything left to mine. */
+    private static final int COLUMN_DONE = 0;
+    private static final int LAYER_UNKNOWN = -1;
+
+    private final int minX, minY, minZ, sizeX, sizeZ;
+    /** Every column, indexed by (z * sizeX + x). Stored as (y - minY + 1), or {@link #COLUMN_DONE}. */
+    private final PackedIntArray columns;
+    /** The current layer, in the same form as the values of {@link #columns}. */
+    private int layer = LAYER_UNKNOWN;
+    /** The next column to check within the current layer. */
+    private int cursor = 0;
+
+    /** The total number of blocks (or empty chunk sections) checked by this plan, for debugging. */
+    private long totalChecked;
+
+    public QuarryMiningPlan(Box box) {
+        BlockPos min = box.min();
+        BlockPos max = box.max();
+        minX = min.getX();
+        minY = min.getY();
+        minZ = min.getZ();
+        sizeX = max.getX() - minX + 1;
+        sizeZ = max.getZ() - minZ + 1;
+        columns = new PackedIntArray(sizeX * sizeZ);
+        int top = max.getY() - minY + 1;
+        for (int i = 0; i < columns.length(); i++) {
+            columns.set(i, top);
+        }
+    }
+
+    private QuarryMiningPlan(Box box, PackedIntArray columns) {
+        BlockPos min = box.min();
+        BlockPos max = box.max();
+        minX = min.getX();
+        minY = min.getY();
+        minZ = min.getZ();
+        sizeX = max.getX() - minX + 1;
+        sizeZ = max.getZ() - minZ + 1;
+        this.columns = columns;
+    }
+
+    /** @return The plan stored in the given tag, or null if it is missing or doesn't match the given box. */
+    public static QuarryMiningPlan readFromNbt(Box box, NBTTagCompound nbt) {
+        if (!box.isInitialized() || !nbt.hasKey("columns")) {
+            return null;
+        }
+        BlockPos size = box.size();
+        try {
+            PackedIntArray columns = PackedIntArray.fromByteArray(size.getX() * size.getZ(), nbt.getByteArray("columns"));
+            QuarryMiningPlan plan = new QuarryMiningPlan(box, columns);
+            plan.layer = nbt.getInteger("layer");
+            plan.cursor = nbt.getInteger("cursor");
+            if (plan.cursor < 0 || plan.cursor > columns.length()) {
+                plan.layer = LAYER_UNKNOWN;
+                plan.cursor = 0;
+            }
+            return plan;
+        } catch (LoadingException e) {
+            return null;
+        }
+    }
+
+    public NBTTagCompound writeToNbt() {
+        NBTTagCompound nbt = new NBTTagCompound();
+        nbt.setByteArray("columns", columns.toByteArray());
+        nbt.setInteger("layer", layer);
+        nbt.setInteger("cursor", cursor);
+        return nbt;
+    }
+
+    /** @return True if every column has been mined down to the bottom of the box. */
+    public boolean isComplete() {
+        return layer == COLUMN_DONE;
+    }
+
+    /** @return The y co-ordinate of the layer currently being mined, or -1 if that isn't known yet. */
+    public int getCurrentLayerY() {
+        return layer > COLUMN_DONE ? layer - 1 + minY : -1;
+    }
+
+    public long getTotalChecked() {
+        return totalChecked;
+    }
+
+    /** Finds the next block to mine.
+     *
+     * @param canMine Tests if the block at the given position should be mined.
+     * @param maxChecks The maximum number of blocks to check before giving up for this tick.
+     * @return The next block to mine, or null if the plan is {@link #isComplete() complete} or if it ran out of checks
+     *         before it found one. */
+    public BlockPos getNext(World world, Predicate<BlockPos> canMine, int maxChecks) {
+        MutableBlockPos pos = new MutableBlockPos();
+        int checked = 0;
+        while (layer != COLUMN_DONE) {
+            if (layer == LAYER_UNKNOWN) {
+                layer = COLUMN_DONE;
+                for (int i = 0; i < columns.length(); i++) {
+                    layer = Math.max(layer, columns.get(i));
+                }
+                cursor = 0;
+                continue;
+            }
+            for (; cursor < columns.length(); cursor++) {
+                if (columns.get(cursor) != layer) {
+                    continue;
+                }
+                int x = minX + cursor % sizeX;
+                int z = minZ + cursor / sizeX;
+                pos.setPos(x, layer - 1 + minY, z);
+                checked++;
+                if (!world.isAirBlock(pos) && canMine.test(pos)) {
+                    totalChecked += checked;
+                    return pos.toImmutable();
+                }
+                checked += scanColumn(world, canMine, pos, cursor);
+                if (checked >= maxChecks) {
+                    // Carry on from the next column next tick
+                    cursor++;
+                    totalChecked += checked;
+                    return null;
+                }
+            }
+            layer = LAYER_UNKNOWN;
+        }
+        totalChecked += checked;
+        return null;
+    }
+
+    /** Scans downwards from (but not including) the given position, and sets the column to the first minable block.
+     *
+     * @return The number of blocks and empty sections checked. */
+    private int scanColumn(World world, Predicate<BlockPos> canMine, MutableBlockPos pos, int index) {
+        int x = pos.getX();
+        int z = pos.getZ();
+        Chunk chunk = world.getChunkFromBlockCoords(pos);
+        ExtendedBlockStorage[] sections = chunk.getBlockStorageArray();
+        int checked = 0;
+        int y = Math.min(pos.getY() - 1, chunk.getTopFilledSegment() + 15);
+        while (y >= minY) {
+            checked++;
+            ExtendedBlockStorage section = sections[y >> 4];
+            if (section == Chunk.NULL_BLOCK_STORAGE || section.isEmpty()) {
+                // Skip straight to the top of the section below
+                y = (y & ~15) - 1;
+                continue;
+            }
+            IBlockState state = section.get(x & 15, y & 15, z & 15);
+            pos.setPos(x, y, z);
+            if (!state.getBlock().isAir(state, world, pos) && canMine.test(pos)) {
+                columns.set(index, y - minY + 1);
+                return checked;
+            }
+            y--;
+        }
+        columns.set(index, COLUMN_DONE);
+        return checked;
+    }
+}
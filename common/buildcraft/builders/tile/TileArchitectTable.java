@@ -6,6 +6,7 @@ package buildcraft.builders.tile;
 
 import buildcraft.api.core.EnumPipePart;
 import buildcraft.api.tiles.IDebuggable;
+import buildcraft.builders.BCBuildersConfig;
 import buildcraft.builders.BCBuildersItems;
 import buildcraft.builders.block.BlockArchitectTable;
 import buildcraft.builders.item.ItemSnapshot;
@@ -25,8 +26,10 @@ import buildcraft.lib.net.PacketBufferBC;
 import buildcraft.lib.tile.TileBC_Neptune;
 import buildcraft.lib.tile.item.ItemHandlerManager.EnumAccess;
 import buildcraft.lib.tile.item.ItemHandlerSimple;
+import com.google.common.cache.CacheStats;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.Entity;
+import net.minecraft.init.Blocks;
 import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
@@ -35,6 +38,9 @@ import net.minecraft.util.EnumParticleTypes;
 import net.minecraft.util.ITickable;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
@@ -46,18 +52,31 @@ import java.util.*;
 public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDebuggable {
     public static final int NET_BOX = 20;
     public static final int NET_SCAN = 21;
+    public static final int NET_SCAN_RANGES = 22;
+
+    /** The maximum number of blocks read per tick when bulk scanning. Empty chunk sections only count as one. */
+    private static final int BULK_TEMPLATE_PER_TICK = 16384;
+    private static final int BULK_BLUEPRINT_PER_TICK = 2048;
+    /** How often (in ticks) the areas that have been bulk scanned are sent to the client. */
+    private static final int BULK_UPDATE_INTERVAL = 10;
 
     public final ItemHandlerSimple invBptIn = itemManager.addInvHandler("bptIn", 1, EnumAccess.INSERT, EnumPipePart.VALUES);
     public final ItemHandlerSimple invBptOut = itemManager.addInvHandler("bptOut", 1, EnumAccess.EXTRACT, EnumPipePart.VALUES);
 
     private Snapshot.EnumSnapshotType snapshotType = Snapshot.EnumSnapshotType.BLUEPRINT;
     private final Box box = new Box();
-    private boolean[][][] templateScannedBlocks;
-    private SchematicBlock[][][] blueprintScannedBlocks;
+    private Template templateScanned;
+    private Blueprint blueprintScanned;
     private final List<SchematicEntity> blueprintScannedEntities = new ArrayList<>();
     private BoxIterator boxIterator;
     private boolean isValid = false;
     private boolean scanning = false;
+    // Bulk scanning state
+    private boolean bulkScan;
+    private int bulkSection, bulkBlock, bulkTicks;
+    private SchematicBlock bulkAirSchematic;
+    /** Every area that has been scanned since the last {@link #NET_SCAN_RANGES}, as [x0, y0, z0, x1, y1, z1]. */
+    private final List<int[]> bulkScannedRanges = new ArrayList<>();
     public String name = "<unnamed>";
     public final DeltaInt deltaProgress = deltaManager.addDelta("progress", DeltaManager.EnumNetworkVisibility.GUI_ONLY);
 
@@ -114,8 +133,14 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
 
         if (!invBptIn.getStackInSlot(0).isEmpty() && invBptOut.getStackInSlot(0).isEmpty() && isValid) {
             if (!scanning) {
+                bulkScan = BCBuildersConfig.architectBulkScan;
                 int size = box.size().getX() * box.size().getY() * box.size().getZ();
-                size /= snapshotType.maxPerTick;
+                if (bulkScan) {
+                    size /= snapshotType == Snapshot.EnumSnapshotType.TEMPLATE ? BULK_TEMPLATE_PER_TICK : BULK_BLUEPRINT_PER_TICK;
+                    size = Math.max(size, 1);
+                } else {
+                    size /= snapshotType.maxPerTick;
+                }
                 deltaProgress.addDelta(0, size, 1);
                 deltaProgress.addDelta(size, size + 10, -1);
                 scanning = true;
@@ -125,7 +150,11 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
         }
 
         if (scanning) {
-            scanMultipleBlocks();
+            if (bulkScan) {
+                scanBulk();
+            } else {
+                scanMultipleBlocks();
+            }
             if (!scanning) {
                 if (snapshotType == Snapshot.EnumSnapshotType.BLUEPRINT) {
                     scanEntities();
@@ -146,10 +175,12 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
 
     private void scanSingleBlock() {
         BlockPos size = box.size();
-        if (templateScannedBlocks == null || blueprintScannedBlocks == null) {
+        if (templateScanned == null || blueprintScanned == null) {
             boxIterator = new BoxIterator(box, EnumAxisOrder.XZY.getMinToMaxOrder(), true);
-            blueprintScannedBlocks = new SchematicBlock[size.getX()][size.getY()][size.getZ()];
-            templateScannedBlocks = new boolean[size.getX()][size.getY()][size.getZ()];
+            blueprintScanned = new Blueprint();
+            blueprintScanned.size = size;
+            templateScanned = new Template();
+            templateScanned.size = size;
         }
 
         // Read from world
@@ -157,11 +188,11 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
         BlockPos schematicIndex = worldScanPos.subtract(box.min());
         if (snapshotType == Snapshot.EnumSnapshotType.TEMPLATE) {
             boolean solid = !world.isAirBlock(worldScanPos);
-            templateScannedBlocks[schematicIndex.getX()][schematicIndex.getY()][schematicIndex.getZ()] = solid;
+            templateScanned.set(schematicIndex.getX(), schematicIndex.getY(), schematicIndex.getZ(), solid);
         }
         if (snapshotType == Snapshot.EnumSnapshotType.BLUEPRINT) {
             SchematicBlock schematic = readSchematicForBlock(worldScanPos);
-            blueprintScannedBlocks[schematicIndex.getX()][schematicIndex.getY()][schematicIndex.getZ()] = schematic;
+            blueprintScanned.set(schematicIndex.getX(), schematicIndex.getY(), schematicIndex.getZ(), schematic);
         }
 
         createAndSendMessage(NET_SCAN, buffer -> buffer.writeBlockPos(worldScanPos));
@@ -177,6 +208,126 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
         }
     }
 
+    /** Scans whole chunk sections at a time, reading the block states straight out of the chunk's storage. Sections
+     * that are completely empty are filled in without reading any blocks. */
+    private void scanBulk() {
+        BlockPos min = box.min();
+        BlockPos max = box.max();
+        if (templateScanned == null || blueprintScanned == null) {
+            blueprintScanned = new Blueprint();
+            blueprintScanned.size = box.size();
+            templateScanned = new Template();
+            templateScanned.size = box.size();
+            bulkSection = 0;
+            bulkBlock = 0;
+            bulkTicks = 0;
+            bulkAirSchematic = null;
+            bulkScannedRanges.clear();
+        }
+        boolean blueprint = snapshotType == Snapshot.EnumSnapshotType.BLUEPRINT;
+        BlockPos basePos = blueprint ? getBasePos() : null;
+
+        int sMinX = min.getX() >> 4, sMinY = min.getY() >> 4, sMinZ = min.getZ() >> 4;
+        int countX = (max.getX() >> 4) - sMinX + 1;
+        int countY = (max.getY() >> 4) - sMinY + 1;
+        int countZ = (max.getZ() >> 4) - sMinZ + 1;
+        int totalSections = countX * countY * countZ;
+
+        int budget = blueprint ? BULK_BLUEPRINT_PER_TICK : BULK_TEMPLATE_PER_TICK;
+        int work = 0;
+        MutableBlockPos worldPos = new MutableBlockPos();
+        while (bulkSection < totalSections && work < budget) {
+            int sx = sMinX + bulkSection % countX;
+            int sz = sMinZ + (bulkSection / countX) % countZ;
+            int sy = sMinY + bulkSection / (countX * countZ);
+            int x0 = Math.max(min.getX(), sx << 4), x1 = Math.min(max.getX(), (sx << 4) + 15);
+            int y0 = Math.max(min.getY(), sy << 4), y1 = Math.min(max.getY(), (sy << 4) + 15);
+            int z0 = Math.max(min.getZ(), sz << 4), z1 = Math.min(max.getZ(), (sz << 4) + 15);
+            int w = x1 - x0 + 1, h = y1 - y0 + 1, d = z1 - z0 + 1;
+
+            ExtendedBlockStorage storage = Chunk.NULL_BLOCK_STORAGE;
+            if (sy >= 0 && sy < 16) {
+                storage = world.getChunkFromChunkCoords(sx, sz).getBlockStorageArray()[sy];
+            }
+            if (bulkBlock == 0 && (storage == Chunk.NULL_BLOCK_STORAGE || storage.isEmpty())) {
+                // Templates default to empty, so only blueprints need to fill in air
+                if (blueprint) {
+                    if (bulkAirSchematic == null) {
+                        worldPos.setPos(x0, y0, z0);
+                        bulkAirSchematic = readSchematicForBlock(basePos, worldPos, Blocks.AIR.getDefaultState());
+                    }
+                    for (int y = y0; y <= y1; y++) {
+                        for (int z = z0; z <= z1; z++) {
+                            for (int x = x0; x <= x1; x++) {
+                                blueprintScanned.set(x - min.getX(), y - min.getY(), z - min.getZ(), bulkAirSchematic);
+                            }
+                        }
+                    }
+                }
+                work++;
+            } else {
+                int sectionBlocks = w * h * d;
+                while (bulkBlock < sectionBlocks && work < budget) {
+                    int x = x0 + bulkBlock % w;
+                    int z = z0 + (bulkBlock / w) % d;
+                    int y = y0 + bulkBlock / (w * d);
+                    IBlockState state = storage == Chunk.NULL_BLOCK_STORAGE ? Blocks.AIR.getDefaultState()
+                        : storage.get(x & 15, y & 15, z & 15);
+                    worldPos.setPos(x, y, z);
+                    if (blueprint) {
+                        SchematicBlock schematic = readSchematicForBlock(basePos, worldPos, state);
+                        blueprintScanned.set(x - min.getX(), y - min.getY(), z - min.getZ(), schematic);
+                    } else {
+                        boolean solid = !state.getBlock().isAir(state, world, worldPos);
+                        templateScanned.set(x - min.getX(), y - min.getY(), z - min.getZ(), solid);
+                    }
+                    bulkBlock++;
+                    work++;
+                }
+                if (bulkBlock < sectionBlocks) {
+                    // Carry on with this section next tick
+                    break;
+                }
+            }
+            bulkScannedRanges.add(new int[] { x0, y0, z0, x1, y1, z1 });
+            bulkSection++;
+            bulkBlock = 0;
+        }
+
+        boolean finished = bulkSection >= totalSections;
+        bulkTicks++;
+        if ((finished || bulkTicks % BULK_UPDATE_INTERVAL == 0) && !bulkScannedRanges.isEmpty()) {
+            List<int[]> ranges = new ArrayList<>(bulkScannedRanges);
+            bulkScannedRanges.clear();
+            createAndSendMessage(NET_SCAN_RANGES, buffer -> writeScanRanges(buffer, min, ranges));
+        }
+        if (finished) {
+            scanning = false;
+            bulkAirSchematic = null;
+        }
+    }
+
+    /** Writes out the given (absolute) ranges relative to the given position. Every range is inside a single chunk
+     * section, so the sizes always fit in 4 bits. */
+    private static void writeScanRanges(PacketBufferBC buffer, BlockPos min, List<int[]> ranges) {
+        buffer.writeVarInt(ranges.size());
+        for (int[] range : ranges) {
+            buffer.writeVarInt(range[0] - min.getX());
+            buffer.writeVarInt(range[1] - min.getY());
+            buffer.writeVarInt(range[2] - min.getZ());
+            buffer.writeByte((range[3] - range[0]) << 4 | (range[5] - range[2]));
+            buffer.writeByte(range[4] - range[1]);
+        }
+    }
+
+    private BlockPos getBasePos() {
+        return pos.offset(world.getBlockState(pos).getValue(BlockBCBase_Neptune.PROP_FACING).getOpposite());
+    }
+
+    private SchematicBlock readSchematicForBlock(BlockPos basePos, BlockPos worldScanPos, IBlockState state) {
+        return SchematicBlockFactory.getSchematicBlock(world, basePos, worldScanPos, state, state.getBlock());
+    }
+
     private SchematicBlock readSchematicForBlock(BlockPos worldScanPos) {
         return SchematicBlockFactory.getSchematicBlock(
                 world,
@@ -201,20 +352,15 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
 
     private void finishScanning() {
         EnumFacing facing = world.getBlockState(getPos()).getValue(BlockArchitectTable.PROP_FACING);
-        Snapshot snapshot = snapshotType.create.get();
-        snapshot.size = box.size();
-        snapshot.facing = facing;
-        snapshot.offset = box.min().subtract(pos.offset(facing.getOpposite()));
+        Snapshot snapshot;
         if (snapshotType == Snapshot.EnumSnapshotType.TEMPLATE) {
-            // noinspection ConstantConditions
-            ((Template) snapshot).data = templateScannedBlocks;
-        }
-        if (snapshotType == Snapshot.EnumSnapshotType.BLUEPRINT) {
-            // noinspection ConstantConditions
-            ((Blueprint) snapshot).data = blueprintScannedBlocks;
-            // noinspection ConstantConditions
-            ((Blueprint) snapshot).entities = new ArrayList<>(blueprintScannedEntities);
+            snapshot = templateScanned;
+        } else {
+            blueprintScanned.entities = new ArrayList<>(blueprintScannedEntities);
+            snapshot = blueprintScanned;
         }
+        snapshot.facing = facing;
+        snapshot.offset = box.min().subtract(pos.offset(facing.getOpposite()));
         snapshot.header.id = UUID.randomUUID();
         snapshot.header.owner = getOwner().getId();
         snapshot.header.created = new Date();
@@ -227,8 +373,8 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
         }
         invBptIn.setStackInSlot(0, stackIn);
         invBptOut.setStackInSlot(0, BCBuildersItems.snapshot.getUsed(snapshotType, snapshot.header));
-        templateScannedBlocks = null;
-        blueprintScannedBlocks = null;
+        templateScanned = null;
+        blueprintScanned = null;
         blueprintScannedEntities.clear();
         boxIterator = null;
         sendNetworkUpdate(NET_RENDER_DATA);
@@ -257,6 +403,24 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
                 name = buffer.readString();
             } else if (id == NET_BOX) {
                 box.readData(buffer);
+            } else if (id == NET_SCAN_RANGES) {
+                BlockPos min = box.min();
+                int count = buffer.readVarInt();
+                for (int i = 0; i < count; i++) {
+                    int x = buffer.readVarInt();
+                    int y = buffer.readVarInt();
+                    int z = buffer.readVarInt();
+                    int xz = buffer.readUnsignedByte();
+                    int h = buffer.readUnsignedByte();
+                    if (min == null) {
+                        continue;
+                    }
+                    // Just one particle per range, rather than one for every block
+                    double px = min.getX() + x + world.rand.nextDouble() * ((xz >> 4) + 1);
+                    double py = min.getY() + y + world.rand.nextDouble() * (h + 1);
+                    double pz = min.getZ() + z + world.rand.nextDouble() * ((xz & 15) + 1);
+                    world.spawnParticle(EnumParticleTypes.CLOUD, px, py, pz, 0, 0, 0);
+                }
             } else if (id == NET_SCAN) {
                 BlockPos pos = buffer.readBlockPos();
                 double x = pos.getX() + 0.5;
@@ -275,6 +439,9 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
             nbt.setTag("iter", boxIterator.writeToNbt());
         }
         nbt.setBoolean("scanning", scanning);
+        // The scanned blocks aren't saved, so a scan always starts again from the beginning after loading. Only the
+        // mode is needed, so that it matches the progress bar.
+        nbt.setBoolean("bulkScan", bulkScan);
         nbt.setTag("snapshotType", NBTUtilBC.writeEnum(snapshotType));
         nbt.setBoolean("isValid", isValid);
         nbt.setString("name", name);
@@ -289,6 +456,7 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
             boxIterator = BoxIterator.readFromNbt(nbt.getCompoundTag("iter"));
         }
         scanning = nbt.getBoolean("scanning");
+        bulkScan = nbt.hasKey("bulkScan") ? nbt.getBoolean("bulkScan") : scanning && BCBuildersConfig.architectBulkScan;
         snapshotType = NBTUtilBC.readEnum(nbt.getTag("snapshotType"), Snapshot.EnumSnapshotType.class);
         isValid = nbt.getBoolean("isValid");
         name = nbt.getString("name");
@@ -303,6 +471,9 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
         left.add(" - max = " + box.max());
         left.add("scanning = " + scanning);
         left.add("current = " + (boxIterator == null ? null : boxIterator.getCurrent()));
+        left.add("bulk = " + bulkScan + " (section " + bulkSection + ", block " + bulkBlock + ")");
+        CacheStats stats = SchematicBlockFactory.getStatePartsCacheStats();
+        left.add("schematic cache = " + stats.hitCount() + " hits, " + stats.missCount() + " misses");
     }
 
     // Rendering
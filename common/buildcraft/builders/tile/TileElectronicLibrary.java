@@ -8,6 +8,7 @@ import buildcraft.api.core.EnumPipePart;
 import buildcraft.builders.BCBuildersItems;
 import buildcraft.builders.snapshot.GlobalSavedDataSnapshots;
 import buildcraft.builders.snapshot.Snapshot;
+import buildcraft.builders.snapshot.SnapshotBinaryFormat;
 import buildcraft.lib.misc.MessageUtil;
 import buildcraft.lib.misc.NBTUtilBC;
 import buildcraft.lib.net.PacketBufferBC;
@@ -80,7 +81,7 @@ public class TileElectronicLibrary extends TileBC_Neptune implements ITickable {
                     Snapshot snapshot = GlobalSavedDataSnapshots.get(world).getSnapshotByHeader(header);
                     if (snapshot != null) {
                         buffer.writeBoolean(true);
-                        buffer.writeCompoundTag(Snapshot.writeToNBT(snapshot));
+                        SnapshotBinaryFormat.writeToBuffer(snapshot, buffer);
                     } else {
                         buffer.writeBoolean(false);
                     }
@@ -97,7 +98,7 @@ public class TileElectronicLibrary extends TileBC_Neptune implements ITickable {
                     Snapshot snapshot = GlobalSavedDataSnapshots.get(world).getSnapshotByHeader(selected);
                     if (snapshot != null) {
                         buffer.writeBoolean(true);
-                        buffer.writeCompoundTag(Snapshot.writeToNBT(snapshot));
+                        SnapshotBinaryFormat.writeToBuffer(snapshot, buffer);
                     } else {
                         buffer.writeBoolean(false);
                     }
@@ -123,7 +124,7 @@ public class TileElectronicLibrary extends TileBC_Neptune implements ITickable {
             }
             if (id == NET_DOWN) {
                 if (buffer.readBoolean()) {
-                    Snapshot snapshot = Snapshot.readFromNBT(buffer.readCompoundTag());
+                    Snapshot snapshot = SnapshotBinaryFormat.readFromBuffer(buffer);
                     snapshot.header.id = UUID.randomUUID();
                     GlobalSavedDataSnapshots.get(world).snapshots.add(snapshot);
                 }
@@ -135,7 +136,7 @@ public class TileElectronicLibrary extends TileBC_Neptune implements ITickable {
         if (side == Side.SERVER) {
             if (id == NET_UP) {
                 if (buffer.readBoolean()) {
-                    Snapshot snapshot = Snapshot.readFromNBT(buffer.readCompoundTag());
+                    Snapshot snapshot = SnapshotBinaryFormat.readFromBuffer(buffer);
                     snapshot.header.id = UUID.randomUUID();
                     invUpIn.setStackInSlot(0, ItemStack.EMPTY);
                     GlobalSavedDataSnapshots.get(world).snapshots.add(snapshot);
@@ -51,11 +51,14 @@ import buildcraft.lib.tile.item.ItemHandlerManager;
 import buildcraft.lib.tile.item.ItemHandlerSimple;
 
 public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable {
+    /** The maximum number of blocks that the mining plan can check in a single tick. */
+    private static final int MAX_CHECKED_PER_TICK = 4096;
+
     private final MjBattery battery;
     private final MjCapabilityHelper mjCapHelper;
     public final Box frameBox = new Box();
     private final Box miningBox = new Box();
-    private BoxIterator boxIterator;
+    private QuarryMiningPlan miningPlan;
     public Task currentTask = null;
     public final ItemHandlerSimple invFrames = itemManager.addInvHandler("frames",
                                                                          9,
@@ -66,6 +69,8 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
     public Vec3d prevClientDrillPos;
     /** Recent power input, in MJ (not micro) */
     private final AverageInt recentPowerAverage = new AverageInt(200);
+    /** Recent blocks mined per tick */
+    private final AverageInt recentBlocksAverage = new AverageInt(200);
     private final List<EntityQuarryFrame> xArm = new ArrayList<>();
     private final List<EntityQuarryFrame> yArm = new ArrayList<>();
     private final List<EntityQuarryFrame> zArm = new ArrayList<>();
@@ -185,6 +190,16 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
         miningBox.reset();
         miningBox.setMin(new BlockPos(min.getX() + 1, 0, min.getZ() + 1));
         miningBox.setMax(new BlockPos(max.getX() - 1, max.getY() - 1, max.getZ() - 1));
+        miningPlan = null;
+    }
+
+    /** Used by the {@link QuarryMiningPlan} to test for blocks that it should mine. Fluids are skipped: thin fluids
+     * are just left alone, and thick fluids can't be mined at all. */
+    private boolean canMine(BlockPos blockPos) {
+        if (BlockUtil.getFluidWithFlowing(world, blockPos) != null) {
+            return false;
+        }
+        return world.getBlockState(blockPos).getBlockHardness(world, blockPos) >= 0;
     }
 
     private boolean canNotMine(BlockPos blockPos) {
@@ -215,6 +230,7 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
             return;
         }
         recentPowerAverage.tick();
+        recentBlocksAverage.tick();
 
         if (!frameBox.isInitialized() || !miningBox.isInitialized()) {
             return;
@@ -328,35 +344,21 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
             }
         }
 
-        if ((boxIterator == null || drillPos == null) && miningBox.isInitialized()) {
-            boxIterator = new BoxIterator(miningBox,
-                                          AxisOrder.getFor(EnumAxisOrder.XZY, AxisOrder.Inversion.NNN),
-                                          true);
-            while (world.isAirBlock(boxIterator.getCurrent()) || canSkip(boxIterator.getCurrent())) {
-                boxIterator.advance();
-            }
+        if (miningPlan == null) {
+            miningPlan = new QuarryMiningPlan(miningBox);
+        }
+        if (drillPos == null) {
             drillPos = new Vec3d(miningBox.closestInsideTo(getPos()));
         }
 
-        if (boxIterator != null && boxIterator.hasNext()) {
-            boolean found = false;
-
-            if (drillPos.squareDistanceTo(new Vec3d(boxIterator.getCurrent())) > 2) {
-                currentTask = new TaskMoveDrill(drillPos, new Vec3d(boxIterator.getCurrent()));
-                found = true;
-            } else if (!world.isAirBlock(boxIterator.getCurrent()) && !canSkip(boxIterator.getCurrent())) {
-                if (!canNotMine(boxIterator.getCurrent())) {
-                    currentTask = new TaskBreakBlock(boxIterator.getCurrent());
-                    found = true;
-                }
+        BlockPos next = miningPlan.getNext(world, this::canMine, MAX_CHECKED_PER_TICK);
+        if (next != null) {
+            if (drillPos.squareDistanceTo(new Vec3d(next)) > 2) {
+                currentTask = new TaskMoveDrill(drillPos, new Vec3d(next));
             } else {
-                found = true;
-                currentTask = new TaskMoveDrill(drillPos, new Vec3d(boxIterator.advance()));
-            }
-
-            if (found) {
-                sendNetworkUpdate(NET_RENDER_DATA);
+                currentTask = new TaskBreakBlock(next);
             }
+            sendNetworkUpdate(NET_RENDER_DATA);
         }
     }
 
@@ -421,8 +423,8 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
         super.writeToNBT(nbt);
         nbt.setTag("box", miningBox.writeToNBT());
         nbt.setTag("frame", frameBox.writeToNBT());
-        if (boxIterator != null) {
-            nbt.setTag("box_iterator", boxIterator.writeToNbt());
+        if (miningPlan != null) {
+            nbt.setTag("mining_plan", miningPlan.writeToNbt());
         }
         nbt.setTag("mj_battery", battery.serializeNBT());
         if (currentTask != null) {
@@ -439,7 +441,8 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
         super.readFromNBT(nbt);
         miningBox.initialize(nbt.getCompoundTag("box"));
         frameBox.initialize(nbt.getCompoundTag("frame"));
-        boxIterator = BoxIterator.readFromNbt(nbt.getCompoundTag("box_iterator"));
+        // Older quarries stored a "box_iterator" instead: the plan will just be worked out again
+        miningPlan = QuarryMiningPlan.readFromNbt(miningBox, nbt.getCompoundTag("mining_plan"));
         battery.deserializeNBT(nbt.getCompoundTag("mj_battery"));
 
         if (nbt.hasKey("currentTask")) {
@@ -508,7 +511,14 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
         left.add("miningBox:");
         left.add(" - min = " + miningBox.min());
         left.add(" - max = " + miningBox.max());
-        left.add("current = " + (boxIterator == null ? "null" : boxIterator.getCurrent()));
+        left.add("recent blocks per tick = " + recentBlocksAverage.getAverage());
+        if (miningPlan == null) {
+            left.add("plan = null");
+        } else {
+            left.add("plan:");
+            left.add(" - layer = " + miningPlan.getCurrentLayerY() + (miningPlan.isComplete() ? " (complete)" : ""));
+            left.add(" - blocks checked = " + miningPlan.getTotalChecked());
+        }
         if (currentTask != null) {
             left.add("task:");
             left.add(" - class = " + currentTask.getClass().getName());
@@ -680,6 +690,9 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
                 }
                 world.sendBlockBreakProgress(breakPos.hashCode(), breakPos, -1);
                 world.destroyBlock(breakPos, false);
+                if (put) {
+                    recentBlocksAverage.push(1);
+                }
                 return true;
             } else {
                 return false;
@@ -0,0 +1,27 @@
+/* Copyright (c) 2016 SpaceToad and the BuildCraft team
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/. */
+package buildcraft.core.statements;
+
+/** A trigger implementing this interface tells gates when it might change, so that they don't need to test it every
+ * tick. Triggers that don't implement this are tested every tick.
+ * <p>
+ * A gate tests all of its triggers whenever one of the {@link #getDependencies() dependencies} of any of them changes,
+ * and every {@link #getPollInterval()} ticks (using the shortest interval of all of them). */
+public interface IScheduledTrigger {
+    /** The trigger depends on the redstone signal going into its container. */
+    int DEPENDS_REDSTONE = 1 << 0;
+    /** The trigger depends on the state of the pipe wires in its container. */
+    int DEPENDS_WIRE = 1 << 1;
+    /** The trigger depends on the blocks (or tiles) next to its container. Note that tiles don't always tell their
+     * neighbours when their contents change, so triggers that read tiles should also poll. */
+    int DEPENDS_NEIGHBOUR = 1 << 2;
+
+    /** @return A combination of the DEPENDS_ flags above. */
+    int getDependencies();
+
+    /** @return The number of ticks between tests of this trigger, or 0 if it only needs to be tested when one of its
+     *         dependencies changes. */
+    int getPollInterval();
+}
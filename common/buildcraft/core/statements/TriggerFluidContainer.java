@@ -24,7 +24,7 @@ import buildcraft.lib.client.sprite.SpriteHolderRegistry.SpriteHolder;
 import buildcraft.lib.misc.CapUtil;
 import buildcraft.lib.misc.LocaleUtil;
 
-public class TriggerFluidContainer extends BCStatement implements ITriggerExternal {
+public class TriggerFluidContainer extends BCStatement implements ITriggerExternal, IScheduledTrigger {
 
     public enum State {
 
@@ -131,4 +131,15 @@ public class TriggerFluidContainer extends BCStatement implements ITriggerExtern
     public IStatement[] getPossible() {
         return BCCoreStatements.TRIGGER_FLUID_ALL;
     }
+
+    @Override
+    public int getDependencies() {
+        return DEPENDS_NEIGHBOUR;
+    }
+
+    @Override
+    public int getPollInterval() {
+        // Tanks don't tell their neighbours when their contents change
+        return 5;
+    }
 }
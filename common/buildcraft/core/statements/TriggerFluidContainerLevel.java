@@ -22,7 +22,7 @@ import buildcraft.lib.client.sprite.SpriteHolderRegistry.SpriteHolder;
 import buildcraft.lib.misc.CapUtil;
 import buildcraft.lib.misc.LocaleUtil;
 
-public class TriggerFluidContainerLevel extends BCStatement implements ITriggerExternal {
+public class TriggerFluidContainerLevel extends BCStatement implements ITriggerExternal, IScheduledTrigger {
 
     public enum TriggerType {
 
@@ -110,4 +110,15 @@ public class TriggerFluidContainerLevel extends BCStatement implements ITriggerE
     public IStatement[] getPossible() {
         return BCCoreStatements.TRIGGER_FLUID_ALL;
     }
+
+    @Override
+    public int getDependencies() {
+        return DEPENDS_NEIGHBOUR;
+    }
+
+    @Override
+    public int getPollInterval() {
+        // Tanks don't tell their neighbours when their contents change
+        return 5;
+    }
 }
@@ -22,7 +22,7 @@ import buildcraft.lib.misc.CapUtil;
 import buildcraft.lib.misc.LocaleUtil;
 import buildcraft.lib.misc.StackUtil;
 
-public class TriggerInventory extends BCStatement implements ITriggerExternal {
+public class TriggerInventory extends BCStatement implements ITriggerExternal, IScheduledTrigger {
 
     public enum State {
 
@@ -114,4 +114,15 @@ public class TriggerInventory extends BCStatement implements ITriggerExternal {
     public IStatement[] getPossible() {
         return BCCoreStatements.TRIGGER_INVENTORY_ALL;
     }
+
+    @Override
+    public int getDependencies() {
+        return DEPENDS_NEIGHBOUR;
+    }
+
+    @Override
+    public int getPollInterval() {
+        // Inventories only tell horizontal neighbours when their contents change
+        return 5;
+    }
 }
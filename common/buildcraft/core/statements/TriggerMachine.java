@@ -21,7 +21,7 @@ import buildcraft.core.BCCoreStatements;
 import buildcraft.lib.client.sprite.SpriteHolderRegistry.SpriteHolder;
 import buildcraft.lib.misc.LocaleUtil;
 
-public class TriggerMachine extends BCStatement implements ITriggerExternal {
+public class TriggerMachine extends BCStatement implements ITriggerExternal, IScheduledTrigger {
 
     boolean active;
 
@@ -60,4 +60,14 @@ public class TriggerMachine extends BCStatement implements ITriggerExternal {
     public IStatement[] getPossible() {
         return new IStatement[] { BCCoreStatements.TRIGGER_MACHINE_ACTIVE, BCCoreStatements.TRIGGER_MACHINE_INACTIVE };
     }
+
+    @Override
+    public int getDependencies() {
+        return DEPENDS_NEIGHBOUR;
+    }
+
+    @Override
+    public int getPollInterval() {
+        return 5;
+    }
 }
@@ -19,7 +19,7 @@ import buildcraft.core.BCCoreStatements;
 import buildcraft.lib.client.sprite.SpriteHolderRegistry.SpriteHolder;
 import buildcraft.lib.misc.LocaleUtil;
 
-public class TriggerPower extends BCStatement implements ITriggerInternal, ITriggerExternal {
+public class TriggerPower extends BCStatement implements ITriggerInternal, ITriggerExternal, IScheduledTrigger {
     public static class Neighbor {
         public TileEntity tile;
         public EnumPipePart side;
@@ -91,4 +91,14 @@ public class TriggerPower extends BCStatement implements ITriggerInternal, ITrig
     public IStatement[] getPossible() {
         return BCCoreStatements.TRIGGER_POWER;
     }
+
+    @Override
+    public int getDependencies() {
+        return DEPENDS_NEIGHBOUR;
+    }
+
+    @Override
+    public int getPollInterval() {
+        return 5;
+    }
 }
@@ -16,7 +16,7 @@ import buildcraft.core.BCCoreStatements;
 import buildcraft.lib.client.sprite.SpriteHolderRegistry.SpriteHolder;
 import buildcraft.lib.misc.LocaleUtil;
 
-public class TriggerRedstoneInput extends BCStatement implements ITriggerInternal {
+public class TriggerRedstoneInput extends BCStatement implements ITriggerInternal, IScheduledTrigger {
 
     boolean active;
 
@@ -70,4 +70,14 @@ public class TriggerRedstoneInput extends BCStatement implements ITriggerInterna
     public IStatement[] getPossible() {
         return BCCoreStatements.TRIGGER_REDSTONE;
     }
+
+    @Override
+    public int getDependencies() {
+        return DEPENDS_REDSTONE;
+    }
+
+    @Override
+    public int getPollInterval() {
+        return 0;
+    }
 }
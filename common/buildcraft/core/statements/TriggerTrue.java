@@ -8,7 +8,7 @@ import buildcraft.core.BCCoreSprites;
 import buildcraft.lib.client.sprite.SpriteHolderRegistry.SpriteHolder;
 import buildcraft.lib.misc.LocaleUtil;
 
-public class TriggerTrue extends BCStatement implements ITriggerInternal {
+public class TriggerTrue extends BCStatement implements ITriggerInternal, IScheduledTrigger {
 
     public TriggerTrue() {
         super("buildcraftcore:trigger.true");
@@ -28,4 +28,14 @@ public class TriggerTrue extends BCStatement implements ITriggerInternal {
     public String getDescription() {
         return LocaleUtil.localize("gate.trigger.true");
     }
+
+    @Override
+    public int getDependencies() {
+        return 0;
+    }
+
+    @Override
+    public int getPollInterval() {
+        return 0;
+    }
 }
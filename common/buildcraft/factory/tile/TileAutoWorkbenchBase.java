@@ -32,7 +32,7 @@ import buildcraft.lib.delta.DeltaInt;
 import buildcraft.lib.delta.DeltaManager.EnumNetworkVisibility;
 import buildcraft.lib.misc.CraftingUtil;
 import buildcraft.lib.misc.InventoryUtil;
-import buildcraft.lib.misc.ItemStackKey;
+import buildcraft.lib.misc.ItemTypeKey;
 import buildcraft.lib.misc.StackUtil;
 import buildcraft.lib.tile.TileBC_Neptune;
 import buildcraft.lib.tile.item.ItemHandlerManager.EnumAccess;
@@ -46,7 +46,7 @@ public abstract class TileAutoWorkbenchBase extends TileBC_Neptune implements IT
     public final ItemHandlerSimple invMaterials;
     public final ItemHandlerSimple invResult;
     public final ItemHandlerSimple invOverflow;
-    protected final Map<ItemStackKey, TIntHashSet> itemStackCache;
+    protected final Map<ItemTypeKey, TIntHashSet> itemStackCache;
 
     public IRecipe currentRecipe;
     private int progress = 0;
@@ -156,8 +156,8 @@ public abstract class TileAutoWorkbenchBase extends TileBC_Neptune implements IT
     protected void onSlotChange(IItemHandlerModifiable handler, int slot, ItemStack before, ItemStack after) {
         super.onSlotChange(handler, slot, before, after);
         if (handler == invMaterials) {
-            ItemStackKey keyBefore = new ItemStackKey(before);
-            ItemStackKey keyAfter = new ItemStackKey(after);
+            ItemTypeKey keyBefore = ItemTypeKey.of(before);
+            ItemTypeKey keyAfter = ItemTypeKey.of(after);
             if (keyAfter.equals(keyBefore)) return;
             if (itemStackCache.containsKey(keyBefore)) {
                 TIntHashSet set = itemStackCache.get(keyBefore);
@@ -189,8 +189,8 @@ public abstract class TileAutoWorkbenchBase extends TileBC_Neptune implements IT
     public void getDebugInfo(List<String> left, List<String> right, EnumFacing side) {
         left.add("");
         left.add("Stack Cache:");
-        for (Entry<ItemStackKey, TIntHashSet> entry : itemStackCache.entrySet()) {
-            ItemStackKey key = entry.getKey();
+        for (Entry<ItemTypeKey, TIntHashSet> entry : itemStackCache.entrySet()) {
+            ItemTypeKey key = entry.getKey();
             TIntHashSet set = entry.getValue();
             left.add("  " + key);
             left.add("  = " + Arrays.toString(set.toArray()));
@@ -342,7 +342,7 @@ public abstract class TileAutoWorkbenchBase extends TileBC_Neptune implements IT
 
         protected void rebind() {
             ItemStack wanted = nonBound.get();
-            ItemStackKey key = new ItemStackKey(wanted);
+            ItemTypeKey key = ItemTypeKey.of(wanted);
             boundTo = itemStackCache.get(key);
         }
 
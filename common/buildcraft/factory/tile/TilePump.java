@@ -8,10 +8,13 @@ import buildcraft.lib.misc.CapUtil;
 import buildcraft.lib.misc.FluidUtilBC;
 import buildcraft.lib.mj.MjRedstoneBatteryReceiver;
 import buildcraft.lib.net.PacketBufferBC;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.common.math.IntMath;
+import gnu.trove.impl.Constants;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.TLongLongMap;
+import gnu.trove.map.hash.TLongLongHashMap;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
@@ -24,9 +27,23 @@ import net.minecraftforge.fml.relauncher.Side;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 
 public class TilePump extends TileMiner {
+    /** The maximum number of blocks that the fluid scan will visit in a single tick. */
+    private static final int MAX_SCANNED_PER_TICK = 2048;
+    /** The maximum number of scanned positions that will be saved to NBT. Larger fluid bodies are re-scanned after
+     * loading instead, as they would take up too much space in the chunk. */
+    private static final int MAX_SAVED_POSITIONS = 1 << 16;
+    private static final int MAX_DISTANCE = 64;
+    private static final long NO_PARENT = Long.MIN_VALUE;
+    private static final EnumFacing[] SEARCH_SIDES = {
+        EnumFacing.UP,
+        EnumFacing.NORTH,
+        EnumFacing.SOUTH,
+        EnumFacing.WEST,
+        EnumFacing.EAST
+    };
+
     private SingleUseTank tank = new SingleUseTank("tank", 16 * Fluid.BUCKET_VOLUME, this);
     private boolean queueBuilt = false;
     private Queue<BlockPos> queue = new PriorityQueue<>(
@@ -34,84 +51,90 @@ public class TilePump extends TileMiner {
                     IntMath.pow(blockPos.getX() - pos.getX(), 2) + IntMath.pow(blockPos.getZ() - pos.getZ(), 2)
             ).reversed()
     );
-    private Map<BlockPos, List<BlockPos>> paths = new HashMap<>();
+    /** Maps every (packed) position that the scan has found to the position that it was found from, or
+     * {@link #NO_PARENT} for the first position under the pump. Following these back gives the path that the fluid
+     * has to flow through to get to the pump. */
+    private final TLongLongMap paths = new TLongLongHashMap(
+            Constants.DEFAULT_CAPACITY,
+            Constants.DEFAULT_LOAD_FACTOR,
+            NO_PARENT,
+            NO_PARENT
+    );
+
+    private boolean scanning = false;
+    private Fluid scanFluid;
+    private final TLongArrayList scanFrontier = new TLongArrayList();
+    private int scanFrontierIndex = 0;
 
     @Override
     protected IMjReceiver createMjReceiver() {
         return new MjRedstoneBatteryReceiver(battery);
     }
 
-    private void buildQueue() {
+    /** Starts a new breadth-first search for all of the fluid connected to the first fluid block under the pump. The
+     * search itself is spread out over multiple ticks by {@link #tickScan()}. */
+    private void startScan() {
         queue.clear();
         paths.clear();
-        List<BlockPos> nextPosesToCheck = new ArrayList<>();
-        List<List<BlockPos>> nextPaths = new ArrayList<>();
-        List<BlockPos> checkedButFlowingPoses = new ArrayList<>();
-        LoadingCache<BlockPos, Optional<Fluid>> fluidCache = CacheBuilder.newBuilder()
-                .expireAfterAccess(10, TimeUnit.SECONDS)
-                .build(CacheLoader.from(blockPos -> Optional.ofNullable(BlockUtil.getFluidWithFlowing(world, blockPos))));
-        int y = pos.getY() - 1;
-        if (nextPosesToCheck.isEmpty()) {
-            for (; y >= 0; y--) {
-                BlockPos posToCheck = new BlockPos(pos.getX(), y, pos.getZ());
-                if (fluidCache.getUnchecked(posToCheck).isPresent()) {
-                    if (!queue.contains(posToCheck)) {
-                        nextPosesToCheck.add(posToCheck);
-                        nextPaths.add(new ArrayList<>(Collections.singletonList(posToCheck)));
-                        break;
-                    }
-                } else if (!world.isAirBlock(posToCheck) && world.getBlockState(posToCheck).getBlock() != BCFactoryBlocks.tube) {
-                    break;
-                }
+        scanFrontier.clear();
+        scanFrontierIndex = 0;
+        scanFluid = null;
+        currentPos = null;
+        for (int y = pos.getY() - 1; y >= 0; y--) {
+            BlockPos posToCheck = new BlockPos(pos.getX(), y, pos.getZ());
+            Fluid fluid = BlockUtil.getFluidWithFlowing(world, posToCheck);
+            if (fluid != null) {
+                scanFluid = fluid;
+                long packed = posToCheck.toLong();
+                paths.put(packed, NO_PARENT);
+                scanFrontier.add(packed);
+                break;
+            } else if (!world.isAirBlock(posToCheck) && world.getBlockState(posToCheck).getBlock() != BCFactoryBlocks.tube) {
+                break;
             }
-            if (nextPosesToCheck.isEmpty()) {
+        }
+        scanning = scanFluid != null;
+    }
+
+    private void tickScan() {
+        int budget = MAX_SCANNED_PER_TICK;
+        while (scanFrontierIndex < scanFrontier.size()) {
+            if (budget-- <= 0) {
                 return;
             }
-        }
-        while (!nextPosesToCheck.isEmpty()) {
-            List<BlockPos> nextPosesToCheckCopy = new ArrayList<>(nextPosesToCheck);
-            nextPosesToCheck.clear();
-            List<List<BlockPos>> nextPathsCopy = new ArrayList<>(nextPaths);
-            nextPaths.clear();
-            int i = 0;
-            for (BlockPos posToCheck : nextPosesToCheckCopy) {
-                List<BlockPos> path = nextPathsCopy.get(i);
-                if (!queue.contains(posToCheck)) {
-                    if (BlockUtil.getFluid(world, posToCheck) != null) {
-                        queue.add(posToCheck);
-                        paths.put(posToCheck, path);
-                    } else {
-                        checkedButFlowingPoses.add(posToCheck);
-                    }
+            long packed = scanFrontier.get(scanFrontierIndex++);
+            BlockPos posToCheck = BlockPos.fromLong(packed);
+            if (BlockUtil.getFluid(world, posToCheck) != null) {
+                queue.add(posToCheck);
+            }
+            for (EnumFacing side : SEARCH_SIDES) {
+                BlockPos offsetPos = posToCheck.offset(side);
+                if (Math.pow(offsetPos.getX() - pos.getX(), 2) + Math.pow(offsetPos.getZ() - pos.getZ(), 2) > Math.pow(MAX_DISTANCE, 2)) {
+                    continue;
                 }
-
-                for (EnumFacing side : new EnumFacing[] {
-                        EnumFacing.UP,
-                        EnumFacing.NORTH,
-                        EnumFacing.SOUTH,
-                        EnumFacing.WEST,
-                        EnumFacing.EAST
-                }) {
-                    BlockPos offsetPos = posToCheck.offset(side);
-                    if (Math.pow(offsetPos.getX() - pos.getX(), 2) + Math.pow(offsetPos.getZ() - pos.getZ(), 2) > Math.pow(64, 2)) {
-                        continue;
-                    }
-                    if (fluidCache.getUnchecked(posToCheck).isPresent()
-                            && Objects.equals(fluidCache.getUnchecked(offsetPos), fluidCache.getUnchecked(posToCheck))
-                            && !queue.contains(offsetPos)
-                            && !checkedButFlowingPoses.contains(offsetPos)) {
-                        List<BlockPos> currentPath = new ArrayList<>(path);
-                        currentPath.add(offsetPos);
-                        if (!nextPosesToCheck.contains(offsetPos) && !nextPosesToCheckCopy.contains(offsetPos)) {
-                            nextPosesToCheck.add(offsetPos);
-                            nextPaths.add(currentPath);
-                        }
-                    }
+                long offsetPacked = offsetPos.toLong();
+                if (paths.containsKey(offsetPacked) || !world.isBlockLoaded(offsetPos)) {
+                    continue;
+                }
+                if (BlockUtil.getFluidWithFlowing(world, offsetPos) == scanFluid) {
+                    paths.put(offsetPacked, packed);
+                    scanFrontier.add(offsetPacked);
                 }
+            }
+        }
+        scanning = false;
+        scanFrontier.clear();
+        scanFrontierIndex = 0;
+    }
 
-                i++;
+    /** @return True if every block between the given position and the pump still has fluid in it. */
+    private boolean isPathValid(BlockPos blockPos) {
+        for (long packed = blockPos.toLong(); packed != NO_PARENT; packed = paths.get(packed)) {
+            if (BlockUtil.getFluidWithFlowing(world, BlockPos.fromLong(packed)) == null) {
+                return false;
             }
         }
+        return true;
     }
 
     private boolean canDrain(BlockPos blockPos) {
@@ -133,16 +156,21 @@ public class TilePump extends TileMiner {
 
     @Override
     protected void initCurrentPos() {
-        if (currentPos == null) {
+        if (currentPos == null && !scanning) {
             nextPos();
         }
     }
 
     @Override
     public void update() {
-        if (!queueBuilt && !world.isRemote) {
-            buildQueue();
-            queueBuilt = true;
+        if (!world.isRemote) {
+            if (!queueBuilt) {
+                startScan();
+                queueBuilt = true;
+            }
+            if (scanning) {
+                tickScan();
+            }
         }
 
         super.update();
@@ -152,6 +180,9 @@ public class TilePump extends TileMiner {
 
     @Override
     public void mine() {
+        if (scanning) {
+            return;
+        }
         boolean prevResult = true;
         while (prevResult) {
             prevResult = false;
@@ -159,14 +190,11 @@ public class TilePump extends TileMiner {
                 return;
             }
             long target = 10000000;
-            if (currentPos != null && paths.containsKey(currentPos)) {
+            if (currentPos != null && paths.containsKey(currentPos.toLong())) {
                 progress += battery.extractPower(0, target - progress);
                 if (progress >= target) {
                     FluidStack drain = BlockUtil.drainBlock(world, currentPos, false);
-                    if (drain != null &&
-                            paths.get(currentPos).stream()
-                                    .allMatch(blockPos -> BlockUtil.getFluidWithFlowing(world, blockPos) != null) &&
-                            canDrain(currentPos)) {
+                    if (drain != null && isPathValid(currentPos) && canDrain(currentPos)) {
                         tank.fill(drain, true);
                         progress = 0;
                         int count = 0;
@@ -185,31 +213,98 @@ public class TilePump extends TileMiner {
                             nextPos();
                         }
                     } else {
-                        buildQueue();
-                        nextPos();
+                        startScan();
+                        return;
                     }
                     prevResult = true;
                 }
             } else {
-                buildQueue();
-                nextPos();
+                startScan();
+                return;
             }
         }
     }
 
+    @Override
+    public boolean isComplete() {
+        return !scanning && super.isComplete();
+    }
+
     @Override
     public void readFromNBT(NBTTagCompound nbt) {
         super.readFromNBT(nbt);
         tank.deserializeNBT(nbt.getCompoundTag("tank"));
+        if (nbt.hasKey("scan")) {
+            readScan(nbt.getIntArray("scan"));
+        }
     }
 
     @Override
     public NBTTagCompound writeToNBT(NBTTagCompound nbt) {
         super.writeToNBT(nbt);
         nbt.setTag("tank", tank.serializeNBT());
+        if (queueBuilt && !scanning && paths.size() <= MAX_SAVED_POSITIONS) {
+            nbt.setIntArray("scan", writeScan());
+        }
         return nbt;
     }
 
+    /** Writes out every scanned position as a single int: the x and z offsets from the pump (8 bits each), the y (8
+     * bits), the direction of its parent (3 bits) and whether it's in the queue (1 bit). */
+    private int[] writeScan() {
+        TLongSet queued = new TLongHashSet(queue.size());
+        for (BlockPos blockPos : queue) {
+            queued.add(blockPos.toLong());
+        }
+        int[] scan = new int[paths.size()];
+        int[] index = { 0 };
+        paths.forEachEntry((packed, parentPacked) -> {
+            BlockPos blockPos = BlockPos.fromLong(packed);
+            int parentSide = 7;
+            if (parentPacked != NO_PARENT) {
+                BlockPos parent = BlockPos.fromLong(parentPacked);
+                EnumFacing face = EnumFacing.getFacingFromVector(
+                        parent.getX() - blockPos.getX(),
+                        parent.getY() - blockPos.getY(),
+                        parent.getZ() - blockPos.getZ()
+                );
+                parentSide = face.ordinal();
+            }
+            int value = (blockPos.getX() - pos.getX() + MAX_DISTANCE) & 0xFF;
+            value |= ((blockPos.getZ() - pos.getZ() + MAX_DISTANCE) & 0xFF) << 8;
+            value |= (blockPos.getY() & 0xFF) << 16;
+            value |= parentSide << 24;
+            if (queued.contains(packed)) {
+                value |= 1 << 27;
+            }
+            scan[index[0]++] = value;
+            return true;
+        });
+        return scan;
+    }
+
+    private void readScan(int[] scan) {
+        queue.clear();
+        paths.clear();
+        for (int value : scan) {
+            BlockPos blockPos = new BlockPos(
+                    pos.getX() + (value & 0xFF) - MAX_DISTANCE,
+                    (value >> 16) & 0xFF,
+                    pos.getZ() + ((value >> 8) & 0xFF) - MAX_DISTANCE
+            );
+            int parentSide = (value >> 24) & 7;
+            long parentPacked = NO_PARENT;
+            if (parentSide < EnumFacing.VALUES.length) {
+                parentPacked = blockPos.offset(EnumFacing.VALUES[parentSide]).toLong();
+            }
+            paths.put(blockPos.toLong(), parentPacked);
+            if ((value & (1 << 27)) != 0) {
+                queue.add(blockPos);
+            }
+        }
+        queueBuilt = true;
+    }
+
     // Networking
 
     @Override
@@ -241,6 +336,7 @@ public class TilePump extends TileMiner {
         super.getDebugInfo(left, right, side);
         left.add("fluid = " + tank.getDebugString());
         left.add("queue size = " + queue.size());
+        left.add("scanned = " + paths.size() + (scanning ? " (scanning)" : ""));
     }
 
     // Capabilities
@@ -1,16 +1,27 @@
 package buildcraft.lib.library;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
 import net.minecraft.launchwrapper.Launch;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+
+import net.minecraftforge.common.util.Constants;
 
 import buildcraft.api.core.BCLog;
 
@@ -18,15 +29,35 @@ import buildcraft.lib.BCLibDatabase;
 import buildcraft.lib.library.book.LibraryEntryBook;
 import buildcraft.lib.misc.WorkerThreadUtil;
 
-/** A local database. Stores the current */
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
+
+/** A local database. Stores the current
+ * <p>
+ * Only the headers are kept in memory: an index file in the {@link #outDirectory} lists the header and file of every
+ * entry, so that startup doesn't need to read every file. The data of each entry is read from its file when it is
+ * first needed, and only the most recently used ones are kept. */
 public class LocalLibraryDatabase extends LibraryDatabase_Neptune {
     private static final String[] OLD_DB_LOCATIONS = { "blueprints" };
     private static final String DB_LOCATION = "bc-database";
+    private static final String INDEX_FILE = "index.nbt";
+    private static final int MAX_CACHED_ENTRIES = 32;
 
     public File outDirectory;
     public Map<String, File> specificOutDirectories = new HashMap<>();
     public final List<File> inDirectories = new ArrayList<>();
 
+    private final Map<LibraryEntryHeader, IndexEntry> index = new ConcurrentHashMap<>();
+    /** The most recently used entry data, in access order. */
+    private final Map<LibraryEntryHeader, ILibraryEntryData> cache =
+        new LinkedHashMap<LibraryEntryHeader, ILibraryEntryData>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LibraryEntryHeader, ILibraryEntryData> eldest) {
+                return size() > MAX_CACHED_ENTRIES;
+            }
+        };
+    private volatile boolean indexDirty = false;
+
     public LocalLibraryDatabase() {
         final File dir;
 
@@ -51,7 +82,7 @@ public class LocalLibraryDatabase extends LibraryDatabase_Neptune {
     }
 
     public void onServerStarted() {
-        for (LibraryEntryHeader header : entries.keySet()) {
+        for (LibraryEntryHeader header : index.keySet()) {
             /* If we started BEFORE the server was initialised then the owner lookup would have failed.
              * 
              * This makes sure that it is always right. */
@@ -60,27 +91,45 @@ public class LocalLibraryDatabase extends LibraryDatabase_Neptune {
     }
 
     public void readAll() {
-        List<String> endings = new ArrayList<>();
-        for (String key : BCLibDatabase.FILE_HANDLERS.keySet()) {
-            endings.add("." + key);
+        int fromIndex = readIndex();
+        Set<File> indexedFiles = new HashSet<>();
+        for (IndexEntry entry : index.values()) {
+            indexedFiles.add(entry.file);
         }
+        File indexFile = getIndexFile();
+        List<Future<?>> tasks = new ArrayList<>();
         for (File in : inDirectories) {
             BCLog.logger.info("[lib.library] Reading from dir " + in);
             if (in.exists()) {
                 if (in.isDirectory()) {
                     try (Stream<Path> fileStream = Files.walk(in.toPath())) {
-                        fileStream.forEach(this::readPath);
+                        fileStream.map(Path::toFile)//
+                            .filter(file -> !indexedFiles.contains(file) && !file.equals(indexFile))//
+                            .forEach(file -> tasks.add(readFileAsync(file)));
                     } catch (IOException io) {
                         io.printStackTrace();
                     }
                 }
             }
         }
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException | ExecutionException e) {
+                BCLog.logger.warn("[lib.library] Failed to wait for a library file to be read", e);
+            }
+        }
+        BCLog.logger.info("[lib.library] Found " + fromIndex + " entries in the index, and read " + tasks.size()
+            + " other files");
+        if (indexDirty) {
+            writeIndex();
+        }
     }
 
-    private void readPath(Path path) {
-        WorkerThreadUtil.executeWorkTask(() -> {
-            readFile(path.toFile());
+    private Future<?> readFileAsync(File file) {
+        return WorkerThreadUtil.executeWorkTask(() -> {
+            readFile(file);
+            return null;
         });
     }
 
@@ -97,11 +146,13 @@ public class LocalLibraryDatabase extends LibraryDatabase_Neptune {
             BCLog.logger.warn("[lib.library] Unknown type for name " + last);
             return;
         }
-        try (FileInputStream fis = new FileInputStream(file)) {
-            Entry<LibraryEntryHeader, ILibraryEntryData> loaded = load(fis);
+        IndexEntry entry = new IndexEntry(file, file.length(), file.lastModified());
+        try {
+            Entry<LibraryEntryHeader, ILibraryEntryData> loaded = entry.load();
             LibraryEntryHeader header = loaded.getKey();
-            ILibraryEntryData data = loaded.getValue();
-            entries.put(header, data);
+            index.put(header, entry);
+            cacheEntry(header, loaded.getValue());
+            indexDirty = true;
             BCLog.logger.info("[lib.library] Added a library entry " + header);
         } catch (IOException io) {
             BCLog.logger.warn("[lib.library] Failed to add " + file + " because " + io.getMessage());
@@ -111,17 +162,86 @@ public class LocalLibraryDatabase extends LibraryDatabase_Neptune {
         }
     }
 
+    // Index
+
+    private File getIndexFile() {
+        return new File(outDirectory, INDEX_FILE);
+    }
+
+    /** Reads every entry from the index file, ignoring any whose file has been changed or removed since the index was
+     * written.
+     *
+     * @return The number of entries read. */
+    private int readIndex() {
+        File file = getIndexFile();
+        if (!file.isFile()) {
+            return 0;
+        }
+        int count = 0;
+        try {
+            NBTTagCompound nbt = CompressedStreamTools.read(file);
+            NBTTagList list = nbt.getTagList("entries", Constants.NBT.TAG_COMPOUND);
+            for (int i = 0; i < list.tagCount(); i++) {
+                NBTTagCompound tag = list.getCompoundTagAt(i);
+                IndexEntry entry = new IndexEntry(new File(tag.getString("file")), tag.getLong("size"),
+                    tag.getLong("modified"));
+                if (entry.isUpToDate()) {
+                    index.put(new LibraryEntryHeader(tag.getCompoundTag("header")), entry);
+                    count++;
+                } else {
+                    indexDirty = true;
+                }
+            }
+        } catch (IOException io) {
+            BCLog.logger.warn("[lib.library] Failed to read the index " + file + " because " + io.getMessage());
+            indexDirty = true;
+        }
+        return count;
+    }
+
+    private synchronized void writeIndex() {
+        NBTTagList list = new NBTTagList();
+        for (Entry<LibraryEntryHeader, IndexEntry> entry : index.entrySet()) {
+            NBTTagCompound tag = new NBTTagCompound();
+            tag.setTag("header", entry.getKey().writeToNBT());
+            tag.setString("file", entry.getValue().file.getAbsolutePath());
+            tag.setLong("size", entry.getValue().size);
+            tag.setLong("modified", entry.getValue().modified);
+            list.appendTag(tag);
+        }
+        NBTTagCompound nbt = new NBTTagCompound();
+        nbt.setTag("entries", list);
+        try {
+            outDirectory.mkdirs();
+            CompressedStreamTools.safeWrite(nbt, getIndexFile());
+            indexDirty = false;
+        } catch (IOException io) {
+            BCLog.logger.warn("[lib.library] Failed to write the index because " + io.getMessage());
+        }
+    }
+
+    private void cacheEntry(LibraryEntryHeader header, ILibraryEntryData data) {
+        synchronized (cache) {
+            cache.put(header, data);
+        }
+    }
+
     @Override
     public boolean addNew(LibraryEntryHeader header, ILibraryEntryData data) {
-        if (super.addNew(header, data)) {
-            save(header, data);
-            return true;
-        } else {
+        if (Objects.equals(getEntry(header), data)) {
             return false;
         }
+        File file = save(header, data);
+        if (file != null) {
+            index.put(header, new IndexEntry(file, file.length(), file.lastModified()));
+            writeIndex();
+        }
+        cacheEntry(header, data);
+        return true;
     }
 
-    protected void save(LibraryEntryHeader header, ILibraryEntryData data) {
+    /** @return The file that the entry was saved to, or null if it couldn't be saved. */
+    protected File save(LibraryEntryHeader header, ILibraryEntryData data) {
         String name = header.name.replace('/', '-').replace("\\", "-") + " - ";
         name += header.creation.format(BCLibDatabase.DATE_TIME_FORMATTER);
 
@@ -138,7 +258,9 @@ public class LocalLibraryDatabase extends LibraryDatabase_Neptune {
             save(fos, header, data);
         } catch (IOException io) {
             io.printStackTrace();
+            return null;
         }
+        return toSaveTo;
     }
 
     public File getOutDirectory(String kind) {
@@ -149,12 +271,57 @@ public class LocalLibraryDatabase extends LibraryDatabase_Neptune {
         return outDirectory;
     }
 
+    /** @return The data for the given header. This is read from disk if it hasn't been used recently. */
     public ILibraryEntryData getEntry(LibraryEntryHeader header) {
-        return entries.get(header);
+        synchronized (cache) {
+            ILibraryEntryData data = cache.get(header);
+            if (data != null) {
+                return data;
+            }
+        }
+        IndexEntry entry = index.get(header);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            ILibraryEntryData data = entry.load().getValue();
+            cacheEntry(header, data);
+            return data;
+        } catch (IOException io) {
+            BCLog.logger.warn("[lib.library] Failed to read " + entry.file + " because " + io.getMessage());
+            if (DEBUG) {
+                io.printStackTrace();
+            }
+            return null;
+        }
     }
 
     @Override
     public Collection<LibraryEntryHeader> getAllHeaders() {
-        return entries.keySet();
+        return index.keySet();
+    }
+
+    /** The location of a single entry on disk. */
+    static class IndexEntry {
+        final File file;
+        final long size, modified;
+
+        IndexEntry(File file, long size, long modified) {
+            this.file = file;
+            this.size = size;
+            this.modified = modified;
+        }
+
+        boolean isUpToDate() {
+            return file.isFile() && file.length() == size && file.lastModified() == modified;
+        }
+
+        /** Reads the entry by mapping its file into memory, rather than copying it onto the heap first. */
+        Entry<LibraryEntryHeader, ILibraryEntryData> load() throws IOException {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = channel.map(MapMode.READ_ONLY, 0, channel.size());
+                return LibraryDatabase_Neptune.load(new ByteBufInputStream(Unpooled.wrappedBuffer(mapped)));
+            }
+        }
     }
 }
@@ -0,0 +1,24 @@
+/* Copyright (c) 2016 SpaceToad and the BuildCraft team
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/. */
+package buildcraft.lib.list;
+
+import java.util.function.Predicate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import net.minecraft.item.ItemStack;
+
+import buildcraft.api.lists.ListMatchHandler;
+
+/** A {@link ListMatchHandler} that can work out everything that only depends on the stack in the list once, when the
+ * list is compiled, rather than for every target stack that is tested. */
+interface ICompilableListMatchHandler {
+    /** @return A test that returns the same as {@link ListMatchHandler#matches(ListMatchHandler.Type, ItemStack,
+     *         ItemStack, boolean)} for the given type, stack and precision, or null if it would never match
+     *         anything. */
+    @Nullable
+    Predicate<ItemStack> compile(ListMatchHandler.Type type, @Nonnull ItemStack stack, boolean precise);
+}
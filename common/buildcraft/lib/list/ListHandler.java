@@ -1,11 +1,16 @@
 package buildcraft.lib.list;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Predicate;
 
 import javax.annotation.Nonnull;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import net.minecraft.creativetab.CreativeTabs;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
@@ -100,6 +105,64 @@ public final class ListHandler {
             return false;
         }
 
+        /** @return A test that returns the same as {@link #matches(ItemStack)}, but that works out everything that only
+         *         depends on this line once, rather than for every target. */
+        public Predicate<ItemStack> compile() {
+            List<Predicate<ItemStack>> tests = new ArrayList<>();
+            if (byType || byMaterial) {
+                ItemStack first = stacks.get(0);
+                if (first.isEmpty()) {
+                    return target -> false;
+                }
+                ListMatchHandler.Type type = getSortingType();
+                boolean isPrecise = precise;
+                for (ListMatchHandler h : ListRegistry.getHandlers()) {
+                    if (h instanceof ICompilableListMatchHandler) {
+                        Predicate<ItemStack> test = ((ICompilableListMatchHandler) h).compile(type, first, isPrecise);
+                        if (test != null) {
+                            tests.add(test);
+                        }
+                    } else {
+                        tests.add(target -> h.matches(type, first, target, isPrecise));
+                    }
+                }
+                return anyOf(tests);
+            }
+
+            // Only test the stacks with the same item as the target
+            BitSet itemIds = new BitSet();
+            List<ItemStack> filled = new ArrayList<>();
+            for (ItemStack s : stacks) {
+                if (!s.isEmpty()) {
+                    itemIds.set(Item.getIdFromItem(s.getItem()));
+                    filled.add(s);
+                }
+            }
+            if (filled.isEmpty()) {
+                return target -> false;
+            }
+            ItemStack[] filledArray = filled.toArray(new ItemStack[filled.size()]);
+            boolean isPrecise = precise;
+            return target -> {
+                if (target.isEmpty()) {
+                    return false;
+                }
+                int id = Item.getIdFromItem(target.getItem());
+                if (id < 0 || !itemIds.get(id)) {
+                    return false;
+                }
+                for (ItemStack s : filledArray) {
+                    if (StackUtil.isMatchingItem(s, target, true, isPrecise)) {
+                        // If precise, re-check damage
+                        if (!isPrecise || s.getItemDamage() == target.getItemDamage()) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            };
+        }
+
         public ListMatchHandler.Type getSortingType() {
             return byType ? (byMaterial ? ListMatchHandler.Type.CLASS : ListMatchHandler.Type.TYPE) : ListMatchHandler.Type.MATERIAL;
         }
@@ -197,6 +260,11 @@ public final class ListHandler {
         }
     }
 
+    /** The compiled lines of every list that has been tested against recently, keyed by the identity of the NBT list
+     * that they were read from. Entries are removed when the tag is garbage collected, or replaced by
+     * {@link #saveLines(ItemStack, Line[])}. */
+    private static final Cache<NBTTagList, Predicate<ItemStack>> COMPILED = CacheBuilder.newBuilder().weakKeys().build();
+
     private ListHandler() {
 
     }
@@ -245,6 +313,11 @@ public final class ListHandler {
             }
         }
 
+        NBTTagCompound existing = stackList.getTagCompound();
+        if (existing != null && existing.hasKey("lines")) {
+            COMPILED.invalidate(existing.getTag("lines"));
+        }
+
         if (hasLine) {
             NBTTagCompound data = NBTUtilBC.getItemData(stackList);
             data.setBoolean("written", true);
@@ -269,14 +342,35 @@ public final class ListHandler {
         NBTTagCompound data = NBTUtilBC.getItemData(stackList);
         if (data.hasKey("written") && data.hasKey("lines")) {
             NBTTagList list = data.getTagList("lines", 10);
-            for (int i = 0; i < list.tagCount(); i++) {
-                Line line = Line.fromNBT(list.getCompoundTagAt(i));
-                if (line.matches(item)) {
-                    return true;
-                }
+            Predicate<ItemStack> compiled = COMPILED.getIfPresent(list);
+            if (compiled == null) {
+                compiled = compile(list);
+                COMPILED.put(list, compiled);
             }
+            return compiled.test(item);
         }
 
         return false;
     }
+
+    private static Predicate<ItemStack> compile(NBTTagList list) {
+        List<Predicate<ItemStack>> tests = new ArrayList<>();
+        for (int i = 0; i < list.tagCount(); i++) {
+            tests.add(Line.fromNBT(list.getCompoundTagAt(i)).compile());
+        }
+        return anyOf(tests);
+    }
+
+    private static Predicate<ItemStack> anyOf(List<Predicate<ItemStack>> tests) {
+        @SuppressWarnings("unchecked")
+        Predicate<ItemStack>[] array = tests.toArray(new Predicate[tests.size()]);
+        return target -> {
+            for (Predicate<ItemStack> test : array) {
+                if (test.test(target)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
 }
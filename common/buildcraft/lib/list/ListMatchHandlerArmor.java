@@ -1,6 +1,7 @@
 package buildcraft.lib.list;
 
 import java.util.EnumSet;
+import java.util.function.Predicate;
 
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.inventory.EntityEquipmentSlot;
@@ -13,7 +14,7 @@ import buildcraft.api.lists.ListMatchHandler;
 import buildcraft.lib.BCLibProxy;
 import buildcraft.lib.misc.FakePlayerUtil;
 
-public class ListMatchHandlerArmor extends ListMatchHandler {
+public class ListMatchHandlerArmor extends ListMatchHandler implements ICompilableListMatchHandler {
     private static EnumSet<EntityEquipmentSlot> getArmorTypes(ItemStack stack) {
         EntityPlayer player = BCLibProxy.getProxy().getClientPlayer();
         if (player == null) {
@@ -37,18 +38,38 @@ public class ListMatchHandlerArmor extends ListMatchHandler {
         if (type == Type.TYPE) {
             EnumSet<EntityEquipmentSlot> armorTypeIDSource = getArmorTypes(stack);
             if (armorTypeIDSource.size() > 0) {
-                EnumSet<EntityEquipmentSlot> armorTypeIDTarget = getArmorTypes(target);
-                if (precise) {
-                    return armorTypeIDSource.equals(armorTypeIDTarget);
-                } else {
-                    armorTypeIDSource.removeAll(EnumSet.complementOf(armorTypeIDTarget));
-                    return armorTypeIDSource.size() > 0;
-                }
+                return matches(armorTypeIDSource, target, precise);
             }
         }
         return false;
     }
 
+    @Override
+    public Predicate<ItemStack> compile(Type type, ItemStack stack, boolean precise) {
+        if (type != Type.TYPE) {
+            return null;
+        }
+        EnumSet<EntityEquipmentSlot> armorTypeIDSource = getArmorTypes(stack);
+        if (armorTypeIDSource.isEmpty()) {
+            return null;
+        }
+        return target -> matches(armorTypeIDSource, target, precise);
+    }
+
+    private static boolean matches(EnumSet<EntityEquipmentSlot> armorTypeIDSource, ItemStack target, boolean precise) {
+        EnumSet<EntityEquipmentSlot> armorTypeIDTarget = getArmorTypes(target);
+        if (precise) {
+            return armorTypeIDSource.equals(armorTypeIDTarget);
+        } else {
+            for (EntityEquipmentSlot slot : armorTypeIDSource) {
+                if (armorTypeIDTarget.contains(slot)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
     @Override
     public boolean isValidSource(Type type, ItemStack stack) {
         return getArmorTypes(stack).size() > 0;
@@ -1,11 +1,13 @@
 package buildcraft.lib.list;
 
+import java.util.function.Predicate;
+
 import net.minecraft.item.ItemStack;
 
 import buildcraft.api.lists.ListMatchHandler;
 import buildcraft.api.lists.ListRegistry;
 
-public class ListMatchHandlerClass extends ListMatchHandler {
+public class ListMatchHandlerClass extends ListMatchHandler implements ICompilableListMatchHandler {
     @Override
     public boolean matches(Type type, ItemStack stack, ItemStack target, boolean precise) {
         if (type == Type.TYPE) {
@@ -15,6 +17,11 @@ public class ListMatchHandlerClass extends ListMatchHandler {
         return false;
     }
 
+    @Override
+    public Predicate<ItemStack> compile(Type type, ItemStack stack, boolean precise) {
+        return isValidSource(type, stack) ? target -> matches(type, stack, target, precise) : null;
+    }
+
     @Override
     public boolean isValidSource(Type type, ItemStack stack) {
         if (type == Type.TYPE) {
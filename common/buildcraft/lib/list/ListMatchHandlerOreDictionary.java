@@ -1,6 +1,8 @@
 package buildcraft.lib.list;
 
+import java.util.BitSet;
 import java.util.Set;
+import java.util.function.Predicate;
 
 import net.minecraft.creativetab.CreativeTabs;
 import net.minecraft.item.ItemStack;
@@ -12,7 +14,7 @@ import buildcraft.api.lists.ListMatchHandler;
 
 import buildcraft.lib.misc.StackUtil;
 
-public class ListMatchHandlerOreDictionary extends ListMatchHandler {
+public class ListMatchHandlerOreDictionary extends ListMatchHandler implements ICompilableListMatchHandler {
     private static int getUppercaseCount(String s) {
         int j = 0;
         for (int i = 0; i < s.length(); i++) {
@@ -72,6 +74,52 @@ public class ListMatchHandlerOreDictionary extends ListMatchHandler {
         return false;
     }
 
+    @Override
+    public Predicate<ItemStack> compile(Type type, ItemStack stack, boolean precise) {
+        int[] oreIds = OreDictionary.getOreIDs(stack);
+
+        if (oreIds.length == 0) {
+            if (type == Type.TYPE) {
+                return target -> StackUtil.isMatchingItem(stack, target, false, false);
+            }
+            return null;
+        }
+
+        // The ore ids that a target needs to have (at least one of) to match
+        BitSet ids = new BitSet();
+        if (type == Type.CLASS) {
+            for (int i : oreIds) {
+                ids.set(i);
+            }
+        } else {
+            String[] oreNames = new String[oreIds.length];
+            for (int i = 0; i < oreIds.length; i++) {
+                oreNames[i] = OreDictionary.getOreName(oreIds[i]);
+            }
+            String s = getBestOreString(oreNames);
+            if (s != null) {
+                Set<Integer> stackIds = ListOreDictionaryCache.INSTANCE.getListOfPartialMatches(type == Type.MATERIAL ? ListOreDictionaryCache.getMaterial(s) : ListOreDictionaryCache.getType(s));
+                if (stackIds != null) {
+                    for (int j : stackIds) {
+                        ids.set(j);
+                    }
+                }
+            }
+        }
+
+        if (ids.isEmpty()) {
+            return null;
+        }
+        return target -> {
+            for (int k : OreDictionary.getOreIDs(target)) {
+                if (ids.get(k)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
     @Override
     public boolean isValidSource(Type type, ItemStack stack) {
         if (OreDictionary.getOreIDs(stack).length > 0) {
@@ -1,30 +1,48 @@
 package buildcraft.lib.list;
 
 import java.util.Set;
+import java.util.function.Predicate;
 
 import net.minecraft.item.ItemStack;
 
 import buildcraft.api.lists.ListMatchHandler;
 
-public class ListMatchHandlerTools extends ListMatchHandler {
+public class ListMatchHandlerTools extends ListMatchHandler implements ICompilableListMatchHandler {
     @Override
     public boolean matches(Type type, ItemStack stack, ItemStack target, boolean precise) {
         if (type == Type.TYPE) {
             Set<String> toolClassesSource = stack.getItem().getToolClasses(stack);
-            Set<String> toolClassesTarget = target.getItem().getToolClasses(stack);
-            if (toolClassesSource.size() > 0 && toolClassesTarget.size() > 0) {
-                if (precise) {
-                    if (toolClassesSource.size() != toolClassesTarget.size()) {
-                        return false;
-                    }
+            return matches(toolClassesSource, stack, target, precise);
+        }
+        return false;
+    }
+
+    @Override
+    public Predicate<ItemStack> compile(Type type, ItemStack stack, boolean precise) {
+        if (type != Type.TYPE) {
+            return null;
+        }
+        Set<String> toolClassesSource = stack.getItem().getToolClasses(stack);
+        if (toolClassesSource.isEmpty()) {
+            return null;
+        }
+        return target -> matches(toolClassesSource, stack, target, precise);
+    }
+
+    private static boolean matches(Set<String> toolClassesSource, ItemStack stack, ItemStack target, boolean precise) {
+        Set<String> toolClassesTarget = target.getItem().getToolClasses(stack);
+        if (toolClassesSource.size() > 0 && toolClassesTarget.size() > 0) {
+            if (precise) {
+                if (toolClassesSource.size() != toolClassesTarget.size()) {
+                    return false;
                 }
-                for (String s : toolClassesSource) {
-                    if (!toolClassesTarget.contains(s)) {
-                        return false;
-                    }
+            }
+            for (String s : toolClassesSource) {
+                if (!toolClassesTarget.contains(s)) {
+                    return false;
                 }
-                return true;
             }
+            return true;
         }
         return false;
     }
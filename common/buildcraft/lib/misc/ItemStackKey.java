@@ -32,7 +32,8 @@ public class ItemStackKey {
         if (obj.getClass() != this.getClass()) return false;
         ItemStackKey other = (ItemStackKey) obj;
         if (hash != other.hash) return false;
-        return baseStack.serializeNBT().equals(other.baseStack.serializeNBT());
+        // Compares the same things as serializeNBT() would, but without creating any tags
+        return ItemStack.areItemStacksEqual(baseStack, other.baseStack);
     }
 
     @Override
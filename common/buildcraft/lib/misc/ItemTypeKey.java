@@ -0,0 +1,104 @@
+/* Copyright (c) 2016 SpaceToad and the BuildCraft team
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/. */
+package buildcraft.lib.misc;
+
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+
+/** An immutable key for the type of an {@link ItemStack}: its item, damage, tag and capabilities, but not its count.
+ * Unlike {@link ItemStackKey} this never serialises the stack, and keys are interned, so equal keys are usually the
+ * same object.
+ * <p>
+ * Use {@link #of(ItemStack)} to get a key, and {@link #matches(ItemStack)} to test a stack against a key without
+ * creating a new one. */
+public final class ItemTypeKey {
+    public static final ItemTypeKey EMPTY = new ItemTypeKey(StackUtil.EMPTY, 0);
+
+    private static final Interner<ItemTypeKey> INTERNER = Interners.newWeakInterner();
+
+    /** A copy of the stack, with a count of 1. Never modified. */
+    private final @Nonnull ItemStack stack;
+    private final int hash;
+
+    private ItemTypeKey(@Nonnull ItemStack stack, int hash) {
+        this.stack = stack;
+        this.hash = hash;
+    }
+
+    /** @return The interned key for the type of the given stack. The stack isn't stored, so it can be modified
+     *         afterwards. */
+    public static ItemTypeKey of(@Nonnull ItemStack stack) {
+        if (stack.isEmpty()) {
+            return EMPTY;
+        }
+        ItemStack copy = stack.copy();
+        copy.setCount(1);
+        return INTERNER.intern(new ItemTypeKey(copy, StackUtil.hashIgnoringCount(copy)));
+    }
+
+    public boolean isEmpty() {
+        return stack.isEmpty();
+    }
+
+    public Item getItem() {
+        return stack.getItem();
+    }
+
+    public int getItemDamage() {
+        return stack.getItemDamage();
+    }
+
+    /** @return A new stack of this type with the given count. */
+    @Nonnull
+    public ItemStack createStack(int count) {
+        if (stack.isEmpty()) {
+            return StackUtil.EMPTY;
+        }
+        ItemStack copy = stack.copy();
+        copy.setCount(count);
+        return copy;
+    }
+
+    /** @return True if the given stack is of this type, ignoring its count. */
+    public boolean matches(@Nonnull ItemStack other) {
+        if (stack.isEmpty() || other.isEmpty()) {
+            return stack.isEmpty() == other.isEmpty();
+        }
+        if (stack.getItem() != other.getItem() || stack.getItemDamage() != other.getItemDamage()) {
+            return false;
+        }
+        NBTTagCompound tag = stack.getTagCompound();
+        NBTTagCompound otherTag = other.getTagCompound();
+        return Objects.equals(tag, otherTag) && stack.areCapsCompatible(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (obj == null) return false;
+        if (obj.getClass() != getClass()) return false;
+        ItemTypeKey other = (ItemTypeKey) obj;
+        if (hash != other.hash) return false;
+        return matches(other.stack);
+    }
+
+    @Override
+    public String toString() {
+        return "[ItemTypeKey " + stack + "]";
+    }
+}
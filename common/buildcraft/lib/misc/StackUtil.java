@@ -346,13 +346,26 @@ public class StackUtil {
         return Collectors.toCollection(NonNullList::create);
     }
 
-    /** Computes a hash code for the given {@link ItemStack}. This is based off of {@link ItemStack#serializeNBT()},
-     * except if {@link ItemStack#isEmpty()} returns true, in which case the hash will be 0. */
+    /** Computes a hash code for the given {@link ItemStack} from its item, damage, count and tag, without serialising
+     * it. Stacks that are {@link ItemStack#areItemStacksEqual(ItemStack, ItemStack) equal} have the same hash. If
+     * {@link ItemStack#isEmpty()} returns true then the hash will be 0. */
     public static int hash(@Nonnull ItemStack stack) {
         if (stack.isEmpty()) {
             return 0;
         }
-        return stack.serializeNBT().hashCode();
+        return hashIgnoringCount(stack) * 31 + stack.getCount();
+    }
+
+    /** Like {@link #hash(ItemStack)}, but ignores the count of the stack. */
+    public static int hashIgnoringCount(@Nonnull ItemStack stack) {
+        if (stack.isEmpty()) {
+            return 0;
+        }
+        NBTTagCompound tag = stack.getTagCompound();
+        int hash = stack.getItem().hashCode();
+        hash = hash * 31 + stack.getItemDamage();
+        hash = hash * 31 + (tag == null ? 0 : tag.hashCode());
+        return hash;
     }
 
     /** Should be inlined EVERYWHERE that this is called. */
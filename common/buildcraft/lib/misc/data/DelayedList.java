@@ -1,77 +1,199 @@
 package buildcraft.lib.misc.data;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
-import java.util.function.Supplier;
+import java.util.Map.Entry;
+import java.util.TreeMap;
 
 import com.google.common.collect.ImmutableList;
 
 /** Implements a delayed list of something- stuff that can be postponed for later retrieval. A specialised ordered queue
- * really. */
+ * really.
+ * <p>
+ * Internally this is a timing wheel: a fixed ring of buckets (one per tick of delay) with an overflow map for any
+ * element that is delayed for longer than the ring is big. Buckets are recycled rather than being reallocated, so a
+ * list in a steady state doesn't allocate anything when advancing or adding. */
 public class DelayedList<E> {
-    protected final List<List<E>> elements;
-    private final Supplier<List<E>> innerListSupplier;
+    /** The default number of buckets in the wheel. Most item pipes use delays smaller than this. */
+    public static final int DEFAULT_WHEEL_SIZE = 64;
+
+    private final List<E>[] wheel;
+    private final int mask;
+    /** Elements that had a delay larger than the wheel when they were added. Keyed by the value of {@link #ticks} at
+     * which they should be moved into the wheel. */
+    private final TreeMap<Long, List<E>> overflow = new TreeMap<>();
+    private final Deque<List<E>> spareLists = new ArrayDeque<>();
+
+    /** The index of the bucket that will be returned by the next call to {@link #advance()}. */
+    private int head;
+    /** The number of times that {@link #advance()} has been called. */
+    private long ticks;
+    /** The bucket last returned by {@link #advance()}. This is re-used by the next call to advance. */
+    private List<E> lastReturned;
+
+    private int size;
+    private int lastAdvancedCount;
 
     public DelayedList() {
-        this(new ArrayList<>(), ArrayList::new);
+        this(DEFAULT_WHEEL_SIZE);
+    }
+
+    /** @param wheelSize The number of buckets to use for short delays. This will be rounded up to the next power of
+     *            two. */
+    @SuppressWarnings("unchecked")
+    public DelayedList(int wheelSize) {
+        int actualSize = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        wheel = new List[actualSize];
+        mask = actualSize - 1;
+        for (int i = 0; i < actualSize; i++) {
+            wheel[i] = new ArrayList<>();
+        }
     }
 
     public static <E> DelayedList<E> createConcurrent() {
-        return new DelayedList<E>(Collections.synchronizedList(new ArrayList<>()), () -> {
-            return Collections.synchronizedList(new ArrayList<>());
-        }) {
+        return new DelayedList<E>() {
+            @Override
+            public synchronized int getMaxDelay() {
+                return super.getMaxDelay();
+            }
+
+            @Override
+            public synchronized List<E> advance() {
+                // Copy the elements as the returned bucket can be re-used by another thread
+                return ImmutableList.copyOf(super.advance());
+            }
+
+            @Override
+            public synchronized void add(int delay, E element) {
+                super.add(delay, element);
+            }
+
             @Override
-            public List<E> advance() {
-                synchronized (this.elements) {
-                    return super.advance();
+            public synchronized List<List<E>> getAllElements() {
+                List<List<E>> all = new ArrayList<>();
+                for (List<E> list : super.getAllElements()) {
+                    all.add(ImmutableList.copyOf(list));
                 }
+                return all;
+            }
+
+            @Override
+            public synchronized int size() {
+                return super.size();
             }
-        };
-    }
 
-    private DelayedList(List<List<E>> actualList, Supplier<List<E>> innerList) {
-        elements = actualList;
-        innerListSupplier = innerList;
+            @Override
+            public synchronized void clear() {
+                super.clear();
+            }
+        };
     }
 
     /** @return The maximum delay value that any of the elements has. */
     public int getMaxDelay() {
-        return elements.size();
+        if (!overflow.isEmpty()) {
+            return (int) (overflow.lastKey() - ticks + 1);
+        }
+        for (int delay = wheel.length - 1; delay >= 0; delay--) {
+            if (!wheel[(head + delay) & mask].isEmpty()) {
+                return delay + 1;
+            }
+        }
+        return 0;
     }
 
     /** Advances this list by one, effectively decrementing the delays of every element by one and returning all
      * elements that have a delay of 0.
-     * 
+     * <p>
+     * Note that the returned list is only valid until the next call to this method, as its storage is re-used.
+     *
      * @return The elements that are no longer on a delay. */
     public List<E> advance() {
-        if (elements.isEmpty()) {
+        if (lastReturned != null) {
+            lastReturned.clear();
+            spareLists.push(lastReturned);
+            lastReturned = null;
+        }
+        List<E> due = wheel[head];
+        wheel[head] = nextEmptyList();
+        head = (head + 1) & mask;
+        ticks++;
+        if (!overflow.isEmpty()) {
+            pullFromOverflow();
+        }
+        lastAdvancedCount = due.size();
+        if (due.isEmpty()) {
+            spareLists.push(due);
             return ImmutableList.of();
         }
-        return elements.remove(0);
+        size -= due.size();
+        lastReturned = due;
+        return due;
+    }
+
+    private void pullFromOverflow() {
+        long limit = ticks + wheel.length;
+        Entry<Long, List<E>> entry;
+        while ((entry = overflow.firstEntry()) != null && entry.getKey() < limit) {
+            overflow.pollFirstEntry();
+            int delay = (int) (entry.getKey() - ticks);
+            List<E> list = entry.getValue();
+            wheel[(head + delay) & mask].addAll(list);
+            list.clear();
+            spareLists.push(list);
+        }
+    }
+
+    private List<E> nextEmptyList() {
+        List<E> list = spareLists.poll();
+        return list == null ? new ArrayList<>() : list;
     }
 
     /** Adds an element that will by returned by {@link #advance()} after it has been called delay times.
-     * 
+     *
      * @param delay The number of times that advance needs to be called for the *next* advance to return this element.
      *            Negative numbers default up to 0. */
     public void add(int delay, E element) {
         if (delay < 0) {
             delay = 0;
         }
-        while (elements.size() < delay + 1) {
-            elements.add(innerListSupplier.get());
+        size++;
+        if (delay < wheel.length) {
+            wheel[(head + delay) & mask].add(element);
+        } else {
+            overflow.computeIfAbsent(ticks + delay, k -> nextEmptyList()).add(element);
         }
-        elements.get(delay).add(element);
     }
 
-    /** @return The inner data structure used to hold the elements. Most useful for saving the elements for later. */
+    /** @return The inner data structure used to hold the elements, ordered by delay. Most useful for saving the
+     *         elements for later. The returned outer list is a snapshot, and is not backed by this list. */
     public List<List<E>> getAllElements() {
-        return elements;
+        List<List<E>> all = new ArrayList<>(wheel.length + overflow.size());
+        for (int delay = 0; delay < wheel.length; delay++) {
+            all.add(wheel[(head + delay) & mask]);
+        }
+        all.addAll(overflow.values());
+        return all;
+    }
+
+    /** @return The total number of elements that are currently delayed. */
+    public int size() {
+        return size;
+    }
+
+    /** @return The number of elements that the last call to {@link #advance()} returned. */
+    public int getLastAdvancedCount() {
+        return lastAdvancedCount;
     }
 
     /** Removes *all* elements from this list. */
     public void clear() {
-        elements.clear();
+        for (List<E> list : wheel) {
+            list.clear();
+        }
+        overflow.clear();
+        size = 0;
     }
 }
@@ -0,0 +1,128 @@
+/* Copyright (c) 2016 SpaceToad and the BuildCraft team
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/. */
+package buildcraft.lib.misc.data;
+
+import java.nio.ByteBuffer;
+
+/** A fixed length array of non-negative ints, where every value is stored using the same number of bits. The number of
+ * bits per value grows automatically when a value is set that doesn't fit. Values never straddle two longs, so reading
+ * a single value is just a shift and a mask. */
+public class PackedIntArray {
+    /** The largest number of bits that a single value can take up. */
+    public static final int MAX_BITS = 31;
+
+    private final int length;
+    private int bits;
+    private int valuesPerLong;
+    private long mask;
+    private long[] data;
+
+    public PackedIntArray(int length) {
+        this(length, 1);
+    }
+
+    public PackedIntArray(int length, int bits) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Length must be positive, but was " + length);
+        }
+        if (bits < 1 || bits > MAX_BITS) {
+            throw new IllegalArgumentException("Bits must be between 1 and " + MAX_BITS + ", but was " + bits);
+        }
+        this.length = length;
+        setBits(bits);
+        data = new long[longsFor(length, valuesPerLong)];
+    }
+
+    private void setBits(int bits) {
+        this.bits = bits;
+        this.valuesPerLong = 64 / bits;
+        this.mask = (1L << bits) - 1;
+    }
+
+    private static int longsFor(int length, int valuesPerLong) {
+        return (length + valuesPerLong - 1) / valuesPerLong;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int getBits() {
+        return bits;
+    }
+
+    public int get(int index) {
+        checkIndex(index);
+        int offset = (index % valuesPerLong) * bits;
+        return (int) ((data[index / valuesPerLong] >>> offset) & mask);
+    }
+
+    public void set(int index, int value) {
+        checkIndex(index);
+        if (value < 0) {
+            throw new IllegalArgumentException("Cannot store negative values! (" + value + ")");
+        }
+        if (value > mask) {
+            resize(32 - Integer.numberOfLeadingZeros(value));
+        }
+        int offset = (index % valuesPerLong) * bits;
+        int longIndex = index / valuesPerLong;
+        data[longIndex] = (data[longIndex] & ~(mask << offset)) | ((long) value << offset);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= length) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+    }
+
+    /** Changes the number of bits used for every value, copying over all of the existing values. */
+    private void resize(int newBits) {
+        PackedIntArray resized = new PackedIntArray(length, newBits);
+        for (int i = 0; i < length; i++) {
+            resized.set(i, get(i));
+        }
+        setBits(newBits);
+        data = resized.data;
+    }
+
+    /** @return An estimate of the number of bytes that the backing storage of this array takes up. */
+    public long getStorageBytes() {
+        return data.length * 8L;
+    }
+
+    /** Writes this array out as [bits (1 byte)] followed by every backing long in big-endian order. */
+    public byte[] toByteArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + data.length * 8);
+        buffer.put((byte) bits);
+        for (long l : data) {
+            buffer.putLong(l);
+        }
+        return buffer.array();
+    }
+
+    /** Reads an array that was written out with {@link #toByteArray()}.
+     *
+     * @throws LoadingException if the given bytes don't describe an array of the given length. */
+    public static PackedIntArray fromByteArray(int length, byte[] bytes) throws LoadingException {
+        if (bytes.length < 1) {
+            throw new LoadingException("Missing the bits header!");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int bits = buffer.get();
+        if (bits < 1 || bits > MAX_BITS) {
+            throw new LoadingException("Invalid number of bits " + bits);
+        }
+        PackedIntArray array = new PackedIntArray(length, bits);
+        if (buffer.remaining() != array.data.length * 8) {
+            throw new LoadingException("Expected " + array.data.length * 8 + " bytes of data, but got "
+                + buffer.remaining());
+        }
+        for (int i = 0; i < array.data.length; i++) {
+            array.data[i] = buffer.getLong();
+        }
+        return array;
+    }
+}
@@ -1,8 +1,14 @@
 package buildcraft.lib.recipe;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.NonNullList;
 
@@ -17,11 +23,22 @@ public enum AssemblyRecipeRegistry implements IAssemblyRecipeRegistry {
 
     private final List<AssemblyRecipe> recipes = new ArrayList<>();
     private final List<IAssemblyRecipeProvider> providers = new ArrayList<>();
+    /** Every recipe, keyed by the items of each of its required stacks. */
+    private final Map<Item, Set<AssemblyRecipe>> recipesByIngredient = new HashMap<>();
+    /** Incremented whenever a recipe is added, so that users of {@link #getRecipesUsing(Item)} know when to look at
+     * every recipe again. */
+    private int version = 0;
 
     @Override
     public List<AssemblyRecipe> getRecipesFor(NonNullList<ItemStack> possibleIn) {
         List<AssemblyRecipe> all = new ArrayList<>();
-        for (AssemblyRecipe ar : recipes) {
+        Set<AssemblyRecipe> candidates = new LinkedHashSet<>();
+        for (ItemStack stack : possibleIn) {
+            if (!stack.isEmpty()) {
+                candidates.addAll(getRecipesUsing(stack.getItem()));
+            }
+        }
+        for (AssemblyRecipe ar : candidates) {
             if (StackUtil.containsAll(ar.requiredStacks, possibleIn)) {
                 all.add(ar);
             }
@@ -35,6 +52,19 @@ public enum AssemblyRecipeRegistry implements IAssemblyRecipeRegistry {
     @Override
     public void addRecipe(AssemblyRecipe recipe) {
         recipes.add(recipe);
+        for (ItemStack stack : recipe.requiredStacks) {
+            recipesByIngredient.computeIfAbsent(stack.getItem(), i -> new LinkedHashSet<>()).add(recipe);
+        }
+        version++;
+    }
+
+    /** @return Every recipe (excluding those from providers) that requires the given item. */
+    public Set<AssemblyRecipe> getRecipesUsing(Item item) {
+        return recipesByIngredient.getOrDefault(item, Collections.emptySet());
+    }
+
+    public int getVersion() {
+        return version;
     }
 
     @Override
@@ -287,10 +287,10 @@ public abstract class TileBC_Neptune extends TileEntity implements IPayloadRecei
     }
 
     public final void sendNetworkGuiUpdate(int id) {
-        if (hasWorld()) {
-            for (EntityPlayer player : usingPlayers) {
-                sendNetworkUpdate(id, player);
-            }
+        if (hasWorld() && !usingPlayers.isEmpty()) {
+            // The payload is the same for every player, so only write it once
+            MessageUpdateTile message = createNetworkUpdate(id);
+            MessageUtil.sendToPlayers(usingPlayers, message);
         }
     }
 
@@ -2,6 +2,7 @@ package buildcraft.robotics;
 
 import java.util.function.Consumer;
 
+import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
@@ -42,6 +43,8 @@ public class BCRobotics {
 
         BCMessageHandler.addMessageType(MessageZoneMapRequest.class, MessageZoneMapRequest.Handler.INSTANCE, Side.SERVER);
         BCMessageHandler.addMessageType(MessageZoneMapResponse.class, MessageZoneMapResponse.Handler.INSTANCE, Side.CLIENT);
+
+        MinecraftForge.EVENT_BUS.register(BCRoboticsEventDist.INSTANCE);
     }
 
     @Mod.EventHandler
@@ -6,15 +6,22 @@ import net.minecraft.network.PacketBuffer;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
 
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+
 public class ZonePlannerMapChunk {
     private final MapColourData[][] data = new MapColourData[16][16];
 
     public ZonePlannerMapChunk(World world, ZonePlannerMapChunkKey key) {
         Chunk chunk = world.getChunkFromChunkCoords(key.chunkPos.chunkXPos, key.chunkPos.chunkZPos);
+        // Nothing above the top filled section can have a colour, so there's no point in scanning through all of it
+        int maxY = Math.min(key.level * ZonePlannerMapChunkKey.LEVEL_HEIGHT, chunk.getTopFilledSegment() + 15);
         for (int x = 0; x < 16; x++) {
             for (int z = 0; z < 16; z++) {
                 // Scan down from the max height value of a chunk until we find a block
-                for (int y = key.level * ZonePlannerMapChunkKey.LEVEL_HEIGHT; y > 0; y--) {
+                for (int y = maxY; y > 0; y--) {
                     int colour = chunk.getBlockState(x, y, z).getMapColor().colorValue;
                     if (colour != 0) {
                         data[x][z] = new MapColourData(y, colour);
@@ -25,30 +32,67 @@ public class ZonePlannerMapChunk {
         }
     }
 
+    /** Reads a chunk that was written by {@link #write(PacketBuffer)}. */
     public ZonePlannerMapChunk(PacketBuffer buffer) {
-        for (int x = 0; x < 16; x++) {
-            for (int z = 0; z < 16; z++) {
-                int posY = buffer.readInt();
-                if (posY > 0) {
-                    int colour = buffer.readInt();
-                    data[x][z] = new MapColourData(posY, colour);
-                }
+        int[] palette = new int[buffer.readVarInt()];
+        for (int i = 0; i < palette.length; i++) {
+            palette[i] = buffer.readUnsignedMedium();
+        }
+        int index = 0;
+        while (index < 256) {
+            int runLength = buffer.readVarInt();
+            int value = buffer.readVarInt();
+            MapColourData colour = null;
+            if (value != 0) {
+                colour = new MapColourData(buffer.readUnsignedByte(), palette[value - 1]);
+            }
+            for (int end = Math.min(256, index + runLength); index < end; index++) {
+                data[index >> 4][index & 15] = colour;
             }
         }
     }
 
+    /** Writes out this chunk as a palette of colours, followed by runs of columns with the same colour and height.
+     * Most chunks only have a few different colours, and flat areas collapse into a handful of runs. */
     public void write(PacketBuffer buffer) {
+        TIntIntMap paletteIndices = new TIntIntHashMap(16, 0.5f, -1, -1);
+        TIntList palette = new TIntArrayList();
         for (int x = 0; x < 16; x++) {
             for (int z = 0; z < 16; z++) {
                 MapColourData colour = data[x][z];
-                if (colour == null) {
-                    buffer.writeInt(-1);
-                } else {
-                    buffer.writeInt(colour.posY);
-                    buffer.writeInt(colour.colour);
+                if (colour != null && !paletteIndices.containsKey(colour.colour)) {
+                    paletteIndices.put(colour.colour, palette.size());
+                    palette.add(colour.colour);
                 }
             }
         }
+        buffer.writeVarInt(palette.size());
+        for (int i = 0; i < palette.size(); i++) {
+            buffer.writeMedium(palette.get(i));
+        }
+        int index = 0;
+        while (index < 256) {
+            MapColourData colour = data[index >> 4][index & 15];
+            int runLength = 1;
+            while (index + runLength < 256 && isSame(colour, data[(index + runLength) >> 4][(index + runLength) & 15])) {
+                runLength++;
+            }
+            buffer.writeVarInt(runLength);
+            if (colour == null) {
+                buffer.writeVarInt(0);
+            } else {
+                buffer.writeVarInt(paletteIndices.get(colour.colour) + 1);
+                buffer.writeByte(colour.posY);
+            }
+            index += runLength;
+        }
+    }
+
+    private static boolean isSame(@Nullable MapColourData a, @Nullable MapColourData b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.posY == b.posY && a.colour == b.colour;
     }
 
     public int getColour(int x, int z) {
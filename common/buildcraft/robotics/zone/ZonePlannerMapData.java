@@ -10,11 +10,21 @@ import net.minecraft.world.World;
 
 public abstract class ZonePlannerMapData {
     public static final int TIMEOUT = 10 * 60 * 1000;
+    /** The maximum number of chunks to keep around. The least recently used chunks are dropped first. */
+    public static final int MAX_CACHED_CHUNKS = 4096;
 
     private final Cache<ZonePlannerMapChunkKey, ZonePlannerMapChunk> data;
 
-    public ZonePlannerMapData() {
-        data = CacheBuilder.newBuilder().expireAfterWrite(2, TimeUnit.MINUTES).build();
+    /** @param expireAfterAccess If true then chunks are kept for as long as they are being used (and should be
+     *            invalidated when they change), otherwise they are always reloaded after a while. */
+    public ZonePlannerMapData(boolean expireAfterAccess) {
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_CHUNKS);
+        if (expireAfterAccess) {
+            builder.expireAfterAccess(2, TimeUnit.MINUTES);
+        } else {
+            builder.expireAfterWrite(2, TimeUnit.MINUTES);
+        }
+        data = builder.build();
     }
 
     /** Use {@link #getChunk(World, ZonePlannerMapChunkKey, Consumer)} for a cached version */
@@ -35,4 +45,12 @@ public abstract class ZonePlannerMapData {
     public final ZonePlannerMapChunk getLoadedChunk(ZonePlannerMapChunkKey key) {
         return data.getIfPresent(key);
     }
+
+    public final void invalidate(ZonePlannerMapChunkKey key) {
+        data.invalidate(key);
+    }
+
+    public final long getCachedCount() {
+        return data.size();
+    }
 }
@@ -13,6 +13,10 @@ import buildcraft.lib.BCMessageHandler;
 public class ZonePlannerMapDataClient extends ZonePlannerMapData {
     public static final ZonePlannerMapDataClient INSTANCE = new ZonePlannerMapDataClient();
 
+    public ZonePlannerMapDataClient() {
+        super(false);
+    }
+
     public final Map<ZonePlannerMapChunkKey, Deque<Consumer<ZonePlannerMapChunk>>> pendingRequests = new ConcurrentHashMap<>();
 
     @Override
@@ -1,14 +1,63 @@
 package buildcraft.robotics.zone;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.function.Consumer;
 
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
 
 public class ZonePlannerMapDataServer extends ZonePlannerMapData {
     public static final ZonePlannerMapDataServer INSTANCE = new ZonePlannerMapDataServer();
 
+    /** The maximum number of chunks that will be scanned in a single world in a single tick. */
+    public static final int MAX_CHUNKS_PER_TICK = 8;
+
+    /** Requested chunks that haven't been scanned yet, in the order they were requested. Requests for the same chunk
+     * are merged together. */
+    private final Map<World, Map<ZonePlannerMapChunkKey, List<Consumer<ZonePlannerMapChunk>>>> pending = new WeakHashMap<>();
+
+    public ZonePlannerMapDataServer() {
+        super(true);
+    }
+
     @Override
     public void loadChunk(World world, ZonePlannerMapChunkKey key, Consumer<ZonePlannerMapChunk> callback) {
-        callback.accept(new ZonePlannerMapChunk(world, key));
+        pending.computeIfAbsent(world, w -> new LinkedHashMap<>())
+                .computeIfAbsent(key, k -> new ArrayList<>())
+                .add(callback);
+    }
+
+    /** Scans up to {@link #MAX_CHUNKS_PER_TICK} of the chunks that have been requested for the given world. */
+    public void tick(World world) {
+        Map<ZonePlannerMapChunkKey, List<Consumer<ZonePlannerMapChunk>>> requests = pending.get(world);
+        if (requests == null || requests.isEmpty()) {
+            return;
+        }
+        Iterator<Map.Entry<ZonePlannerMapChunkKey, List<Consumer<ZonePlannerMapChunk>>>> iter = requests.entrySet().iterator();
+        for (int i = 0; i < MAX_CHUNKS_PER_TICK && iter.hasNext(); i++) {
+            Map.Entry<ZonePlannerMapChunkKey, List<Consumer<ZonePlannerMapChunk>>> entry = iter.next();
+            iter.remove();
+            ZonePlannerMapChunk chunk = new ZonePlannerMapChunk(world, entry.getKey());
+            for (Consumer<ZonePlannerMapChunk> callback : entry.getValue()) {
+                callback.accept(chunk);
+            }
+        }
+    }
+
+    /** Removes every cached chunk that could show the block at the given position. */
+    public void onBlockChange(World world, BlockPos pos) {
+        ChunkPos chunkPos = new ChunkPos(pos);
+        int dimension = world.provider.getDimension();
+        int maxLevel = 256 / ZonePlannerMapChunkKey.LEVEL_HEIGHT;
+        // Chunks of a level are scanned downwards from level * LEVEL_HEIGHT, so lower levels can't see this block
+        for (int level = pos.getY() / ZonePlannerMapChunkKey.LEVEL_HEIGHT; level <= maxLevel; level++) {
+            invalidate(new ZonePlannerMapChunkKey(chunkPos, dimension, level));
+        }
     }
 }
@@ -2,6 +2,7 @@ package buildcraft.silicon;
 
 import java.util.function.Consumer;
 
+import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
@@ -37,6 +38,8 @@ public class BCSilicon {
         NetworkRegistry.INSTANCE.registerGuiHandler(INSTANCE, BCSiliconProxy.getProxy());
 
         BCSiliconProxy.getProxy().fmlPreInit();
+
+        MinecraftForge.EVENT_BUS.register(BCSiliconEventDist.INSTANCE);
     }
 
     @Mod.EventHandler
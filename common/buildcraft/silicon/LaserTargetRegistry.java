@@ -0,0 +1,151 @@
+/* Copyright (c) 2016 SpaceToad and the BuildCraft team
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/. */
+package buildcraft.silicon;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+
+import buildcraft.api.mj.ILaserTarget;
+
+import gnu.trove.map.TLongLongMap;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongLongHashMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+
+/** Keeps track of every loaded {@link ILaserTarget} tile, per world and per chunk, so that lasers don't need to search
+ * every block around them to find something to power. Any tile entity that implements {@link ILaserTarget} is found:
+ * loaded chunks are scanned by {@link BCSiliconEventDist}, and {@link LaserTargetWorldListener} checks every block
+ * that changes afterwards.
+ * <p>
+ * Every chunk also has a version stamp, taken from a per-world counter whenever a target in that chunk is added or
+ * removed. Lasers only search again when the newest stamp of the chunks around them changes. */
+public class LaserTargetRegistry {
+    private static final Map<World, WorldTargets> WORLDS = new WeakHashMap<>();
+
+    public static void onChunkLoad(World world, Chunk chunk) {
+        if (world.isRemote) {
+            return;
+        }
+        for (TileEntity tile : chunk.getTileEntityMap().values()) {
+            if (tile instanceof ILaserTarget && !tile.isInvalid()) {
+                add(world, tile);
+            }
+        }
+    }
+
+    public static void onChunkUnload(World world, Chunk chunk) {
+        WorldTargets targets = WORLDS.get(world);
+        if (targets == null) {
+            return;
+        }
+        long key = ChunkPos.asLong(chunk.xPosition, chunk.zPosition);
+        if (targets.chunks.remove(key) != null) {
+            targets.stamp(key);
+        }
+    }
+
+    /** Re-checks the given position, after the block there has changed. */
+    public static void onBlockChange(World world, BlockPos pos) {
+        if (world.isRemote) {
+            return;
+        }
+        long key = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+        WorldTargets targets = WORLDS.get(world);
+        Set<TileEntity> set = targets == null ? null : targets.chunks.get(key);
+        if (set != null) {
+            for (Iterator<TileEntity> iterator = set.iterator(); iterator.hasNext();) {
+                TileEntity tile = iterator.next();
+                if (tile.getPos().equals(pos)) {
+                    iterator.remove();
+                    targets.stamp(key);
+                }
+            }
+        }
+        TileEntity tile = world.getTileEntity(pos);
+        if (tile instanceof ILaserTarget && !tile.isInvalid()) {
+            add(world, tile);
+        }
+    }
+
+    private static void add(World world, TileEntity tile) {
+        WorldTargets targets = WORLDS.computeIfAbsent(world, w -> new WorldTargets());
+        long key = ChunkPos.asLong(tile.getPos().getX() >> 4, tile.getPos().getZ() >> 4);
+        Set<TileEntity> set = targets.chunks.get(key);
+        if (set == null) {
+            set = new HashSet<>();
+            targets.chunks.put(key, set);
+        }
+        if (set.add(tile)) {
+            targets.stamp(key);
+        }
+    }
+
+    /** @return A number that changes whenever the result of {@link #getTargets(World, BlockPos, BlockPos)} might have
+     *         changed for the given (inclusive) box. Only the chunks that the box covers are looked at. */
+    public static long getVersion(World world, BlockPos min, BlockPos max) {
+        WorldTargets targets = WORLDS.get(world);
+        if (targets == null) {
+            return 0;
+        }
+        // Stamps are never reused, so the newest one changes whenever any chunk in the box changes
+        long version = 0;
+        for (int cx = min.getX() >> 4; cx <= max.getX() >> 4; cx++) {
+            for (int cz = min.getZ() >> 4; cz <= max.getZ() >> 4; cz++) {
+                version = Math.max(version, targets.stamps.get(ChunkPos.asLong(cx, cz)));
+            }
+        }
+        return version;
+    }
+
+    /** @return Every registered target within the given (inclusive) box. */
+    public static List<ILaserTarget> getTargets(World world, BlockPos min, BlockPos max) {
+        List<ILaserTarget> found = new ArrayList<>();
+        WorldTargets targets = WORLDS.get(world);
+        if (targets == null || targets.chunks.isEmpty()) {
+            return found;
+        }
+        for (int cx = min.getX() >> 4; cx <= max.getX() >> 4; cx++) {
+            for (int cz = min.getZ() >> 4; cz <= max.getZ() >> 4; cz++) {
+                Set<TileEntity> set = targets.chunks.get(ChunkPos.asLong(cx, cz));
+                if (set == null) {
+                    continue;
+                }
+                for (TileEntity tile : set) {
+                    BlockPos pos = tile.getPos();
+                    if (!tile.isInvalid()
+                        && pos.getX() >= min.getX() && pos.getX() <= max.getX()
+                        && pos.getY() >= min.getY() && pos.getY() <= max.getY()
+                        && pos.getZ() >= min.getZ() && pos.getZ() <= max.getZ()) {
+                        found.add((ILaserTarget) tile);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private static class WorldTargets {
+        final TLongObjectMap<Set<TileEntity>> chunks = new TLongObjectHashMap<>();
+        /** The last stamp of every chunk that has ever had a target. Kept after the targets are gone, so that a chunk
+         * never goes back to an older stamp. */
+        final TLongLongMap stamps = new TLongLongHashMap();
+        long lastStamp = 0;
+
+        void stamp(long chunk) {
+            stamps.put(chunk, ++lastStamp);
+        }
+    }
+}
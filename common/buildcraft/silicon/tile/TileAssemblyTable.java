@@ -7,6 +7,7 @@ import javax.annotation.Nonnull;
 
 import com.google.common.collect.ImmutableSet;
 
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
@@ -37,6 +38,10 @@ public class TileAssemblyTable extends TileLaserTableBase {
     public SortedMap<AssemblyRecipe, EnumAssemblyRecipeState> recipesStates = new TreeMap<>(Comparator.comparing(assemblyRecipe -> assemblyRecipe.output.getItem().hashCode() + (assemblyRecipe.output
         .getTagCompound() == null ? 0 : assemblyRecipe.output.getTagCompound().hashCode()) + assemblyRecipe.output.getMetadata() * assemblyRecipe.output.getMaxStackSize() + assemblyRecipe.output
             .getCount()));
+    private final NonNullList<ItemStack> lastInventory = NonNullList.withSize(inv.getSlots(), ItemStack.EMPTY);
+    /** If true then every recipe will be checked on the next update, rather than just those with changed ingredients. */
+    private boolean recipesDirty = true;
+    private int lastRegistryVersion = -1;
 
     private boolean extract(ImmutableSet<ItemStack> items, boolean simulate) {
         NonNullList<ItemStack> itemsNeeded = items.stream().map(ItemStack::copy).collect(StackUtil.nonNullListCollector());
@@ -66,12 +71,58 @@ public class TileAssemblyTable extends TileLaserTableBase {
         return itemsNeeded.size() == 0;
     }
 
+    /** Compares the inventory against the copy taken last time this was called.
+     *
+     * @return The items (both old and new) of every slot that has changed since last time. */
+    private Set<Item> findChangedItems() {
+        Set<Item> changed = new HashSet<>();
+        for (int i = 0; i < inv.getSlots(); i++) {
+            ItemStack stack = inv.getStackInSlot(i);
+            ItemStack last = lastInventory.get(i);
+            if (!ItemStack.areItemStacksEqual(stack, last)) {
+                if (!last.isEmpty()) {
+                    changed.add(last.getItem());
+                }
+                if (!stack.isEmpty()) {
+                    changed.add(stack.getItem());
+                }
+                lastInventory.set(i, stack.copy());
+            }
+        }
+        return changed;
+    }
+
+    private static boolean usesAny(AssemblyRecipe recipe, Set<Item> items) {
+        for (ItemStack stack : recipe.requiredStacks) {
+            if (items.contains(stack.getItem())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void updateRecipes() {
+        Set<Item> changedItems = findChangedItems();
+        int registryVersion = AssemblyRecipeRegistry.INSTANCE.getVersion();
+        boolean checkAll = recipesDirty || registryVersion != lastRegistryVersion;
+        if (!checkAll && changedItems.isEmpty()) {
+            return;
+        }
+        recipesDirty = false;
+        lastRegistryVersion = registryVersion;
+
         boolean findActive = false;
         for (Iterator<Map.Entry<AssemblyRecipe, EnumAssemblyRecipeState>> iterator = recipesStates.entrySet().iterator(); iterator.hasNext();) {
             Map.Entry<AssemblyRecipe, EnumAssemblyRecipeState> entry = iterator.next();
             AssemblyRecipe recipe = entry.getKey();
             EnumAssemblyRecipeState state = entry.getValue();
+            if (!checkAll && !usesAny(recipe, changedItems)) {
+                // None of this recipe's ingredients changed, so its state can't have either
+                if (state == EnumAssemblyRecipeState.SAVED_ENOUGH_ACTIVE) {
+                    findActive = true;
+                }
+                continue;
+            }
             boolean enough = extract(recipe.requiredStacks, true);
             if (state == EnumAssemblyRecipeState.POSSIBLE) {
                 if (!enough) {
@@ -103,7 +154,17 @@ public class TileAssemblyTable extends TileLaserTableBase {
                 }
             }
         }
-        for (AssemblyRecipe recipe : AssemblyRecipeRegistry.INSTANCE.getAllRecipes()) {
+        Iterable<AssemblyRecipe> candidates;
+        if (checkAll) {
+            candidates = AssemblyRecipeRegistry.INSTANCE.getAllRecipes();
+        } else {
+            Set<AssemblyRecipe> changedRecipes = new LinkedHashSet<>();
+            for (Item item : changedItems) {
+                changedRecipes.addAll(AssemblyRecipeRegistry.INSTANCE.getRecipesUsing(item));
+            }
+            candidates = changedRecipes;
+        }
+        for (AssemblyRecipe recipe : candidates) {
             if (!recipesStates.containsKey(recipe)) {
                 if (extract(recipe.requiredStacks, true)) {
                     recipesStates.put(recipe, EnumAssemblyRecipeState.POSSIBLE);
@@ -113,7 +174,12 @@ public class TileAssemblyTable extends TileLaserTableBase {
     }
 
     private AssemblyRecipe getActiveRecipe() {
-        return recipesStates.entrySet().stream().filter(entry -> entry.getValue() == EnumAssemblyRecipeState.SAVED_ENOUGH_ACTIVE).map(Map.Entry::getKey).findFirst().orElse(null);
+        for (Map.Entry<AssemblyRecipe, EnumAssemblyRecipeState> entry : recipesStates.entrySet()) {
+            if (entry.getValue() == EnumAssemblyRecipeState.SAVED_ENOUGH_ACTIVE) {
+                return entry.getKey();
+            }
+        }
+        return null;
     }
 
     private void activateNextRecipe() {
@@ -202,6 +268,7 @@ public class TileAssemblyTable extends TileLaserTableBase {
             NBTTagCompound entryTag = recipesStatesTag.getCompoundTagAt(i);
             recipesStates.put(new AssemblyRecipe(entryTag.getCompoundTag("recipe")), EnumAssemblyRecipeState.values()[entryTag.getInteger("state")]);
         }
+        recipesDirty = true;
     }
 
     @Override
@@ -234,6 +301,7 @@ public class TileAssemblyTable extends TileLaserTableBase {
             EnumAssemblyRecipeState state = EnumAssemblyRecipeState.values()[buffer.readInt()];
             if (recipesStates.containsKey(recipe)) {
                 recipesStates.put(recipe, state);
+                recipesDirty = true;
             }
         }
     }
@@ -1,7 +1,7 @@
 package buildcraft.silicon.tile;
 
 import java.io.IOException;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.LongStream;
 
@@ -29,9 +29,13 @@ import buildcraft.lib.mj.MjBatteryReciver;
 import buildcraft.lib.net.PacketBufferBC;
 import buildcraft.lib.tile.TileBC_Neptune;
 
+import buildcraft.silicon.LaserTargetRegistry;
+
 public class TileLaser extends TileBC_Neptune implements ITickable, IDebuggable {
     private int ticks = 0;
     private BlockPos targetPos;
+    private final List<ILaserTarget> targetCandidates = new ArrayList<>();
+    private long targetsVersion = -1;
     private long[] averageValues = new long[100];
     private final MjBattery battery;
     private final MjCapabilityHelper mjCapHelper;
@@ -44,7 +48,9 @@ public class TileLaser extends TileBC_Neptune implements ITickable, IDebuggable
         mjCapHelper = new MjCapabilityHelper(new MjBatteryReciver(battery));
     }
 
-    private void findTarget() {
+    /** Refreshes {@link #targetCandidates} from the {@link LaserTargetRegistry}, but only if a target has been added or
+     * removed in one of the chunks around this laser since the last time. */
+    private void updateTargetCandidates() {
         BlockPos min = getPos().add(new BlockPos(-5, -5, -5));
         BlockPos max = getPos().add(new BlockPos(5, 5, 5));
 
@@ -55,17 +61,24 @@ public class TileLaser extends TileBC_Neptune implements ITickable, IDebuggable
             min = min.offset(face, -5);
         }
 
-        List<BlockPos> targetPoses = new LinkedList<>();
-        for (BlockPos pos : BlockPos.getAllInBox(min, max)) {
-            if (world.getBlockState(pos).getBlock() instanceof ILaserTargetBlock) {
-                TileEntity tile = world.getTileEntity(pos);
-                if (tile instanceof ILaserTarget) {
-                    ILaserTarget target = (ILaserTarget) tile;
+        long version = LaserTargetRegistry.getVersion(world, min, max);
+        if (version == targetsVersion) {
+            return;
+        }
+        targetsVersion = version;
+
+        targetCandidates.clear();
+        targetCandidates.addAll(LaserTargetRegistry.getTargets(world, min, max));
+    }
+
+    private void findTarget() {
+        updateTargetCandidates();
 
-                    if (target.requiresLaserPower()) {
-                        targetPoses.add(pos);
-                    }
-                }
+        // Whether a target requires power isn't tracked by the registry, so it's checked here
+        List<BlockPos> targetPoses = new ArrayList<>();
+        for (ILaserTarget target : targetCandidates) {
+            if (target.requiresLaserPower() && !target.isInvalidTarget()) {
+                targetPoses.add(((TileEntity) target).getPos());
             }
         }
 
@@ -211,6 +224,7 @@ public class TileLaser extends TileBC_Neptune implements ITickable, IDebuggable
         left.add("");
         left.add("battery = " + battery.getDebugString());
         left.add("target = " + targetPos);
+        left.add("candidates = " + targetCandidates.size());
         left.add("laser = " + laserPos);
         left.add("average = " + LocaleUtil.localizeMjFlow(getAverage()));
     }
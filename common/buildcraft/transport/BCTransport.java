@@ -26,8 +26,8 @@ import buildcraft.lib.registry.RegistryHelper;
 import buildcraft.lib.registry.TagManager;
 import buildcraft.lib.registry.TagManager.EnumTagType;
 import buildcraft.lib.registry.TagManager.TagEntry;
+import buildcraft.transport.pipe.flow.MessageMultiPipeItem;
 import buildcraft.transport.wire.MessageWireSystems;
-import buildcraft.transport.wire.MessageWireSystemsPowered;
 
 //@formatter:off
 @Mod(modid = BCTransport.MODID,
@@ -68,7 +68,7 @@ public class BCTransport {
 
         MinecraftForge.EVENT_BUS.register(BCTransportEventDist.INSTANCE);
         BCMessageHandler.addMessageType(MessageWireSystems.class, MessageWireSystems.Handler.INSTANCE, Side.CLIENT);
-        BCMessageHandler.addMessageType(MessageWireSystemsPowered.class, MessageWireSystemsPowered.Handler.INSTANCE, Side.CLIENT);
+        BCMessageHandler.addMessageType(MessageMultiPipeItem.class, MessageMultiPipeItem.Handler.INSTANCE, Side.CLIENT);
     }
 
     @Mod.EventHandler
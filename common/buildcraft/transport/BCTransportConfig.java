@@ -63,11 +63,19 @@ public class BCTransportConfig {
     public static long mjPerItem = MjAPI.MJ;
     public static int baseFlowRate = 10;
     public static PowerLossMode lossMode = PowerLossMode.DEFAULT;
+    public static boolean batchItemNetworkUpdates = true;
+    public static boolean usePowerNetworks = false;
+    public static boolean scheduleGates = true;
+    public static int gateEvaluationInterval = 1;
 
     private static Property propMjPerMillibucket;
     private static Property propMjPerItem;
     private static Property propBaseFlowRate;
     private static Property propLossMode;
+    private static Property propBatchItemNetworkUpdates;
+    private static Property propUsePowerNetworks;
+    private static Property propScheduleGates;
+    private static Property propGateEvaluationInterval;
 
     public static void preInit() {
         Configuration config = BCCoreConfig.config;
@@ -84,10 +92,31 @@ public class BCTransportConfig {
         propLossMode.setValidValues(new String[] { PowerLossMode.LOSSLESS.configName, PowerLossMode.ABSOLUTE.configName, PowerLossMode.PERCENTAGE.configName });
         EnumRestartRequirement.WORLD.setTo(propLossMode);
 
+        propBatchItemNetworkUpdates = config.get("general", "pipes.batchItemNetworkUpdates", batchItemNetworkUpdates);
+        propBatchItemNetworkUpdates.setComment("Should items entering pipes be sent to clients in a single message per chunk per tick, rather than one message per item?");
+        EnumRestartRequirement.NONE.setTo(propBatchItemNetworkUpdates);
+
+        propUsePowerNetworks = config.get("experimental", "kinesisPowerNetworks", usePowerNetworks);
+        propUsePowerNetworks.setComment("Should connected kinesis pipes share power as a single network, rather than passing it along one pipe per tick?");
+        EnumRestartRequirement.NONE.setTo(propUsePowerNetworks);
+
+        propScheduleGates = config.get("general", "gates.scheduleEvaluation", scheduleGates);
+        propScheduleGates.setComment("Should gates only test their triggers when something they depend on changes (or every few ticks for triggers that need polling), rather than every tick?");
+        EnumRestartRequirement.NONE.setTo(propScheduleGates);
+
+        propGateEvaluationInterval = config.get("general", "gates.evaluationInterval", gateEvaluationInterval).setMinValue(1);
+        propGateEvaluationInterval.setComment("The minimum number of ticks between two tests of the triggers in a single gate, however often the things they depend on change. Only used if gates.scheduleEvaluation is enabled.");
+        EnumRestartRequirement.NONE.setTo(propGateEvaluationInterval);
+
         MinecraftForge.EVENT_BUS.register(BCTransportConfig.class);
     }
 
     public static void reloadConfig(EnumRestartRequirement restarted) {
+        batchItemNetworkUpdates = propBatchItemNetworkUpdates.getBoolean();
+        usePowerNetworks = propUsePowerNetworks.getBoolean();
+        scheduleGates = propScheduleGates.getBoolean();
+        gateEvaluationInterval = Math.max(1, propGateEvaluationInterval.getInt());
+
         if (EnumRestartRequirement.WORLD.hasBeenRestarted(restarted)) {
             mjPerMillibucket = propMjPerMillibucket.getLong();
             if (mjPerMillibucket < MJ_REQ_MILLIBUCKET_MIN) {
@@ -8,6 +8,7 @@ import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 import buildcraft.transport.client.render.PipeWireRenderer;
+import buildcraft.transport.pipe.flow.PipeItemMessageQueue;
 import buildcraft.transport.wire.WorldSavedDataWireSystems;
 
 public enum BCTransportEventDist {
@@ -17,12 +18,20 @@ public enum BCTransportEventDist {
     public void onWorldTick(TickEvent.WorldTickEvent event) {
         if (!event.world.isRemote && event.world.getMinecraftServer() != null) {
             WorldSavedDataWireSystems.get(event.world).tick();
+            if (event.phase == TickEvent.Phase.END) {
+                PipeItemMessageQueue.serverTick(event.world);
+            }
         }
     }
 
     @SubscribeEvent
-    public void onChunkWatch(ChunkWatchEvent event) {
-        WorldSavedDataWireSystems.get(event.getPlayer().world).changedPlayers.add(event.getPlayer());
+    public void onChunkWatch(ChunkWatchEvent.Watch event) {
+        WorldSavedDataWireSystems.get(event.getPlayer().world).onChunkWatch(event.getPlayer(), event.getChunk(), true);
+    }
+
+    @SubscribeEvent
+    public void onChunkUnWatch(ChunkWatchEvent.UnWatch event) {
+        WorldSavedDataWireSystems.get(event.getPlayer().world).onChunkWatch(event.getPlayer(), event.getChunk(), false);
     }
 
     @SubscribeEvent
@@ -49,6 +49,7 @@ import buildcraft.api.transport.pipe.PipeApi;
 import buildcraft.api.transport.pipe.PipeDefinition;
 import buildcraft.api.transport.pluggable.PipePluggable;
 
+import buildcraft.core.statements.IScheduledTrigger;
 import buildcraft.lib.block.BlockBCTile_Neptune;
 import buildcraft.lib.misc.BoundingBoxUtil;
 import buildcraft.lib.misc.InventoryUtil;
@@ -333,12 +334,25 @@ public class BlockPipeHolder extends BlockBCTile_Neptune implements ICustomPaint
         TilePipeHolder pipe = getPipe(world, pos, true);
         if (pipe != null) {
             pipe.refreshNeighbours();
+            pipe.signalGates(IScheduledTrigger.DEPENDS_REDSTONE | IScheduledTrigger.DEPENDS_NEIGHBOUR);
             if (pipe.getPipe() != null) {
                 pipe.getPipe().markForUpdate();
             }
         }
     }
 
+    @Override
+    public void onNeighborChange(IBlockAccess world, BlockPos pos, BlockPos neighbor) {
+        // Called when a neighbouring tile entity changes without its block changing
+        TilePipeHolder pipe = getPipe(world, pos, true);
+        if (pipe != null) {
+            EnumFacing side = EnumFacing.getFacingFromVector(neighbor.getX() - pos.getX(), neighbor.getY() - pos.getY(),
+                neighbor.getZ() - pos.getZ());
+            pipe.invalidateNeighbour(side);
+            pipe.signalGates(IScheduledTrigger.DEPENDS_NEIGHBOUR);
+        }
+    }
+
     @Override
     public ItemStack getPickBlock(IBlockState state, RayTraceResult target, World world, BlockPos pos, EntityPlayer player) {
         TilePipeHolder tile = getPipe(world, pos, false);
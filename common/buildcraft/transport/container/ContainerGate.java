@@ -97,6 +97,7 @@ public class ContainerGate extends ContainerBC_Neptune {
                 boolean to = buffer.readBoolean();
                 if (index < gate.connections.length) {
                     gate.connections[index] = to;
+                    gate.markForEvaluation();
                     gate.sendResolveData();
                 }
             } else if (id == ID_TRIGGER || id == ID_ACTION) {
@@ -7,6 +7,7 @@ import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.network.PacketBuffer;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
+import net.minecraft.world.World;
 
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 import net.minecraftforge.fml.relauncher.Side;
@@ -20,8 +21,10 @@ import buildcraft.api.transport.IWireManager;
 import buildcraft.api.transport.pipe.IPipeHolder;
 import buildcraft.api.transport.pipe.PipeEventActionActivate;
 
+import buildcraft.core.statements.IScheduledTrigger;
 import buildcraft.lib.misc.MessageUtil;
 import buildcraft.lib.net.IPayloadWriter;
+import buildcraft.transport.BCTransportConfig;
 import buildcraft.transport.gate.ActionWrapper.ActionWrapperExternal;
 import buildcraft.transport.gate.ActionWrapper.ActionWrapperInternal;
 import buildcraft.transport.gate.ActionWrapper.ActionWrapperInternalSided;
@@ -30,6 +33,7 @@ import buildcraft.transport.gate.TriggerWrapper.TriggerWrapperInternal;
 import buildcraft.transport.gate.TriggerWrapper.TriggerWrapperInternalSided;
 import buildcraft.transport.plug.PluggableGate;
 import buildcraft.transport.wire.IWireEmitter;
+import buildcraft.transport.wire.WireSystem;
 import buildcraft.transport.wire.WorldSavedDataWireSystems;
 
 public class GateLogic implements IGate, IWireEmitter, IRedstoneStatementContainer {
@@ -45,6 +49,12 @@ public class GateLogic implements IGate, IWireEmitter, IRedstoneStatementContain
     public final IStatementParameter[][] actionParameters;
 
     public final List<StatementSlot> activeActions = new ArrayList<>();
+    /** The slot for each action in {@link #activeActions}, reused while the action stays the same. */
+    private final StatementSlot[] actionSlots;
+    /** The value of {@link #actionOn} when the actions were last activated. */
+    private final boolean[] actionsActivated;
+    /** True if {@link #activeActions} needs to be built again, even if {@link #actionOn} hasn't changed. */
+    private boolean activeActionsChanged = true;
 
     /** Used to determine if gate logic should go across several trigger/action pairs. */
     public final boolean[] connections;
@@ -54,10 +64,32 @@ public class GateLogic implements IGate, IWireEmitter, IRedstoneStatementContain
     public int redstoneOutput, redstoneOutputSide;
 
     private final EnumSet<EnumDyeColor> wireBroadcasts;
+    /** Scratch set for {@link #activateActions()}. */
+    private final EnumSet<EnumDyeColor> previousBroadcasts;
 
     /** Used on the client to determine if this gate should glow or not. */
     public boolean isOn;
 
+    /** True if the triggers should be tested on the next tick. Any number of signals between two ticks only cause
+     * a single test. */
+    private boolean evaluationNeeded = true;
+    /** True if the triggers have changed since {@link #dependencies} and {@link #pollInterval} were worked out. */
+    private boolean scheduleChanged = true;
+    /** The combined {@link IScheduledTrigger#getDependencies()} of every trigger. */
+    private int dependencies;
+    /** The shortest {@link IScheduledTrigger#getPollInterval()} of every trigger, or 0 if none of them poll. */
+    private int pollInterval;
+    private long nextPoll;
+    /** The first tick that this gate can test its triggers again, from {@link BCTransportConfig#gateEvaluationInterval}. */
+    private long nextEvaluationAllowed;
+    private long lastWireVersion = -1;
+
+    /** The number of gates that tested their triggers, and the number that skipped testing them, during the last full
+     * tick. For debugging. */
+    public static int statEvaluated, statSkipped;
+    private static int statEvaluatedThisTick, statSkippedThisTick;
+    private static long statTick = Long.MIN_VALUE;
+
     public GateLogic(PluggableGate pluggable, GateVariant variant) {
         this.pluggable = pluggable;
         this.variant = variant;
@@ -70,8 +102,11 @@ public class GateLogic implements IGate, IWireEmitter, IRedstoneStatementContain
         connections = new boolean[variant.numSlots - 1];
         triggerOn = new boolean[variant.numSlots];
         actionOn = new boolean[variant.numSlots];
+        actionSlots = new StatementSlot[variant.numSlots];
+        actionsActivated = new boolean[variant.numSlots];
 
         wireBroadcasts = EnumSet.noneOf(EnumDyeColor.class);
+        previousBroadcasts = EnumSet.noneOf(EnumDyeColor.class);
     }
 
     // Saving + Loading
@@ -302,6 +337,7 @@ public class GateLogic implements IGate, IWireEmitter, IRedstoneStatementContain
 
     public void setTrigger(int index, TriggerWrapper trigger) {
         setStatementInternal(index, triggers, triggerParameters, trigger);
+        markForEvaluation();
     }
 
     public StatementWrapper getTrigger(int index) {
@@ -310,6 +346,7 @@ public class GateLogic implements IGate, IWireEmitter, IRedstoneStatementContain
 
     public void setTriggerParam(int index, int pIndex, IStatementParameter param) {
         triggerParameters[index][pIndex] = param;
+        markForEvaluation();
     }
 
     public IStatementParameter getTriggerParam(int index, int pIndex) {
@@ -318,6 +355,9 @@ public class GateLogic implements IGate, IWireEmitter, IRedstoneStatementContain
 
     public void setAction(int index, ActionWrapper action) {
         setStatementInternal(index, actions, actionParameters, action);
+        // The new action needs to be activated even if it's a single action
+        actionsActivated[index] = false;
+        activeActionsChanged = true;
     }
 
     public StatementWrapper getAction(int index) {
@@ -374,20 +414,26 @@ public class GateLogic implements IGate, IWireEmitter, IRedstoneStatementContain
         return variant.numSlots > 4;
     }
 
+    /** Tests every trigger, and activates (or deactivates) every action. */
     public void resolveActions() {
-        int groupCount = 0;
-        int groupActive = 0;
-
         boolean[] prevTriggers = Arrays.copyOf(triggerOn, triggerOn.length);
         boolean[] prevActions = Arrays.copyOf(actionOn, actionOn.length);
 
-        Arrays.fill(triggerOn, false);
-        Arrays.fill(actionOn, false);
+        evaluateTriggers();
+        activateActions();
 
-        activeActions.clear();
+        if (!Arrays.equals(prevTriggers, triggerOn) || !Arrays.equals(prevActions, actionOn)) {
+            sendResolveData();
+        }
+    }
 
-        EnumSet<EnumDyeColor> previousBroadcasts = EnumSet.copyOf(wireBroadcasts);
-        wireBroadcasts.clear();
+    /** Tests every trigger, and sets {@link #triggerOn} and {@link #actionOn} from the results. */
+    private void evaluateTriggers() {
+        int groupCount = 0;
+        int groupActive = 0;
+
+        Arrays.fill(triggerOn, false);
+        Arrays.fill(actionOn, false);
 
         for (int triggerIndex = 0; triggerIndex < triggers.length; triggerIndex++) {
             TriggerWrapper trigger = triggers[triggerIndex];
@@ -401,27 +447,48 @@ public class GateLogic implements IGate, IWireEmitter, IRedstoneStatementContain
             if (connections.length == triggerIndex || !connections[triggerIndex]) {
                 boolean allActionsActive = variant.logic == EnumGateLogic.AND ? groupActive == groupCount : groupActive > 0;
                 for (int i = groupCount - 1; i >= 0; i--) {
-                    int actionIndex = triggerIndex - i;
-                    ActionWrapper action = actions[actionIndex];
-                    actionOn[actionIndex] = allActionsActive;
-                    if (action != null) {
-                        if (allActionsActive) {
-                            StatementSlot slot = new StatementSlot();
-                            slot.statement = action.delegate;
-                            slot.parameters = actionParameters[actionIndex];
-                            slot.part = action.sourcePart;
-                            activeActions.add(slot);
-                            action.actionActivate(this, actionParameters[actionIndex]);
-                            getPipeHolder().fireEvent(new PipeEventActionActivate(getPipeHolder(), action.getDelegate(), actionParameters[actionIndex], action.sourcePart));
-                        } else {
-                            action.actionDeactivated(this, actionParameters[actionIndex]);
-                        }
-                    }
+                    actionOn[triggerIndex - i] = allActionsActive;
                 }
                 groupActive = 0;
                 groupCount = 0;
             }
         }
+    }
+
+    /** Activates every action in {@link #actionOn}, and deactivates the ones that have just turned off. This happens
+     * every tick, even if the triggers haven't been tested, as most actions only last for a single tick. Actions that
+     * are {@link IActionSingle} are only activated when they turn on. */
+    private void activateActions() {
+        boolean rebuild = activeActionsChanged || !Arrays.equals(actionOn, actionsActivated);
+        activeActionsChanged = false;
+        if (rebuild) {
+            activeActions.clear();
+        }
+
+        previousBroadcasts.clear();
+        previousBroadcasts.addAll(wireBroadcasts);
+        wireBroadcasts.clear();
+
+        for (int actionIndex = 0; actionIndex < actions.length; actionIndex++) {
+            ActionWrapper action = actions[actionIndex];
+            boolean wasOn = actionsActivated[actionIndex];
+            actionsActivated[actionIndex] = actionOn[actionIndex];
+            if (action == null) {
+                continue;
+            }
+            if (actionOn[actionIndex]) {
+                if (rebuild) {
+                    activeActions.add(getActionSlot(actionIndex, action));
+                }
+                if (wasOn && isSingleAction(action)) {
+                    continue;
+                }
+                action.actionActivate(this, actionParameters[actionIndex]);
+                getPipeHolder().fireEvent(new PipeEventActionActivate(getPipeHolder(), action.getDelegate(), actionParameters[actionIndex], action.sourcePart));
+            } else if (wasOn) {
+                action.actionDeactivated(this, actionParameters[actionIndex]);
+            }
+        }
 
         if (!previousBroadcasts.equals(wireBroadcasts)) {
             IWireManager wires = getPipeHolder().getWireManager();
@@ -434,20 +501,125 @@ public class GateLogic implements IGate, IWireEmitter, IRedstoneStatementContain
             // FIXME: add call to "wires.emittingColour(turnedOff)"
 
             if (!getPipeHolder().getPipeWorld().isRemote) {
-                WorldSavedDataWireSystems.get(getPipeHolder().getPipeWorld()).gatesChanged = true;
+                WireSystem.WireElement emitter = new WireSystem.WireElement(getPipeHolder().getPipePos(), getSide());
+                WorldSavedDataWireSystems.get(getPipeHolder().getPipeWorld()).emitterChanged(emitter, wireBroadcasts);
             }
         }
+    }
 
-        if (!Arrays.equals(prevTriggers, triggerOn) || !Arrays.equals(prevActions, actionOn)) {
-            sendResolveData();
+    private StatementSlot getActionSlot(int index, ActionWrapper action) {
+        StatementSlot slot = actionSlots[index];
+        if (slot == null || slot.statement != action.delegate || slot.part != action.sourcePart) {
+            slot = new StatementSlot();
+            slot.statement = action.delegate;
+            slot.parameters = actionParameters[index];
+            slot.part = action.sourcePart;
+            actionSlots[index] = slot;
         }
+        return slot;
+    }
+
+    private static boolean isSingleAction(ActionWrapper action) {
+        IAction delegate = action.getDelegate();
+        return delegate instanceof IActionSingle && ((IActionSingle) delegate).singleActionTick();
     }
 
     public void onTick() {
-        if (getPipeHolder().getPipeWorld().isRemote) {
+        World world = getPipeHolder().getPipeWorld();
+        if (world.isRemote) {
             return;
         }
-        resolveActions();
+        long now = world.getTotalWorldTime();
+        boolean evaluate = !BCTransportConfig.scheduleGates || shouldEvaluate(world, now);
+        countStats(now, evaluate);
+        if (evaluate) {
+            resolveActions();
+        } else {
+            activateActions();
+        }
+    }
+
+    // Scheduling
+
+    /** Tells this gate that something that its triggers might depend on has changed.
+     *
+     * @param changed A combination of the {@link IScheduledTrigger} DEPENDS_ flags. */
+    public void signalDependency(int changed) {
+        if ((dependencies & changed) != 0) {
+            evaluationNeeded = true;
+        }
+    }
+
+    /** Makes this gate work out its dependencies again, and test its triggers on the next tick. Called whenever the
+     * triggers or the connections between them change. */
+    public void markForEvaluation() {
+        scheduleChanged = true;
+    }
+
+    private boolean shouldEvaluate(World world, long now) {
+        if (scheduleChanged) {
+            scheduleChanged = false;
+            updateSchedule();
+            evaluationNeeded = true;
+        }
+        if ((dependencies & IScheduledTrigger.DEPENDS_WIRE) != 0) {
+            long wireVersion = WorldSavedDataWireSystems.get(world).getWireVersion();
+            if (wireVersion != lastWireVersion) {
+                lastWireVersion = wireVersion;
+                evaluationNeeded = true;
+            }
+        }
+        if (pollInterval > 0 && now >= nextPoll) {
+            evaluationNeeded = true;
+        }
+        if (!evaluationNeeded) {
+            return false;
+        }
+        if (now < nextEvaluationAllowed) {
+            // Over budget: keep the request until this gate is allowed to test its triggers again
+            return false;
+        }
+        evaluationNeeded = false;
+        nextEvaluationAllowed = now + BCTransportConfig.gateEvaluationInterval;
+        nextPoll = now + pollInterval;
+        return true;
+    }
+
+    private void updateSchedule() {
+        dependencies = 0;
+        pollInterval = 0;
+        for (TriggerWrapper trigger : triggers) {
+            if (trigger == null) {
+                continue;
+            }
+            int interval;
+            if (trigger.delegate instanceof IScheduledTrigger) {
+                IScheduledTrigger scheduled = (IScheduledTrigger) trigger.delegate;
+                dependencies |= scheduled.getDependencies();
+                interval = scheduled.getPollInterval();
+            } else {
+                // We don't know what it depends on, so test it every tick
+                interval = 1;
+            }
+            if (interval > 0 && (pollInterval == 0 || interval < pollInterval)) {
+                pollInterval = interval;
+            }
+        }
+    }
+
+    private static void countStats(long now, boolean evaluated) {
+        if (now != statTick) {
+            statTick = now;
+            statEvaluated = statEvaluatedThisTick;
+            statSkipped = statSkippedThisTick;
+            statEvaluatedThisTick = 0;
+            statSkippedThisTick = 0;
+        }
+        if (evaluated) {
+            statEvaluatedThisTick++;
+        } else {
+            statSkippedThisTick++;
+        }
     }
 
     public SortedSet<TriggerWrapper> getAllValidTriggers() {
@@ -1,11 +1,15 @@
 package buildcraft.transport.pipe;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.util.*;
+import java.util.function.Consumer;
 
 import buildcraft.api.transport.pipe.PipeEvent;
 import buildcraft.api.transport.pipe.PipeEventHandler;
@@ -13,8 +17,12 @@ import buildcraft.api.transport.pipe.PipeEventPriority;
 
 public class PipeEventBus {
     private static final Map<Class<?>, List<Handler>> allHandlers = new HashMap<>();
+    private static final LocalHandler[] NO_HANDLERS = new LocalHandler[0];
 
     private final List<LocalHandler> currentHandlers = new ArrayList<>();
+    /** The handlers (in priority order) that accept each event class that has been fired. Cleared whenever a handler
+     * is registered or unregistered. */
+    private final Map<Class<?>, LocalHandler[]> dispatchTable = new HashMap<>();
 
     private static List<LocalHandler> getAndBindHandlers(Object obj) {
         Class<?> cls = obj instanceof Class ? (Class<?>) obj : obj.getClass();
@@ -56,7 +64,8 @@ public class PipeEventBus {
                     throw new IllegalStateException("Cannot annotate " + m + " with @PipeEventHandler as there was a problem with it!", e);
                 }
                 boolean isStatic = Modifier.isStatic(m.getModifiers());
-                list.add(new Handler(annot.priority(), annot.receiveCancelled(), isStatic, mh, p.getType()));
+                MethodHandle invokerFactory = createInvokerFactory(m, isStatic);
+                list.add(new Handler(annot.priority(), annot.receiveCancelled(), isStatic, mh, invokerFactory, p.getType()));
             }
 
             Class<?> superCls = cls.getSuperclass();
@@ -69,12 +78,35 @@ public class PipeEventBus {
         return allHandlers.get(cls);
     }
 
+    /** Uses {@link LambdaMetafactory} to create a factory for {@link Consumer}'s that call the given method directly,
+     * rather than through a {@link MethodHandle}. For instance methods the factory takes the object to bind to.
+     *
+     * @return The factory, or null if the method couldn't be converted (for example if it isn't accessible from
+     *         here). */
+    private static MethodHandle createInvokerFactory(Method m, boolean isStatic) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle impl = lookup.unreflect(m);
+            MethodType invokedType = isStatic
+                ? MethodType.methodType(Consumer.class)
+                : MethodType.methodType(Consumer.class, m.getDeclaringClass());
+            CallSite site = LambdaMetafactory.metafactory(lookup, "accept", invokedType,
+                MethodType.methodType(void.class, Object.class), impl,
+                MethodType.methodType(void.class, m.getParameterTypes()[0]));
+            return site.getTarget();
+        } catch (Throwable t) {
+            // Fall back to calling the method handle
+            return null;
+        }
+    }
+
     public void registerHandler(Object obj) {
         if (obj == null) {
             return;
         }
         currentHandlers.addAll(getAndBindHandlers(obj));
         Collections.sort(currentHandlers);
+        dispatchTable.clear();
     }
 
     public void unregisterHandler(Object obj) {
@@ -89,6 +121,22 @@ public class PipeEventBus {
                 iter.remove();
             }
         }
+        dispatchTable.clear();
+    }
+
+    private LocalHandler[] getHandlersFor(Class<?> eventClass) {
+        LocalHandler[] handlers = dispatchTable.get(eventClass);
+        if (handlers == null) {
+            List<LocalHandler> list = new ArrayList<>();
+            for (LocalHandler handler : currentHandlers) {
+                if (handler.classHandled.isAssignableFrom(eventClass)) {
+                    list.add(handler);
+                }
+            }
+            handlers = list.isEmpty() ? NO_HANDLERS : list.toArray(new LocalHandler[list.size()]);
+            dispatchTable.put(eventClass, handlers);
+        }
+        return handlers;
     }
 
     /** Sends this event to all of the registered handlers.
@@ -96,7 +144,7 @@ public class PipeEventBus {
      * @return True if at least 1 event handler was called, 0 if no handlers were called. */
     public boolean fireEvent(PipeEvent event) {
         boolean handled = false;
-        for (LocalHandler handler : currentHandlers) {
+        for (LocalHandler handler : getHandlersFor(event.getClass())) {
             handled |= handler.handleEvent(event);
         }
         return handled;
@@ -106,13 +154,16 @@ public class PipeEventBus {
         final PipeEventPriority priority;
         final boolean receiveCanceled, isStatic;
         final MethodHandle handle;
+        /** Creates a {@link Consumer} that calls the handler method. Null if one couldn't be generated. */
+        final MethodHandle invokerFactory;
         final Class<?> eventClassHandled;
 
-        public Handler(PipeEventPriority priority, boolean receiveCanceled, boolean isStatic, MethodHandle handle, Class<?> eventClassHandled) {
+        public Handler(PipeEventPriority priority, boolean receiveCanceled, boolean isStatic, MethodHandle handle, MethodHandle invokerFactory, Class<?> eventClassHandled) {
             this.priority = priority;
             this.receiveCanceled = receiveCanceled;
             this.isStatic = isStatic;
             this.handle = handle;
+            this.invokerFactory = invokerFactory;
             this.eventClassHandled = eventClassHandled;
         }
 
@@ -121,8 +172,26 @@ public class PipeEventBus {
             if (!isStatic && obj instanceof Class<?>) {
                 return null;
             }
+            return new LocalHandler(priority, receiveCanceled, obj, eventClassHandled, createInvoker(obj));
+        }
+
+        @SuppressWarnings("unchecked")
+        private Consumer<PipeEvent> createInvoker(Object obj) {
+            if (invokerFactory != null) {
+                try {
+                    return (Consumer<PipeEvent>) (isStatic ? invokerFactory.invoke() : invokerFactory.invoke(obj));
+                } catch (Throwable t) {
+                    // Fall through to the method handle
+                }
+            }
             MethodHandle bound = isStatic ? handle : handle.bindTo(obj);
-            return new LocalHandler(priority, receiveCanceled, obj, eventClassHandled, bound);
+            return event -> {
+                try {
+                    bound.invoke(event);
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            };
         }
     }
 
@@ -131,30 +200,23 @@ public class PipeEventBus {
         final boolean receiveCanceled;
         final Object target;
         final Class<?> classHandled;
-        final MethodHandle handle;
+        final Consumer<PipeEvent> invoker;
 
-        public LocalHandler(PipeEventPriority priority, boolean receiveCanceled, Object target, Class<?> classHandled, MethodHandle handle) {
+        public LocalHandler(PipeEventPriority priority, boolean receiveCanceled, Object target, Class<?> classHandled, Consumer<PipeEvent> invoker) {
             this.priority = priority;
             this.receiveCanceled = receiveCanceled;
             this.target = target;
             this.classHandled = classHandled;
-            this.handle = handle;
+            this.invoker = invoker;
         }
 
+        /** Calls the handler, assuming that the event is of a class that it handles. */
         public boolean handleEvent(PipeEvent event) {
             if (!receiveCanceled && event.isCanceled()) {
                 return false;
             }
-
-            if (classHandled.isAssignableFrom(event.getClass())) {
-                try {
-                    handle.invoke(event);
-                    return true;
-                } catch (Throwable e) {
-                    throw new IllegalStateException(e);
-                }
-            }
-            return false;
+            invoker.accept(event);
+            return true;
         }
 
         @Override
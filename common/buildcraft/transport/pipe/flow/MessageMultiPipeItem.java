@@ -0,0 +1,109 @@
+/* Copyright (c) 2016 SpaceToad and the BuildCraft team
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/. */
+package buildcraft.transport.pipe.flow;
+
+import java.util.function.Supplier;
+
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.item.EnumDyeColor;
+import net.minecraft.item.ItemStack;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+import buildcraft.api.transport.pipe.IPipe;
+import buildcraft.api.transport.pipe.IPipeHolder;
+
+import buildcraft.lib.BCLibProxy;
+import buildcraft.lib.net.PacketBufferBC;
+import buildcraft.lib.net.cache.BuildCraftObjectCaches;
+
+import io.netty.buffer.ByteBuf;
+
+/** Holds every {@link TravellingItem} that was created in a single chunk in a single tick. The payload is written by
+ * {@link PipeItemMessageQueue}. */
+public class MessageMultiPipeItem implements IMessage {
+    private int chunkX, chunkZ;
+    private PacketBufferBC payload;
+
+    /** Used by forge to construct this upon receive. Do not use! */
+    @Deprecated
+    public MessageMultiPipeItem() {}
+
+    public MessageMultiPipeItem(int chunkX, int chunkZ, PacketBufferBC payload) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.payload = payload;
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf) {
+        PacketBuffer buffer = new PacketBuffer(buf);
+        chunkX = buffer.readVarInt();
+        chunkZ = buffer.readVarInt();
+        int size = buffer.readVarInt();
+        payload = new PacketBufferBC(buffer.readBytes(size));
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf) {
+        PacketBuffer buffer = new PacketBuffer(buf);
+        buffer.writeVarInt(chunkX);
+        buffer.writeVarInt(chunkZ);
+        int length = payload.readableBytes();
+        buffer.writeVarInt(length);
+        buffer.writeBytes(payload, payload.readerIndex(), length);
+    }
+
+    public enum Handler implements IMessageHandler<MessageMultiPipeItem, IMessage> {
+        INSTANCE;
+
+        @Override
+        public IMessage onMessage(MessageMultiPipeItem message, MessageContext ctx) {
+            EntityPlayer player = BCLibProxy.getProxy().getPlayerForContext(ctx);
+            if (player == null || player.world == null) return null;
+            World world = player.world;
+            PacketBufferBC buffer = message.payload;
+
+            int count = buffer.readVarInt();
+            int index = 0;
+            int stackId = -1;
+            for (int i = 0; i < count; i++) {
+                index += buffer.readVarInt();
+                int flags = buffer.readUnsignedByte();
+                EnumDyeColor colour = null;
+                if ((flags & PipeItemMessageQueue.FLAG_HAS_COLOUR) != 0) {
+                    colour = EnumDyeColor.byMetadata(buffer.readUnsignedByte());
+                }
+                if ((flags & PipeItemMessageQueue.FLAG_SAME_STACK) == 0) {
+                    stackId = buffer.readVarInt();
+                }
+                int stackCount = buffer.readVarInt();
+                int timeToDest = buffer.readVarInt();
+                boolean toCenter = (flags & PipeItemMessageQueue.FLAG_TO_CENTER) != 0;
+                EnumFacing side = EnumFacing.getFront(flags & 7);
+
+                BlockPos pos = PipeItemMessageQueue.unpackIndex(message.chunkX, message.chunkZ, index);
+                TileEntity tile = world.getTileEntity(pos);
+                if (!(tile instanceof IPipeHolder)) {
+                    continue;
+                }
+                IPipe pipe = ((IPipeHolder) tile).getPipe();
+                if (pipe != null && pipe.getFlow() instanceof PipeFlowItems) {
+                    Supplier<ItemStack> link = BuildCraftObjectCaches.retrieveItemStack(stackId);
+                    PipeFlowItems flow = (PipeFlowItems) pipe.getFlow();
+                    flow.createClientItem(link, stackCount, toCenter, side, colour, timeToDest);
+                }
+            }
+            return null;
+        }
+    }
+}
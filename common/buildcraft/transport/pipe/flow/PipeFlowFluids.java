@@ -37,6 +37,8 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
     private static final int DIRECTION_COOLDOWN = 60;
     private static final int COOLDOWN_INPUT = -DIRECTION_COOLDOWN;
     private static final int COOLDOWN_OUTPUT = DIRECTION_COOLDOWN;
+    /** How often dormant pipes that still contain fluid check if they can output it again. */
+    private static final int DORMANT_POLL_INTERVAL = 20;
 
     public static final int NET_FLUID_AMOUNTS = 2;
 
@@ -49,11 +51,28 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
      * it will be 20 * (10 + 12) = 20 * 22 = 440 - oh that's not good is it */
     public final int capacity = fluidTransferInfo.transferPerTick * (40);// TEMP!
 
-    private final Map<EnumPipePart, Section> sections = new EnumMap<>(EnumPipePart.class);
+    /** Every section of this pipe, indexed by {@link EnumPipePart#getIndex()}. */
+    private final Section[] sections = new Section[EnumPipePart.VALUES.length];
     private FluidStack currentFluid;
     private int currentDelay;
     private final SafeTimeTracker tracker = new SafeTimeTracker(BCCoreConfig.networkUpdateRate, 4);
 
+    /** If true then this pipe has stopped ticking, as nothing has moved in it and nothing can move until one of its
+     * neighbours changes. Fill operations or connection changes wake it up again. */
+    private boolean dormant;
+    private int dormantTicks;
+    private int dormantConnections;
+    /** Set whenever fluid moves into, out of or around this pipe during the current tick. */
+    private boolean moved;
+
+    // Reused every tick to avoid allocating
+    private final int[] inputPerTick = new int[6];
+    private final Set<EnumFacing> realDirections = EnumSet.noneOf(EnumFacing.class);
+    private final EnumFacing[] shuffledDirections = new EnumFacing[6];
+
+    /** Statistics for every fluid pipe in the world, shown in the debug info. */
+    public static long statActiveTicks, statDormantTicks;
+
     // Client fields for interpolating amounts
     private long lastMessage, lastMessageMinus1;
     private NetworkedObjectCache<FluidStack>.Link clientFluid = null;
@@ -61,14 +80,14 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
     public PipeFlowFluids(IPipe pipe) {
         super(pipe);
         for (EnumPipePart part : EnumPipePart.VALUES) {
-            sections.put(part, new Section(part));
+            sections[part.getIndex()] = new Section(part);
         }
     }
 
     public PipeFlowFluids(IPipe pipe, NBTTagCompound nbt) {
         super(pipe, nbt);
         for (EnumPipePart part : EnumPipePart.VALUES) {
-            sections.put(part, new Section(part));
+            sections[part.getIndex()] = new Section(part);
         }
         if (nbt.hasKey("fluid")) {
             setFluid(FluidStack.loadFluidStackFromNBT(nbt.getCompoundTag("fluid")));
@@ -86,10 +105,10 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
                         setFluid(stack);
                     }
                     if (stack != null && stack.isFluidEqual(currentFluid)) {
-                        sections.get(part).readFromNbt(compound);
+                        sections[part.getIndex()].readFromNbt(compound);
                     }
                 } else {
-                    sections.get(part).readFromNbt(compound);
+                    sections[part.getIndex()].readFromNbt(compound);
                 }
             }
         }
@@ -107,7 +126,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
             for (EnumPipePart part : EnumPipePart.VALUES) {
                 int direction = part.getIndex();
                 NBTTagCompound subTag = new NBTTagCompound();
-                sections.get(part).writeToNbt(subTag);
+                sections[part.getIndex()].writeToNbt(subTag);
                 nbt.setTag("tank[" + direction + "]", subTag);
             }
         }
@@ -128,7 +147,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
     @Override
     public <T> T getCapability(Capability<T> capability, EnumFacing facing) {
         if (capability == CapUtil.CAP_FLUIDS) {
-            return (T) sections.get(EnumPipePart.fromFacing(facing));
+            return (T) sections[EnumPipePart.fromFacing(facing).getIndex()];
         }
         return super.getCapability(capability, facing);
     }
@@ -150,7 +169,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
         } else if (currentFluid != null && !filter.isFluidEqual(currentFluid)) {
             return null;
         }
-        Section section = sections.get(EnumPipePart.fromFacing(from));
+        Section section = sections[EnumPipePart.fromFacing(from).getIndex()];
         millibuckets = Math.min(millibuckets, section.getMaxFilled());
         if (millibuckets <= 0) {
             return null;
@@ -170,6 +189,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
         if (currentFluid == null) {
             setFluid(toAdd);
         }
+        wakeUp();
         int reallyFilled = section.fill(extracted, true);
         section.ticksInDirection = COOLDOWN_INPUT;
         if (reallyFilled != extracted) {
@@ -198,7 +218,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
             final IFluidFilter existing = filter;
             filter = (fluid) -> currentFluid.isFluidEqual(fluid) && existing.matches(fluid);
         }
-        Section section = sections.get(EnumPipePart.fromFacing(from));
+        Section section = sections[EnumPipePart.fromFacing(from).getIndex()];
         millibuckets = Math.min(millibuckets, section.getMaxFilled());
         if (millibuckets <= 0) {
             return null;
@@ -211,6 +231,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
         if (currentFluid == null) {
             setFluid(toAdd);
         }
+        wakeUp();
         int reallyFilled = section.fill(millibuckets, true);
         section.ticksInDirection = COOLDOWN_INPUT;
         if (reallyFilled != millibuckets) {
@@ -229,9 +250,13 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
 
         FluidStack fluid = isRemote ? getFluidStackForRender() : currentFluid;
         left.add(" - FluidType = " + (fluid == null ? "empty" : fluid.getLocalizedName()));
+        if (!isRemote) {
+            left.add(" - Dormant = " + dormant + " (all pipes: " + statActiveTicks + " active ticks, " + statDormantTicks
+                + " dormant ticks)");
+        }
 
         for (EnumPipePart part : EnumPipePart.VALUES) {
-            Section section = sections.get(part);
+            Section section = sections[part.getIndex()];
             if (section == null) {
                 continue;
             }
@@ -278,7 +303,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
     public double[] getAmountsForRender(float partialTicks) {
         double[] arr = new double[7];
         for (EnumPipePart part : EnumPipePart.VALUES) {
-            Section s = sections.get(part);
+            Section s = sections[part.getIndex()];
             arr[part.getIndex()] = s.clientAmountLast * (1 - partialTicks) + s.clientAmountThis * (partialTicks);
         }
         return arr;
@@ -288,7 +313,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
     public Vec3d[] getOffsetsForRender(float partialTicks) {
         Vec3d[] arr = new Vec3d[7];
         for (EnumPipePart part : EnumPipePart.VALUES) {
-            Section s = sections.get(part);
+            Section s = sections[part.getIndex()];
             if (s.offsetLast != null & s.offsetThis != null) {
                 arr[part.getIndex()] = s.offsetLast.scale(1 - partialTicks).add(s.offsetThis.scale(partialTicks));
             }
@@ -306,30 +331,83 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
         } else {
             currentDelay = (int) PipeApi.getFluidTransferInfo(pipe.getDefinition()).transferDelayMultiplier;
         }
-        for (Section section : sections.values()) {
-            section.incoming = new int[currentDelay];
+        for (Section section : sections) {
+            if (section.incoming.length == currentDelay) {
+                Arrays.fill(section.incoming, 0);
+            } else {
+                section.incoming = new int[currentDelay];
+            }
             section.currentTime = 0;
             section.ticksInDirection = 0;
         }
     }
 
+    /** Makes this pipe tick normally again, if it was dormant. */
+    public void wakeUp() {
+        dormant = false;
+        dormantTicks = 0;
+    }
+
+    public boolean isDormant() {
+        return dormant;
+    }
+
+    private int getConnectionMask() {
+        int mask = 0;
+        for (EnumFacing face : EnumFacing.VALUES) {
+            if (pipe.isConnected(face)) {
+                mask |= 1 << face.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    /** @return True if nothing in this pipe can change without something outside of it changing first: nothing is in
+     *         transit, none of the sections have a direction and the client has been sent the current amounts. */
+    private boolean isSettled() {
+        for (Section section : sections) {
+            if (section.ticksInDirection != 0 || section.amount != section.lastSentAmount
+                || section.lastSentDirection != Dir.NONE) {
+                return false;
+            }
+            for (int i : section.incoming) {
+                if (i != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     @Override
     public void onTick() {
         World world = pipe.getHolder().getPipeWorld();
         if (world.isRemote) {
-            for (EnumPipePart part : EnumPipePart.VALUES) {
-                sections.get(part).tickClient();
+            for (Section section : sections) {
+                section.tickClient();
             }
             return;
         }
 
+        if (dormant) {
+            // Empty pipes can only be woken up by something filling them, but pipes with fluid in them also need to
+            // notice when the tiles around them have room for more fluid, which doesn't cause a neighbour change.
+            if (getConnectionMask() == dormantConnections
+                && (currentFluid == null || ++dormantTicks < DORMANT_POLL_INTERVAL)) {
+                statDormantTicks++;
+                return;
+            }
+            wakeUp();
+        }
+        statActiveTicks++;
+        moved = false;
+
         if (currentFluid != null) {
             // int timeSlot = (int) (world.getTotalWorldTime() % currentDelay);
             int totalFluid = 0;
             boolean canOutput = false;
 
-            for (EnumPipePart part : EnumPipePart.VALUES) {
-                Section section = sections.get(part);
+            for (Section section : sections) {
                 section.currentTime = (section.currentTime + 1) % currentDelay;
                 section.advanceForMovement();
                 totalFluid += section.amount;
@@ -348,13 +426,12 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
                 if (canOutput) {
                     moveFromPipe();
                 }
-                moveFromCenter();
+                moveFromCenter(world);
                 moveToCenter();
             }
 
             // tick cooldowns
-            for (EnumPipePart part : EnumPipePart.VALUES) {
-                Section section = sections.get(part);
+            for (Section section : sections) {
                 if (section.ticksInDirection > 0) {
                     section.ticksInDirection--;
                 } else if (section.ticksInDirection < 0) {
@@ -365,8 +442,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
 
         boolean send = false;
 
-        for (EnumPipePart part : EnumPipePart.VALUES) {
-            Section section = sections.get(part);
+        for (Section section : sections) {
             if (section.amount != section.lastSentAmount) {
                 send = true;
                 break;
@@ -383,35 +459,53 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
             // send a net update
             sendPayload(NET_FLUID_AMOUNTS);
         }
+
+        if (moved) {
+            // Moving fluid around might have made room for a dormant neighbour to push fluid into this pipe
+            for (EnumFacing face : EnumFacing.VALUES) {
+                if (pipe.isConnected(face)) {
+                    IPipe neighbour = pipe.getHolder().getNeighbouringPipe(face);
+                    if (neighbour != null && neighbour.getFlow() instanceof PipeFlowFluids) {
+                        ((PipeFlowFluids) neighbour.getFlow()).wakeUp();
+                    }
+                }
+            }
+        } else if (isSettled()) {
+            dormant = true;
+            dormantTicks = 0;
+            dormantConnections = getConnectionMask();
+        }
     }
 
     private void moveFromPipe() {
         for (EnumPipePart part : EnumPipePart.FACES) {
-            Section section = sections.get(part);
-            if (section.getCurrentDirection().canOutput()) {
-                PipeEventFluid.SideCheck sideCheck = new PipeEventFluid.SideCheck(pipe.getHolder(), this, currentFluid);
-                sideCheck.disallowAllExcept(part.face);
-                pipe.getHolder().fireEvent(sideCheck);
-                if (sideCheck.getOrder().size() == 1) {
-                    IFluidHandler fluidHandler = pipe.getHolder().getCapabilityFromPipe(part.face, CapUtil.CAP_FLUIDS);
-                    if (fluidHandler == null) continue;
-
-                    FluidStack fluidToPush = new FluidStack(currentFluid, section.drainInternal(fluidTransferInfo.transferPerTick, false));
-
-                    if (fluidToPush.amount > 0) {
-                        int filled = fluidHandler.fill(fluidToPush, true);
-                        if (filled > 0) {
-                            section.drainInternal(filled, true);
-                            section.ticksInDirection = COOLDOWN_OUTPUT;
-                        }
-                    }
+            Section section = sections[part.getIndex()];
+            if (!section.getCurrentDirection().canOutput()) {
+                continue;
+            }
+            int amount = section.drainInternal(fluidTransferInfo.transferPerTick, false);
+            if (amount <= 0) {
+                continue;
+            }
+            IFluidHandler fluidHandler = pipe.getHolder().getCapabilityFromPipe(part.face, CapUtil.CAP_FLUIDS);
+            if (fluidHandler == null) {
+                continue;
+            }
+            PipeEventFluid.SideCheck sideCheck = new PipeEventFluid.SideCheck(pipe.getHolder(), this, currentFluid);
+            sideCheck.disallowAllExcept(part.face);
+            pipe.getHolder().fireEvent(sideCheck);
+            if (sideCheck.getOrder().size() == 1) {
+                int filled = fluidHandler.fill(new FluidStack(currentFluid, amount), true);
+                if (filled > 0) {
+                    section.drainInternal(filled, true);
+                    section.ticksInDirection = COOLDOWN_OUTPUT;
                 }
             }
         }
     }
 
-    private void moveFromCenter() {
-        Section center = sections.get(EnumPipePart.CENTER);
+    private void moveFromCenter(World world) {
+        Section center = sections[EnumPipePart.CENTER.getIndex()];
         // Split liquids moving to output equally based on flowrate, how much each side can accept and available liquid
         int totalAvailable = center.getMaxDrained();
         if (totalAvailable < 1) {
@@ -419,15 +513,15 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
         }
 
         int flowRate = fluidTransferInfo.transferPerTick;
-        Set<EnumFacing> realDirections = EnumSet.noneOf(EnumFacing.class);
+        realDirections.clear();
 
         // Move liquid from the center to the output sides
-        for (EnumFacing direction : EnumFacing.VALUES) {
-            if (!sections.get(EnumPipePart.fromFacing(direction)).getCurrentDirection().canOutput()) {
+        for (EnumPipePart part : EnumPipePart.FACES) {
+            if (!sections[part.getIndex()].getCurrentDirection().canOutput()) {
                 continue;
             }
-            if (pipe.getHolder().getCapabilityFromPipe(direction, CapUtil.CAP_FLUIDS) != null) {
-                realDirections.add(direction);
+            if (pipe.getHolder().getCapabilityFromPipe(part.face, CapUtil.CAP_FLUIDS) != null) {
+                realDirections.add(part.face);
             }
         }
 
@@ -436,15 +530,21 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
             sideCheck.disallowAllExcept(realDirections);
             pipe.getHolder().fireEvent(sideCheck);
 
-            EnumSet<EnumFacing> set = sideCheck.getOrder();
-
-            List<EnumFacing> random = new ArrayList<>(set);
-            Collections.shuffle(random);
+            int count = 0;
+            for (EnumFacing face : sideCheck.getOrder()) {
+                shuffledDirections[count++] = face;
+            }
+            for (int i = count - 1; i > 0; i--) {
+                int j = world.rand.nextInt(i + 1);
+                EnumFacing swap = shuffledDirections[i];
+                shuffledDirections[i] = shuffledDirections[j];
+                shuffledDirections[j] = swap;
+            }
 
             float min = Math.min(flowRate * realDirections.size(), totalAvailable) / (float) flowRate / realDirections.size();
 
-            for (EnumFacing direction : random) {
-                Section section = sections.get(EnumPipePart.fromFacing(direction));
+            for (int i = 0; i < count; i++) {
+                Section section = sections[EnumPipePart.fromFacing(shuffledDirections[i]).getIndex()];
                 int available = section.fill(flowRate, false);
                 int amountToPush = (int) (available * min);
                 if (amountToPush < 1) {
@@ -467,13 +567,12 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
 
     private void moveToCenter() {
         int transferInCount = 0;
-        Section center = sections.get(EnumPipePart.CENTER);
+        Section center = sections[EnumPipePart.CENTER.getIndex()];
         int spaceAvailable = capacity - center.amount;
         int flowRate = fluidTransferInfo.transferPerTick;
 
-        int[] inputPerTick = new int[6];
         for (EnumPipePart part : EnumPipePart.FACES) {
-            Section section = sections.get(part);
+            Section section = sections[part.getIndex()];
             inputPerTick[part.getIndex()] = 0;
             if (section.getCurrentDirection().canInput()) {
                 inputPerTick[part.getIndex()] = section.drainInternal(flowRate, false);
@@ -482,10 +581,13 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
                 }
             }
         }
+        if (transferInCount == 0) {
+            return;
+        }
 
         float min = Math.min(flowRate * transferInCount, spaceAvailable) / (float) flowRate / transferInCount;
         for (EnumPipePart part : EnumPipePart.FACES) {
-            Section section = sections.get(part);
+            Section section = sections[part.getIndex()];
             // Move liquid from input sides to the center
             if (inputPerTick[part.getIndex()] > 0) {
                 int amountToDrain = (int) (inputPerTick[part.getIndex()] * min);
@@ -518,7 +620,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
                     clientFluid = BuildCraftObjectCaches.CACHE_FLUIDS.client().retrieve(fluidId);
                 }
                 for (EnumPipePart part : EnumPipePart.VALUES) {
-                    Section section = sections.get(part);
+                    Section section = sections[part.getIndex()];
                     if (full || buffer.readBoolean()) {
                         section.target = buffer.readShort();
                         if (full) {
@@ -548,7 +650,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
                     buffer.writeInt(BuildCraftObjectCaches.CACHE_FLUIDS.server().store(currentFluid));
                 }
                 for (EnumPipePart part : EnumPipePart.VALUES) {
-                    Section section = sections.get(part);
+                    Section section = sections[part.getIndex()];
                     if (full) {
                         buffer.writeShort(section.amount);
                     } else if (section.amount == section.lastSentAmount) {
@@ -645,6 +747,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
             if (doFill) {
                 incoming[currentTime] += amountToFill;
                 amount += amountToFill;
+                moved = true;
             }
             return amountToFill;
         }
@@ -659,6 +762,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
             } else {
                 if (doDrain) {
                     amount -= maxDrain;
+                    moved = true;
                 }
                 return maxDrain;
             }
@@ -701,14 +805,14 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
                 Vec3d dir = Vec3d.ZERO;
                 // Firstly find all the outgoing faces
                 for (EnumPipePart p : EnumPipePart.FACES) {
-                    Section s = sections.get(p);
+                    Section s = sections[p.getIndex()];
                     if (s.ticksInDirection > 0) {
                         dir = dir.add(new Vec3d(p.face.getDirectionVec()));
                     }
                 }
                 // If that failed then find all of the incoming faces
                 for (EnumPipePart p : EnumPipePart.FACES) {
-                    Section s = sections.get(p);
+                    Section s = sections[p.getIndex()];
                     if (s.ticksInDirection < 0) {
                         dir = dir.add(new Vec3d(p.face.getDirectionVec()).scale(-1));
                     }
@@ -764,6 +868,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
                 int filled = fill(resource.amount, doFill);
                 if (filled > 0 && doFill) {
                     ticksInDirection = COOLDOWN_INPUT;
+                    wakeUp();
                 }
                 return filled;
             }
@@ -29,6 +29,7 @@ import net.minecraftforge.fml.relauncher.SideOnly;
 
 import buildcraft.api.core.IStackFilter;
 import buildcraft.api.inventory.IItemTransactor;
+import buildcraft.api.tiles.IDebuggable;
 import buildcraft.api.transport.IInjectable;
 import buildcraft.api.transport.pipe.*;
 import buildcraft.api.transport.pipe.IPipe.ConnectedType;
@@ -42,7 +43,9 @@ import buildcraft.lib.misc.data.DelayedList;
 import buildcraft.lib.net.PacketBufferBC;
 import buildcraft.lib.net.cache.BuildCraftObjectCaches;
 
-public final class PipeFlowItems extends PipeFlow implements IFlowItems {
+import buildcraft.transport.BCTransportConfig;
+
+public final class PipeFlowItems extends PipeFlow implements IFlowItems, IDebuggable {
     private static final double EXTRACT_SPEED = 0.08;
     public static final int NET_CREATE_ITEM = 2;
 
@@ -90,29 +93,57 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
                 int stackId = buffer.readInt();
                 Supplier<ItemStack> link = BuildCraftObjectCaches.retrieveItemStack(stackId);
                 int count = buffer.readUnsignedShort();
-                TravellingItem item = new TravellingItem(link, count);
-                item.toCenter = buffer.readBoolean();
-                item.side = buffer.readEnumValue(EnumFacing.class);
-                item.colour = MessageUtil.readEnumOrNull(buffer, EnumDyeColor.class);
-                item.timeToDest = buffer.readUnsignedShort();
-                item.tickStarted = pipe.getHolder().getPipeWorld().getTotalWorldTime() + 1;
-                item.tickFinished = item.tickStarted + item.timeToDest;
-                items.add(item.timeToDest + 1, item);
+                boolean toCenter = buffer.readBoolean();
+                EnumFacing side = buffer.readEnumValue(EnumFacing.class);
+                EnumDyeColor colour = MessageUtil.readEnumOrNull(buffer, EnumDyeColor.class);
+                int timeToDest = buffer.readUnsignedShort();
+                createClientItem(link, count, toCenter, side, colour, timeToDest);
             }
         }
     }
 
+    void createClientItem(Supplier<ItemStack> link, int count, boolean toCenter, EnumFacing side, EnumDyeColor colour, int timeToDest) {
+        TravellingItem item = new TravellingItem(link, count);
+        item.toCenter = toCenter;
+        item.side = side;
+        item.colour = colour;
+        item.timeToDest = timeToDest;
+        item.tickStarted = pipe.getHolder().getPipeWorld().getTotalWorldTime() + 1;
+        item.tickFinished = item.tickStarted + item.timeToDest;
+        items.add(item.timeToDest + 1, item);
+    }
+
     void sendItemDataToClient(TravellingItem item) {
+        if (BCTransportConfig.batchItemNetworkUpdates) {
+            IPipeHolder holder = pipe.getHolder();
+            PipeItemMessageQueue.appendItem(holder.getPipeWorld(), holder.getPipePos(), item);
+            return;
+        }
         final int stackId = BuildCraftObjectCaches.storeItemStack(item.stack);
         sendCustomPayload(NET_CREATE_ITEM, (buffer) -> {
             PacketBufferBC buf = PacketBufferBC.asPacketBufferBc(buffer);
+            int start = buf.writerIndex();
             buf.writeInt(stackId);
             buf.writeShort(item.stack.getCount());
             buf.writeBoolean(item.toCenter);
             buf.writeEnumValue(item.side);
             MessageUtil.writeEnumOrNull(buf, item.colour);
             buf.writeShort(item.timeToDest > Short.MAX_VALUE ? Short.MAX_VALUE : item.timeToDest);
+            PipeItemMessageQueue.statBytes += buf.writerIndex() - start;
         });
+        PipeItemMessageQueue.statItems++;
+        PipeItemMessageQueue.statPackets++;
+    }
+
+    // IDebuggable
+
+    @Override
+    @SideOnly(Side.CLIENT)
+    public void getDebugInfo(List<String> left, List<String> right, EnumFacing side) {
+        left.add("items = " + items.size());
+        left.add("advanced = " + items.getLastAdvancedCount() + " (last tick)");
+        left.add("network = " + PipeItemMessageQueue.statItems + " items in " + PipeItemMessageQueue.statPackets//
+            + " packets (" + PipeItemMessageQueue.statBytes + " bytes)");
     }
 
     // IFlowItems
@@ -32,10 +32,13 @@ import buildcraft.core.BCCoreConfig;
 import buildcraft.lib.misc.LocaleUtil;
 import buildcraft.lib.misc.MathUtil;
 import buildcraft.lib.misc.data.AverageInt;
+import buildcraft.transport.BCTransportConfig;
 import buildcraft.transport.pipe.behaviour.*;
 
 public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
 
+    public static final int NET_POWER_AMOUNTS = 2;
+
     private static final long DEFAULT_MAX_POWER = MjAPI.MJ * 10;
 
     public Vec3d clientFlowCenter;
@@ -51,6 +54,15 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
 
     final SafeTimeTracker tracker = new SafeTimeTracker(2 * BCCoreConfig.networkUpdateRate);
 
+    /** The network that this pipe is part of, if {@link BCTransportConfig#usePowerNetworks} is enabled. */
+    PowerNetwork network;
+    /** The index of this pipe in {@link #network}. */
+    int networkIndex;
+    /** This pipe's share of the power stored in its last network, kept while the network is rebuilt (or saved) so
+     * that the next network can take it back. */
+    long networkStored;
+    private int networkConnections = -1;
+
     private EnumMap<EnumFacing, Section> createSections() {
         EnumMap<EnumFacing, Section> map = new EnumMap<>(EnumFacing.class);
         for (EnumFacing face : EnumFacing.VALUES) {
@@ -65,23 +77,48 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
 
     public PipeFlowPower(IPipe pipe, NBTTagCompound nbt) {
         super(pipe, nbt);
+        networkStored = nbt.getLong("networkStored");
     }
 
     @Override
     public NBTTagCompound writeToNbt() {
         NBTTagCompound nbt = super.writeToNbt();
-
+        PowerNetwork net = network;
+        long stored = net != null && net.isValid() ? net.getShare(this) : networkStored;
+        if (stored > 0) {
+            nbt.setLong("networkStored", stored);
+        }
         return nbt;
     }
 
     @Override
     public void readPayload(int id, PacketBuffer buffer, Side side) throws IOException {
         super.readPayload(id, buffer, side);
+        if (side == Side.CLIENT) {
+            if (id == NET_POWER_AMOUNTS || id == NET_ID_FULL_STATE) {
+                for (EnumFacing face : EnumFacing.VALUES) {
+                    Section section = sections.get(face);
+                    section.displayPower = buffer.readVarLong();
+                    section.displayFlow = buffer.readEnumValue(EnumFlow.class);
+                }
+            }
+        }
     }
 
     @Override
     public void writePayload(int id, PacketBuffer buffer, Side side) {
         super.writePayload(id, buffer, side);
+        if (side == Side.SERVER) {
+            if (id == NET_POWER_AMOUNTS || id == NET_ID_FULL_STATE) {
+                for (EnumFacing face : EnumFacing.VALUES) {
+                    Section section = sections.get(face);
+                    buffer.writeVarLong(section.displayPower);
+                    buffer.writeEnumValue(section.displayFlow);
+                    section.lastSentPower = section.displayPower;
+                    section.lastSentFlow = section.displayFlow;
+                }
+            }
+        }
     }
 
     @Override
@@ -163,6 +200,13 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
     public void getDebugInfo(List<String> left, List<String> right, EnumFacing side) {
         left.add("maxPower = " + LocaleUtil.localizeMj(maxPower));
         left.add("isReceiver = " + isReceiver);
+        PowerNetwork net = network;
+        if (net != null) {
+            left.add("network = " + net.getMemberCount() + " pipes, " + net.getSinkCount() + " sinks, valid = " + net.isValid());
+            left.add("- stored " + LocaleUtil.localizeMj(net.getStored()) + ", requested " + LocaleUtil.localizeMj(net.getLastDemand())
+                + ", delivered " + LocaleUtil.localizeMj(net.getLastDelivered()));
+            return;
+        }
         left.add("internalPower = " + arrayToString(s -> s.internalPower) + " <- " + arrayToString(s -> s.internalNextPower));
         left.add("- powerQuery: " + arrayToString(s -> s.powerQuery) + " <- " + arrayToString(s -> s.nextPowerQuery));
         left.add("- power: IN " + arrayToString(s -> s.debugPowerInput) + ", OUT " + arrayToString(s -> s.debugPowerOutput));
@@ -190,6 +234,14 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
             reconfigure();
         }
 
+        if (BCTransportConfig.usePowerNetworks) {
+            tickNetwork();
+            return;
+        } else if (network != null) {
+            network.invalidate();
+            network = null;
+        }
+
         step();
 
         init();
@@ -229,14 +281,14 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
                             s.internalPower -= used;
                             s2.debugPowerOutput += used;
 
-                            s.powerAverage.push((int) used);
-                            s2.powerAverage.push((int) used);
+                            s.pushFlow(used, false);
+                            s2.pushFlow(used, true);
                         }
                     }
                 }
             }
         }
-        // Render compute goes here
+        updateDisplay();
 
         // Compute the tiles requesting power that are not power pipes
         for (EnumFacing face : EnumFacing.VALUES) {
@@ -282,6 +334,77 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
         // Networking
     }
 
+    private void tickNetwork() {
+        int connections = 0;
+        for (EnumFacing face : EnumFacing.VALUES) {
+            if (pipe.isConnected(face)) {
+                connections |= 1 << face.ordinal();
+            }
+        }
+        if (connections != networkConnections) {
+            networkConnections = connections;
+            if (network != null) {
+                network.invalidate();
+            }
+        }
+        if (network == null || !network.isValid()) {
+            PowerNetwork.build(this);
+        }
+        network.tick(pipe.getHolder().getPipeWorld().getTotalWorldTime());
+        updateDisplay();
+    }
+
+    /** Works out the power shown on the client for every section from the power that was pushed through it since the
+     * last call, and sends it to the client if it has changed. */
+    private void updateDisplay() {
+        boolean send = false;
+        for (EnumFacing face : EnumFacing.VALUES) {
+            Section s = sections.get(face);
+            s.powerAverage.tick();
+            s.displayPower = (long) s.powerAverage.getAverage();
+            if (s.flowBalance != 0) {
+                s.displayFlow = s.flowBalance > 0 ? EnumFlow.OUT : EnumFlow.IN;
+            } else if (s.displayPower == 0) {
+                s.displayFlow = EnumFlow.STATIONARY;
+            }
+            s.flowBalance = 0;
+            if (s.displayPower != s.lastSentPower || s.displayFlow != s.lastSentFlow) {
+                send = true;
+            }
+        }
+        if (send && tracker.markTimeIfDelay(pipe.getHolder().getPipeWorld())) {
+            sendPayload(NET_POWER_AMOUNTS);
+        }
+    }
+
+    /** Removes this pipe from its power network, if it has one. Called when the pipe is removed or unloaded. */
+    public void invalidateNetwork() {
+        if (network != null) {
+            network.invalidate();
+            network = null;
+        }
+    }
+
+    /** @return The power pipe connected on the given side, if it is connected back to this. */
+    PipeFlowPower getConnectedPowerFlow(EnumFacing face) {
+        if (!pipe.isConnected(face) || pipe.getConnectedType(face) != ConnectedType.PIPE) {
+            return null;
+        }
+        IPipe oPipe = pipe.getConnectedPipe(face);
+        if (oPipe != null && oPipe.getFlow() instanceof PipeFlowPower && oPipe.isConnected(face.getOpposite())) {
+            return (PipeFlowPower) oPipe.getFlow();
+        }
+        return null;
+    }
+
+    /** @return The power receiving tile (that isn't a power pipe) connected on the given side. */
+    IMjReceiver getConnectedReceiver(EnumFacing face) {
+        if (!pipe.isConnected(face) || pipe.getConnectedType(face) != ConnectedType.TILE) {
+            return null;
+        }
+        return pipe.getHolder().getCapabilityFromPipe(face, MjAPI.CAP_RECEIVER);
+    }
+
     private void step() {
         long now = pipe.getHolder().getPipeWorld().getTotalWorldTime();
         if (currentWorldTime != now) {
@@ -321,6 +444,11 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
 
         long powerQuery;
         long internalPower;
+        /** The power that went through this section since the last display update: positive if more of it went out of
+         * the pipe than came in. */
+        long flowBalance;
+        long lastSentPower = -1;
+        EnumFlow lastSentFlow;
 
         /** Debugging fields */
         long debugPowerInput, debugPowerOutput, debugPowerOffered;
@@ -329,6 +457,12 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
             this.side = side;
         }
 
+        /** Adds power that moved through this section to the client display. */
+        void pushFlow(long power, boolean out) {
+            powerAverage.push((int) power);
+            flowBalance += out ? power : -power;
+        }
+
         void step() {
             powerQuery = nextPowerQuery;
             nextPowerQuery = 0;
@@ -345,6 +479,10 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
 
         @Override
         public long getPowerRequested() {
+            PowerNetwork net = network;
+            if (net != null && net.isValid()) {
+                return isReceiver ? net.getPowerRequested(maxPower) : 0;
+            }
             long req = 0;
             for (EnumFacing face : EnumFacing.VALUES) {
                 if (face != this.side) {
@@ -365,6 +503,14 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
 
         @Override
         public long receivePower(long microJoules, boolean simulate) {
+            PowerNetwork net = network;
+            if (isReceiver && net != null && net.isValid()) {
+                long excess = net.receivePower(microJoules, simulate);
+                if (!simulate) {
+                    pushFlow(microJoules - excess, false);
+                }
+                return excess;
+            }
             if (isReceiver) {
                 PipeFlowPower.this.step();
                 if (!simulate) {
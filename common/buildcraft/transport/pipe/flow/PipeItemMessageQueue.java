@@ -0,0 +1,120 @@
+/* Copyright (c) 2016 SpaceToad and the BuildCraft team
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/. */
+package buildcraft.transport.pipe.flow;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+import buildcraft.lib.misc.MessageUtil;
+import buildcraft.lib.net.PacketBufferBC;
+import buildcraft.lib.net.cache.BuildCraftObjectCaches;
+
+import io.netty.buffer.Unpooled;
+
+/** Collects all of the {@link TravellingItem}'s that are created in item pipes during a single tick, and sends them to
+ * the client as a single {@link MessageMultiPipeItem} per chunk at the end of the tick. */
+public class PipeItemMessageQueue {
+
+    static final int FLAG_TO_CENTER = 1 << 3;
+    static final int FLAG_SAME_STACK = 1 << 4;
+    static final int FLAG_HAS_COLOUR = 1 << 5;
+
+    private static final Map<World, Map<ChunkPos, List<QueuedItem>>> CACHED = new WeakHashMap<>();
+
+    /** Network statistics, shown in the debug info of item pipes. */
+    public static long statItems, statPackets, statBytes;
+
+    public static void appendItem(World world, BlockPos pos, TravellingItem item) {
+        Map<ChunkPos, List<QueuedItem>> map = CACHED.computeIfAbsent(world, w -> new HashMap<>());
+        List<QueuedItem> list = map.computeIfAbsent(new ChunkPos(pos), c -> new ArrayList<>());
+        list.add(new QueuedItem(pos, item));
+    }
+
+    /** Called at the end of every server world tick to send off all of the queued items. */
+    public static void serverTick(World world) {
+        Map<ChunkPos, List<QueuedItem>> map = CACHED.get(world);
+        if (map == null || map.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<ChunkPos, List<QueuedItem>> entry : map.entrySet()) {
+            ChunkPos chunk = entry.getKey();
+            List<QueuedItem> items = entry.getValue();
+            PacketBufferBC payload = writeItems(items);
+            statItems += items.size();
+            statPackets++;
+            statBytes += payload.readableBytes();
+            MessageMultiPipeItem message = new MessageMultiPipeItem(chunk.chunkXPos, chunk.chunkZPos, payload);
+            MessageUtil.sendToAllWatching(world, chunk.getBlock(0, 0, 0), message);
+        }
+        map.clear();
+    }
+
+    /** Writes out all of the given items, sorted by position. Positions are written as the (varint) difference
+     * between the last position and this one, and the stack id is only written out if it is different to the last
+     * one. */
+    private static PacketBufferBC writeItems(List<QueuedItem> items) {
+        items.sort((a, b) -> Integer.compare(a.index, b.index));
+        PacketBufferBC buffer = new PacketBufferBC(Unpooled.buffer());
+        buffer.writeVarInt(items.size());
+        int lastIndex = 0;
+        int lastStackId = -1;
+        for (QueuedItem item : items) {
+            buffer.writeVarInt(item.index - lastIndex);
+            lastIndex = item.index;
+            int flags = item.side;
+            if (item.toCenter) flags |= FLAG_TO_CENTER;
+            if (item.stackId == lastStackId) flags |= FLAG_SAME_STACK;
+            if (item.colour >= 0) flags |= FLAG_HAS_COLOUR;
+            buffer.writeByte(flags);
+            if (item.colour >= 0) {
+                buffer.writeByte(item.colour);
+            }
+            if (item.stackId != lastStackId) {
+                buffer.writeVarInt(item.stackId);
+                lastStackId = item.stackId;
+            }
+            buffer.writeVarInt(item.count);
+            buffer.writeVarInt(item.timeToDest);
+        }
+        return buffer;
+    }
+
+    /** Packs the position of a block within its chunk to an int, ordered by y, z, then x. */
+    static int packIndex(BlockPos pos) {
+        return ((pos.getY() & 0xFF) << 8) | ((pos.getZ() & 0xF) << 4) | (pos.getX() & 0xF);
+    }
+
+    static BlockPos unpackIndex(int chunkX, int chunkZ, int index) {
+        return new BlockPos((chunkX << 4) | (index & 0xF), (index >> 8) & 0xFF, (chunkZ << 4) | ((index >> 4) & 0xF));
+    }
+
+    /** A snapshot of the network state of a single item, as it might change before the end of the tick. */
+    private static class QueuedItem {
+        final int index;
+        final int stackId;
+        final int count;
+        final boolean toCenter;
+        final int side;
+        final int colour;
+        final int timeToDest;
+
+        QueuedItem(BlockPos pos, TravellingItem item) {
+            index = packIndex(pos);
+            stackId = BuildCraftObjectCaches.storeItemStack(item.stack);
+            count = item.stack.getCount();
+            toCenter = item.toCenter;
+            side = item.side.ordinal();
+            colour = item.colour == null ? -1 : item.colour.getMetadata();
+            timeToDest = item.timeToDest > Short.MAX_VALUE ? Short.MAX_VALUE : item.timeToDest;
+        }
+    }
+}
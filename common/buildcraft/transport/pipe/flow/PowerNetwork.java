@@ -0,0 +1,321 @@
+/* Copyright (c) 2016 SpaceToad and the BuildCraft team
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/. */
+package buildcraft.transport.pipe.flow;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.util.EnumFacing;
+
+import buildcraft.api.mj.IMjReceiver;
+import buildcraft.api.mj.MjAPI;
+
+import buildcraft.transport.BCTransportConfig;
+import buildcraft.transport.BCTransportConfig.PowerLossMode;
+
+/** A set of connected {@link PipeFlowPower} pipes that share power as a single object, rather than passing power
+ * between each other one pipe per tick. Power given to any receiver pipe in the network is stored in the network, and
+ * handed out to every tile connected to the network once per tick, in proportion to how much they requested.
+ * <p>
+ * The route from the receiver pipes to every other pipe is worked out when the network is built, and each sink is
+ * limited by the lowest {@link PipeFlowPower#maxPower} along that route, and loses power according to the
+ * {@link BCTransportConfig#lossMode} and the loss of every pipe along it. Networks are only rebuilt when one of their
+ * pipes changes its connections, or is removed.
+ * <p>
+ * When a network is invalidated its stored power is split evenly across its pipes, and the next network built from
+ * them takes it back, so power is only lost along with the pipes that are removed. Pipes save their share in the same
+ * way. */
+public class PowerNetwork {
+    private final List<PipeFlowPower> members = new ArrayList<>();
+    private final List<Sink> sinks = new ArrayList<>();
+    /** The member that every member's route to a receiver pipe goes through next, or -1 for receiver pipes and members
+     * that can't reach one. */
+    private int[] parent;
+    /** The side of every member that {@link #parent} is connected on. */
+    private EnumFacing[] parentFace;
+    private boolean valid = true;
+    private long lastTick = Long.MIN_VALUE;
+
+    /** The maximum amount of power that can be stored in this network: the sum of the max power of every receiver
+     * pipe. */
+    private long capacity;
+    private long stored;
+    /** The total power requested by every sink during the last tick. */
+    private long lastDemand;
+    private long lastDelivered;
+
+    /** Creates a new network containing every power pipe connected to the given one, and sets it as the network of
+     * every one of them. */
+    static PowerNetwork build(PipeFlowPower start) {
+        PowerNetwork network = new PowerNetwork();
+        Map<PipeFlowPower, Integer> indices = new IdentityHashMap<>();
+        List<int[]> links = new ArrayList<>();
+
+        indices.put(start, 0);
+        network.members.add(start);
+        for (int i = 0; i < network.members.size(); i++) {
+            PipeFlowPower flow = network.members.get(i);
+            if (flow.network != null && flow.network != network) {
+                // Split the old network's power back into its pipes, so it isn't lost when joining two networks
+                flow.network.invalidate();
+            }
+            flow.network = network;
+            flow.networkIndex = i;
+            if (flow.maxPower == -1) {
+                flow.reconfigure();
+            }
+            int[] link = new int[6];
+            for (EnumFacing face : EnumFacing.VALUES) {
+                link[face.ordinal()] = -1;
+                PipeFlowPower other = flow.getConnectedPowerFlow(face);
+                if (other != null) {
+                    Integer index = indices.get(other);
+                    if (index == null) {
+                        index = network.members.size();
+                        indices.put(other, index);
+                        network.members.add(other);
+                    }
+                    link[face.ordinal()] = index;
+                } else {
+                    IMjReceiver receiver = flow.getConnectedReceiver(face);
+                    if (receiver != null) {
+                        network.sinks.add(new Sink(i, face, receiver));
+                    }
+                }
+            }
+            links.add(link);
+        }
+
+        // Breadth first search from every receiver pipe, so every pipe knows its shortest route to a receiver
+        int count = network.members.size();
+        int[] queue = new int[count];
+        int[] hops = new int[count];
+        long[] limit = new long[count];
+        double[] efficiency = new double[count];
+        long[] absoluteLoss = new long[count];
+        network.parent = new int[count];
+        network.parentFace = new EnumFacing[count];
+        int head = 0, tail = 0;
+        for (int i = 0; i < count; i++) {
+            PipeFlowPower flow = network.members.get(i);
+            hops[i] = -1;
+            network.parent[i] = -1;
+            if (flow.isReceiver) {
+                hops[i] = 0;
+                limit[i] = flow.maxPower;
+                efficiency[i] = 1;
+                absoluteLoss[i] = 0;
+                queue[tail++] = i;
+                network.capacity += flow.maxPower;
+            }
+        }
+        while (head < tail) {
+            int from = queue[head++];
+            int[] link = links.get(from);
+            for (EnumFacing face : EnumFacing.VALUES) {
+                int to = link[face.ordinal()];
+                if (to < 0 || hops[to] >= 0) {
+                    continue;
+                }
+                PipeFlowPower flow = network.members.get(to);
+                hops[to] = hops[from] + 1;
+                network.parent[to] = from;
+                network.parentFace[to] = face.getOpposite();
+                limit[to] = Math.min(limit[from], flow.maxPower);
+                efficiency[to] = efficiency[from] * (MjAPI.MJ - flow.powerResistance) / MjAPI.MJ;
+                absoluteLoss[to] = absoluteLoss[from] + flow.powerLoss;
+                queue[tail++] = to;
+            }
+        }
+
+        for (PipeFlowPower flow : network.members) {
+            network.stored += flow.networkStored;
+            flow.networkStored = 0;
+        }
+
+        for (Sink sink : network.sinks) {
+            int i = sink.member;
+            sink.reachable = hops[i] >= 0;
+            sink.limit = limit[i];
+            sink.efficiency = efficiency[i];
+            sink.absoluteLoss = absoluteLoss[i];
+        }
+        return network;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    /** Marks this network as needing to be rebuilt. The next pipe to tick will build a new network. */
+    public void invalidate() {
+        if (!valid) {
+            return;
+        }
+        valid = false;
+        for (PipeFlowPower flow : members) {
+            flow.networkStored += getShare(flow);
+        }
+        stored = 0;
+    }
+
+    /** @return The part of the stored power that belongs to the given member pipe. */
+    long getShare(PipeFlowPower flow) {
+        int count = members.size();
+        return stored / count + (flow.networkIndex < stored % count ? 1 : 0);
+    }
+
+    public int getMemberCount() {
+        return members.size();
+    }
+
+    public int getSinkCount() {
+        return sinks.size();
+    }
+
+    public long getStored() {
+        return stored;
+    }
+
+    public long getLastDemand() {
+        return lastDemand;
+    }
+
+    public long getLastDelivered() {
+        return lastDelivered;
+    }
+
+    /** @return The amount of power that a receiver pipe with the given max power should ask for. */
+    long getPowerRequested(long maxPower) {
+        return Math.max(0, Math.min(maxPower, Math.min(lastDemand, capacity) - stored));
+    }
+
+    /** Adds power to this network.
+     *
+     * @return The excess power that didn't fit. */
+    long receivePower(long power, boolean simulate) {
+        long accepted = Math.max(0, Math.min(power, capacity - stored));
+        if (!simulate) {
+            stored += accepted;
+        }
+        return power - accepted;
+    }
+
+    /** Distributes the stored power to every sink. Called by every pipe in the network, but only does anything on the
+     * first call in each tick. */
+    void tick(long worldTime) {
+        if (worldTime == lastTick) {
+            return;
+        }
+        lastTick = worldTime;
+
+        for (Sink sink : sinks) {
+            // The tile might have been replaced without the pipe's connections changing
+            if (members.get(sink.member).getConnectedReceiver(sink.side) != sink.receiver) {
+                invalidate();
+                return;
+            }
+        }
+
+        long totalDemand = 0;
+        for (Sink sink : sinks) {
+            sink.requested = 0;
+            if (sink.reachable && sink.receiver.canReceive()) {
+                sink.requested = Math.max(0, Math.min(sink.receiver.getPowerRequested(), sink.limit));
+                totalDemand += sink.requested;
+            }
+        }
+        lastDemand = totalDemand;
+        lastDelivered = 0;
+        if (totalDemand <= 0 || stored <= 0) {
+            return;
+        }
+
+        long available = stored;
+        for (Sink sink : sinks) {
+            if (sink.requested <= 0) {
+                continue;
+            }
+            long share = Math.min(sink.requested, (long) (available * (sink.requested / (double) totalDemand)));
+            share = Math.min(share, stored);
+            if (share <= 0) {
+                continue;
+            }
+            long delivered = sink.applyLoss(share);
+            if (delivered <= 0) {
+                // All of it was lost on the way
+                stored -= share;
+                continue;
+            }
+            long accepted = delivered - sink.receiver.receivePower(delivered, false);
+            // Whatever the sink didn't take stays in the network, along with the loss that it would have cost
+            long sent = Math.min(share, sink.getPowerNeeded(accepted));
+            stored -= sent;
+            lastDelivered += accepted;
+            if (sent > 0) {
+                pushRouteFlow(sink, sent);
+            }
+        }
+    }
+
+    /** Shows the given power on the client as flowing along the route from a receiver pipe to the sink. */
+    private void pushRouteFlow(Sink sink, long power) {
+        int member = sink.member;
+        members.get(member).sections.get(sink.side).pushFlow(power, true);
+        while (parent[member] >= 0) {
+            EnumFacing face = parentFace[member];
+            members.get(member).sections.get(face).pushFlow(power, false);
+            member = parent[member];
+            members.get(member).sections.get(face.getOpposite()).pushFlow(power, true);
+        }
+    }
+
+    /** A tile that accepts power, connected to one of the pipes in the network. */
+    static class Sink {
+        final int member;
+        final EnumFacing side;
+        final IMjReceiver receiver;
+
+        boolean reachable;
+        long limit;
+        double efficiency;
+        long absoluteLoss;
+        long requested;
+
+        Sink(int member, EnumFacing side, IMjReceiver receiver) {
+            this.member = member;
+            this.side = side;
+            this.receiver = receiver;
+        }
+
+        long applyLoss(long power) {
+            PowerLossMode mode = BCTransportConfig.lossMode;
+            if (mode == PowerLossMode.PERCENTAGE) {
+                return (long) (power * efficiency);
+            } else if (mode == PowerLossMode.ABSOLUTE) {
+                return Math.max(0, power - absoluteLoss);
+            }
+            return power;
+        }
+
+        /** The inverse of {@link #applyLoss(long)}.
+         *
+         * @return The power that has to be sent to deliver the given amount to this sink. */
+        long getPowerNeeded(long delivered) {
+            if (delivered <= 0) {
+                return 0;
+            }
+            PowerLossMode mode = BCTransportConfig.lossMode;
+            if (mode == PowerLossMode.PERCENTAGE) {
+                return efficiency <= 0 ? Long.MAX_VALUE : (long) Math.ceil(delivered / efficiency);
+            } else if (mode == PowerLossMode.ABSOLUTE) {
+                return delivered + absoluteLoss;
+            }
+            return delivered;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 import buildcraft.api.statements.IActionInternal;
+import buildcraft.api.statements.IActionSingle;
 import buildcraft.api.statements.IStatement;
 import buildcraft.api.statements.IStatementContainer;
 import buildcraft.api.statements.IStatementParameter;
@@ -17,7 +18,7 @@ import buildcraft.lib.misc.LocaleUtil;
 import buildcraft.transport.BCTransportSprites;
 import buildcraft.transport.BCTransportStatements;
 
-public class ActionPipeColor extends BCStatement implements IActionInternal {
+public class ActionPipeColor extends BCStatement implements IActionInternal, IActionSingle {
 
     public final EnumDyeColor color;
 
@@ -36,6 +37,12 @@ public class ActionPipeColor extends BCStatement implements IActionInternal {
         // Pipes listen for this -- we don't need to do anything here
     }
 
+    @Override
+    public boolean singleActionTick() {
+        // Pipes keep their colour, so this only needs to be sent when it turns on
+        return true;
+    }
+
     @Override
     public IStatement[] getPossible() {
         return BCTransportStatements.ACTION_PIPE_COLOUR;
@@ -13,12 +13,13 @@ import buildcraft.api.statements.IStatementParameter;
 import buildcraft.api.statements.ITriggerInternalSided;
 
 import buildcraft.core.statements.BCStatement;
+import buildcraft.core.statements.IScheduledTrigger;
 import buildcraft.lib.client.sprite.SpriteHolderRegistry.SpriteHolder;
 import buildcraft.lib.misc.LocaleUtil;
 import buildcraft.transport.BCTransportSprites;
 import buildcraft.transport.BCTransportStatements;
 
-public class TriggerLightSensor extends BCStatement implements ITriggerInternalSided {
+public class TriggerLightSensor extends BCStatement implements ITriggerInternalSided, IScheduledTrigger {
     private final boolean bright;
 
     public TriggerLightSensor(boolean bright) {
@@ -49,4 +50,15 @@ public class TriggerLightSensor extends BCStatement implements ITriggerInternalS
     public SpriteHolder getSpriteHolder() {
         return bright ? BCTransportSprites.TRIGGER_LIGHT_HIGH : BCTransportSprites.TRIGGER_LIGHT_LOW;
     }
+
+    @Override
+    public int getDependencies() {
+        return DEPENDS_NEIGHBOUR;
+    }
+
+    @Override
+    public int getPollInterval() {
+        // Daylight changes without any block updates
+        return 20;
+    }
 }
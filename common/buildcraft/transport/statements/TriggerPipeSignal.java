@@ -19,13 +19,14 @@ import buildcraft.api.statements.ITriggerInternal;
 import buildcraft.api.transport.IWireManager;
 
 import buildcraft.core.statements.BCStatement;
+import buildcraft.core.statements.IScheduledTrigger;
 import buildcraft.lib.client.sprite.SpriteHolderRegistry.SpriteHolder;
 import buildcraft.lib.misc.ColourUtil;
 import buildcraft.lib.misc.LocaleUtil;
 import buildcraft.transport.BCTransportSprites;
 import buildcraft.transport.BCTransportStatements;
 
-public class TriggerPipeSignal extends BCStatement implements ITriggerInternal {
+public class TriggerPipeSignal extends BCStatement implements ITriggerInternal, IScheduledTrigger {
 
     private final boolean active;
     private final EnumDyeColor colour;
@@ -99,4 +100,14 @@ public class TriggerPipeSignal extends BCStatement implements ITriggerInternal {
     public IStatement[] getPossible() {
         return BCTransportStatements.TRIGGER_PIPE_SIGNAL;
     }
+
+    @Override
+    public int getDependencies() {
+        return DEPENDS_WIRE;
+    }
+
+    @Override
+    public int getPollInterval() {
+        return 0;
+    }
 }
@@ -16,6 +16,7 @@ import net.minecraft.util.EnumFacing;
 import net.minecraft.util.ITickable;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
 
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -33,8 +34,12 @@ import buildcraft.lib.tile.TileBC_Neptune;
 import buildcraft.transport.pipe.Pipe;
 import buildcraft.transport.pipe.PipeEventBus;
 import buildcraft.transport.pipe.PluggableHolder;
+import buildcraft.transport.pipe.flow.PipeFlowPower;
+import buildcraft.transport.gate.GateLogic;
 import buildcraft.transport.plug.FilterEventHandler;
+import buildcraft.transport.plug.PluggableGate;
 import buildcraft.transport.wire.WireManager;
+import buildcraft.transport.wire.WorldSavedDataWireSystems;
 
 public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITickable, IDebuggable {
 
@@ -63,6 +68,9 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITick
         NET_UPDATE_PLUG_WEST, NET_UPDATE_PLUG_EAST,//
     };
 
+    /** Network statistics, shown in the debug info of pipes. */
+    public static long statUpdatePackets, statUpdateParts;
+
     private static int getReceiverId(PipeMessageReceiver type) {
         return NET_UPDATE_MULTI + 1 + type.ordinal();
     }
@@ -74,7 +82,19 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITick
     private boolean scheduleRenderUpdate = true;
     private final Set<PipeMessageReceiver> networkUpdates = EnumSet.noneOf(PipeMessageReceiver.class);
     private final Set<PipeMessageReceiver> networkGuiUpdates = EnumSet.noneOf(PipeMessageReceiver.class);
-    private final Map<EnumFacing, WeakReference<TileEntity>> neighbourTiles = new EnumMap<>(EnumFacing.class);
+    /** The parts that are written out by the next {@link #NET_UPDATE_MULTI} message. */
+    private final Set<PipeMessageReceiver> multiUpdateParts = EnumSet.noneOf(PipeMessageReceiver.class);
+
+    /** The tile entity on every side of this pipe, or null if it hasn't been looked up yet (or there wasn't one). This
+     * is cleared by {@link #refreshNeighbours()} and {@link #invalidateNeighbour(EnumFacing)}. */
+    @SuppressWarnings("unchecked")
+    private final WeakReference<TileEntity>[] neighbourTiles = new WeakReference[6];
+    /** True if {@link #neighbourTiles} has been looked up for that side, even if nothing was there. */
+    private final boolean[] neighbourCached = new boolean[6];
+    /** The chunk that the neighbour is in, but only if it is different to this pipe's chunk. Tiles don't get
+     * invalidated when their chunk unloads so this is checked instead. */
+    private final Chunk[] neighbourChunks = new Chunk[6];
+    private long neighbourCacheHits, neighbourCacheMisses;
 
     public TilePipeHolder() {
         for (EnumFacing side : EnumFacing.VALUES) {
@@ -149,20 +169,29 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITick
         scheduleRenderUpdate();
     }
 
+    /** Clears the cached neighbour tiles on every side. */
     public void refreshNeighbours() {
         for (EnumFacing face : EnumFacing.VALUES) {
-            WeakReference<TileEntity> current = neighbourTiles.get(face);
-            if (current != null) {
-                TileEntity tile = current.get();
-                if (tile == null || tile.isInvalid()) {
-                    neighbourTiles.remove(face);
-                } else {
-                    continue;
-                }
-            }
-            TileEntity tile = world.getTileEntity(getPos().offset(face));
-            if (tile != null) {
-                neighbourTiles.put(face, new WeakReference<>(tile));
+            invalidateNeighbour(face);
+        }
+    }
+
+    /** Clears the cached neighbour tile on a single side. */
+    public void invalidateNeighbour(EnumFacing side) {
+        int index = side.ordinal();
+        neighbourTiles[index] = null;
+        neighbourCached[index] = false;
+        neighbourChunks[index] = null;
+    }
+
+    /** Tells every gate on this pipe that something that their triggers might depend on has changed.
+     *
+     * @param changed A combination of the {@link buildcraft.core.statements.IScheduledTrigger} DEPENDS_ flags. */
+    public void signalGates(int changed) {
+        for (EnumFacing face : EnumFacing.VALUES) {
+            PipePluggable plug = getPluggable(face);
+            if (plug instanceof PluggableGate) {
+                ((PluggableGate) plug).logic.signalDependency(changed);
             }
         }
     }
@@ -170,9 +199,24 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITick
     @Override
     public void invalidate() {
         super.invalidate();
+        refreshNeighbours();
+        invalidatePowerNetwork();
         wireManager.removeParts(new ArrayList<>(wireManager.parts.keySet()));
     }
 
+    @Override
+    public void onChunkUnload() {
+        super.onChunkUnload();
+        refreshNeighbours();
+        invalidatePowerNetwork();
+    }
+
+    private void invalidatePowerNetwork() {
+        if (pipe != null && pipe.flow instanceof PipeFlowPower) {
+            ((PipeFlowPower) pipe.flow).invalidateNetwork();
+        }
+    }
+
     // ITickable
 
     @Override
@@ -187,22 +231,14 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITick
 
         // Send network updates
         if (networkUpdates.size() > 0) {
-            // TODO: Multi-update messages! (multiple updates sent in a single message)
-            Set<PipeMessageReceiver> parts = EnumSet.copyOf(networkUpdates);
-            for (PipeMessageReceiver part : parts) {
-                sendNetworkUpdate(getReceiverId(part));
-            }
+            sendPartUpdates(networkUpdates, false);
         }
         // No need to send gui updates to specific players if we just sent off messages to all players.
         networkGuiUpdates.removeAll(networkUpdates);
         networkUpdates.clear();
 
         if (networkGuiUpdates.size() > 0) {
-            // TODO: Multi-update messages! (multiple updates sent in a single message)
-            Set<PipeMessageReceiver> parts = EnumSet.copyOf(networkGuiUpdates);
-            for (PipeMessageReceiver part : parts) {
-                sendNetworkGuiUpdate(getReceiverId(part));
-            }
+            sendPartUpdates(networkGuiUpdates, true);
         }
         networkGuiUpdates.clear();
 
@@ -219,11 +255,42 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITick
 
     // Network
 
+    /** Sends every one of the given parts in a single message. If there is only one part then it is sent on its own,
+     * as that doesn't need the {@link #NET_UPDATE_MULTI} header. */
+    private void sendPartUpdates(Set<PipeMessageReceiver> parts, boolean guiOnly) {
+        int id;
+        if (parts.size() == 1) {
+            id = getReceiverId(parts.iterator().next());
+        } else {
+            id = NET_UPDATE_MULTI;
+            multiUpdateParts.clear();
+            multiUpdateParts.addAll(parts);
+        }
+        if (guiOnly) {
+            sendNetworkGuiUpdate(id);
+        } else {
+            sendNetworkUpdate(id);
+        }
+        statUpdatePackets++;
+        statUpdateParts += parts.size();
+    }
+
     @Override
     public void writePayload(int id, PacketBufferBC buffer, Side side) {
         super.writePayload(id, buffer, side);
         if (side == Side.SERVER) {
-            if (id == NET_RENDER_DATA) {
+            if (id == NET_UPDATE_MULTI) {
+                int total = 0;
+                for (PipeMessageReceiver type : multiUpdateParts) {
+                    total |= 1 << type.ordinal();
+                }
+                buffer.writeShort(total);
+                for (PipeMessageReceiver type : PipeMessageReceiver.VALUES) {
+                    if (multiUpdateParts.contains(type)) {
+                        writePayload(getReceiverId(type), buffer, side);
+                    }
+                }
+            } else if (id == NET_RENDER_DATA) {
                 if (pipe == null) {
                     buffer.writeBoolean(false);
                 } else {
@@ -246,6 +313,8 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITick
                     buffer.writeBoolean(false);
                 } else {
                     buffer.writeBoolean(true);
+                    // The client reads this id back, so it must be written for multi-part messages to line up
+                    buffer.writeShort(PipeFlow.NET_ID_UPDATE);
                     pipe.flow.writePayload(PipeFlow.NET_ID_UPDATE, buffer, side);
                 }
             } else if (id == NET_UPDATE_PLUG_DOWN) pluggables.get(EnumFacing.DOWN).writePayload(buffer, side);
@@ -280,7 +349,7 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITick
                 }
                 wireManager.readPayload(buffer, side, ctx);
             } else if (id == NET_UPDATE_MULTI) {
-                int total = buffer.readUnsignedByte();
+                int total = buffer.readUnsignedShort();
                 for (PipeMessageReceiver type : PipeMessageReceiver.VALUES) {
                     if (((total >> type.ordinal()) & 1) == 1) {
                         readPayload(getReceiverId(type), buffer, side, ctx);
@@ -363,20 +432,34 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITick
     @Override
     public TileEntity getNeighbouringTile(EnumFacing side) {
         if (side == null) return null;
-        return world.getTileEntity(getPos().offset(side));
-        // TODO: Make caching work!
-        // WeakReference<TileEntity> weakRef = neighbourTiles.get(side);
-        // if (weakRef == null) {
-        // return null;
-        // }
-        // TileEntity tile = weakRef.get();
-        // if (tile == null) {
-        // return null;
-        // } else if (tile.isInvalid()) {
-        // neighbourTiles.remove(side);
-        // return null;
-        // }
-        // return tile;
+        if (world.isRemote) {
+            // Clients don't get neighbour change notifications, so the cache would never be cleared
+            return world.getTileEntity(getPos().offset(side));
+        }
+        int index = side.ordinal();
+        if (neighbourCached[index]) {
+            WeakReference<TileEntity> ref = neighbourTiles[index];
+            TileEntity tile = ref == null ? null : ref.get();
+            Chunk chunk = neighbourChunks[index];
+            if ((ref == null || (tile != null && !tile.isInvalid())) && (chunk == null || chunk.isLoaded())) {
+                neighbourCacheHits++;
+                return tile;
+            }
+            invalidateNeighbour(side);
+        }
+        neighbourCacheMisses++;
+        BlockPos offset = getPos().offset(side);
+        if (!world.isBlockLoaded(offset, false)) {
+            // Don't cache anything, as the chunk might be loaded later without a neighbour change
+            return null;
+        }
+        TileEntity tile = world.getTileEntity(offset);
+        neighbourTiles[index] = tile == null ? null : new WeakReference<>(tile);
+        neighbourCached[index] = true;
+        if ((offset.getX() >> 4) != (getPos().getX() >> 4) || (offset.getZ() >> 4) != (getPos().getZ() >> 4)) {
+            neighbourChunks[index] = world.getChunkFromBlockCoords(offset);
+        }
+        return tile;
     }
 
     @Override
@@ -402,6 +485,8 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITick
             }
         }
         if (pipe.isConnected(side)) {
+            // Only the tile is cached: tiles can change their capabilities without telling their neighbours (such as
+            // a chest becoming a double chest), so those are always asked for again
             TileEntity neighour = getNeighbouringTile(side);
             if (neighour != null) {
                 return neighour.getCapability(capability, side.getOpposite());
@@ -488,7 +573,14 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITick
         }
         left.add("Parts:");
         wireManager.parts.forEach((part, color) -> left.add(" - " + part + " = " + color + " = " + wireManager.isPowered(part)));
+        left.add("Network updates: " + statUpdateParts + " parts in " + statUpdatePackets + " packets");
+        left.add("Neighbour cache: hits = " + neighbourCacheHits + ", misses = " + neighbourCacheMisses);
         left.add("All wire systems in world count = " + (world.isRemote ? 0 : wireManager.getWireSystems().wireSystems.size()));
+        if (!world.isRemote) {
+            WorldSavedDataWireSystems wireSystems = wireManager.getWireSystems();
+            left.add("Wire emitter checks = " + wireSystems.statFullUpdates + ", emitter updates = " + wireSystems.statEmitterUpdates);
+            left.add("Gates last tick: evaluated = " + GateLogic.statEvaluated + ", skipped = " + GateLogic.statSkipped);
+        }
     }
 
     @Override
@@ -1,50 +1,80 @@
 package buildcraft.transport.wire;
 
 import io.netty.buffer.ByteBuf;
+import net.minecraft.client.Minecraft;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.tileentity.TileEntity;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 
+import buildcraft.api.transport.IWireManager;
+import buildcraft.api.transport.pipe.IPipeHolder;
+
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+/** Every change to the wire systems that a single player can see since the last message: the systems (by hash) that
+ * should be removed, the new systems, and the new powered state of any system. */
 public class MessageWireSystems implements IMessage {
-    private Map<Integer, WireSystem> wireSystems = new HashMap<>();
+    /** If true then the client should forget every wire system before applying the rest of this message. */
+    public boolean clear;
+    public final List<Integer> removed = new ArrayList<>();
+    public final Map<Integer, WireSystem> added = new HashMap<>();
+    public final Map<Integer, Boolean> powered = new HashMap<>();
 
     public MessageWireSystems() {
     }
 
-    public MessageWireSystems(Map<Integer, WireSystem> wireSystems) {
-        this.wireSystems = wireSystems;
-    }
-
     @Override
     public void toBytes(ByteBuf buf) {
-        buf.writeInt(wireSystems.size());
-        wireSystems.forEach((wiresHashCode, wireSystem) -> {
-            buf.writeInt(wiresHashCode);
+        PacketBuffer buffer = new PacketBuffer(buf);
+        buffer.writeBoolean(clear);
+        buffer.writeVarInt(removed.size());
+        removed.forEach(buffer::writeInt);
+        buffer.writeVarInt(added.size());
+        added.forEach((wiresHashCode, wireSystem) -> {
+            buffer.writeInt(wiresHashCode);
             List<WireSystem.WireElement> elements = wireSystem.elements.stream()
                     .filter(element -> element.type == WireSystem.WireElement.Type.WIRE_PART)
                     .collect(Collectors.toList());
-            buf.writeInt(elements.size());
-            elements.forEach(element -> element.toBytes(buf));
+            buffer.writeVarInt(elements.size());
+            elements.forEach(element -> element.toBytes(buffer));
+        });
+        buffer.writeVarInt(powered.size());
+        powered.forEach((wiresHashCode, isPowered) -> {
+            buffer.writeInt(wiresHashCode);
+            buffer.writeBoolean(isPowered);
         });
     }
 
     @Override
     public void fromBytes(ByteBuf buf) {
-        wireSystems.clear();
-        int count = buf.readInt();
+        PacketBuffer buffer = new PacketBuffer(buf);
+        removed.clear();
+        added.clear();
+        powered.clear();
+        clear = buffer.readBoolean();
+        int count = buffer.readVarInt();
+        for(int i = 0; i < count; i++) {
+            removed.add(buffer.readInt());
+        }
+        count = buffer.readVarInt();
         for(int i = 0; i < count; i++) {
             WireSystem wireSystem = new WireSystem();
-            int wiresHashCode = buf.readInt();
-            int localCount = buf.readInt();
+            int wiresHashCode = buffer.readInt();
+            int localCount = buffer.readVarInt();
             for(int j = 0; j < localCount; j++) {
-                wireSystem.elements.add(new WireSystem.WireElement(buf));
+                wireSystem.elements.add(new WireSystem.WireElement(buffer));
             }
-            wireSystems.put(wiresHashCode, wireSystem);
+            added.put(wiresHashCode, wireSystem);
+        }
+        count = buffer.readVarInt();
+        for(int i = 0; i < count; i++) {
+            powered.put(buffer.readInt(), buffer.readBoolean());
         }
     }
 
@@ -53,9 +83,41 @@ public class MessageWireSystems implements IMessage {
 
         @Override
         public IMessage onMessage(MessageWireSystems message, MessageContext ctx) {
-            ClientWireSystems.INSTANCE.wireSystems.clear();
-            ClientWireSystems.INSTANCE.wireSystems.putAll(message.wireSystems);
+            Map<Integer, WireSystem> wireSystems = ClientWireSystems.INSTANCE.wireSystems;
+            if(message.clear) {
+                wireSystems.clear();
+            }
+            message.removed.forEach(wireSystems::remove);
+            wireSystems.putAll(message.added);
+            message.powered.forEach((wiresHashCode, powered) -> {
+                WireSystem wireSystem = wireSystems.get(wiresHashCode);
+                if(wireSystem != null) {
+                    setPowered(wireSystem, powered);
+                }
+            });
             return null;
         }
+
+        private static void setPowered(WireSystem wireSystem, boolean powered) {
+            for(WireSystem.WireElement element : wireSystem.elements) {
+                if(element.type == WireSystem.WireElement.Type.WIRE_PART) {
+                    TileEntity tile = Minecraft.getMinecraft().world.getTileEntity(element.blockPos);
+                    if(tile instanceof IPipeHolder) {
+                        IPipeHolder holder = (IPipeHolder) tile;
+                        IWireManager iWireManager = holder.getWireManager();
+                        if(iWireManager instanceof WireManager) {
+                            WireManager wireManager = (WireManager) iWireManager;
+                            if(wireManager.getColorOfPart(element.wirePart) != null) {
+                                if(powered) {
+                                    wireManager.poweredClient.add(element.wirePart);
+                                } else {
+                                    wireManager.poweredClient.remove(element.wirePart);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
     }
 }
@@ -46,7 +46,7 @@ public class WireManager implements IWireManager {
         if (getColorOfPart(part) == null) {
             parts.put(part, colour);
             if (!holder.getPipeWorld().isRemote) {
-                getWireSystems().buildAndAddWireSystem(new WireSystem.WireElement(holder.getPipePos(), part));
+                getWireSystems().addWirePart(holder, part, colour);
                 holder.getPipeTile().markDirty();
             }
             updateBetweens(false);
@@ -64,9 +64,7 @@ public class WireManager implements IWireManager {
         } else {
             parts.remove(part);
             if (!holder.getPipeWorld().isRemote) {
-                WireSystem.WireElement element = new WireSystem.WireElement(holder.getPipePos(), part);
-                WireSystem.getConnectedElementsOfElement(holder, element).forEach(getWireSystems()::buildAndAddWireSystem);
-                getWireSystems().getWireSystemsWithElement(element).forEach(getWireSystems()::removeWireSystem);
+                getWireSystems().removeWirePart(holder, part);
                 holder.getPipeTile().markDirty();
             }
             updateBetweens(false);
@@ -77,15 +75,10 @@ public class WireManager implements IWireManager {
     public void removeParts(Collection<EnumWirePart> parts) {
         parts.forEach(this.parts::remove);
         if (!holder.getPipeWorld().isRemote) {
-            parts.stream()
-                    .map(part -> new WireSystem.WireElement(holder.getPipePos(), part))
-                    .flatMap(element -> WireSystem.getConnectedElementsOfElement(holder, element).stream())
-                    .distinct()
-                    .forEach(getWireSystems()::buildAndAddWireSystem);
-            parts.stream()
-                    .map(part -> new WireSystem.WireElement(holder.getPipePos(), part))
-                    .flatMap(element -> getWireSystems().getWireSystemsWithElement(element).stream()).
-                    forEach(getWireSystems()::removeWireSystem);
+            WorldSavedDataWireSystems wireSystems = getWireSystems();
+            for (EnumWirePart part : parts) {
+                wireSystems.removeWirePart(holder, part);
+            }
             holder.getPipeTile().markDirty();
         }
         updateBetweens(false);
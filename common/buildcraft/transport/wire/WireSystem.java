@@ -36,6 +36,9 @@ import io.netty.buffer.ByteBuf;
 public class WireSystem {
     public final List<WireElement> elements = new ArrayList<>();
     public EnumDyeColor color = null;
+    /** The number of emitters in this system that are emitting {@link #color}. Only used on the server, by
+     * {@link WorldSavedDataWireSystems}. */
+    int emittingCount;
 
     public boolean hasElement(WireElement element) {
         return elements.contains(element);
@@ -120,7 +123,9 @@ public class WireSystem {
                             wireSystems.getWireSystemsWithElement(element).stream().filter(wireSystem -> wireSystem != this && wireSystem.color == this.color).forEach(wireSystems::removeWireSystem);
                             elements.add(element);
                             queue.addAll(getConnectedElementsOfElement(wireSystems.world, element));
-                            Arrays.stream(EnumFacing.values()).forEach(side -> queue.add(new WireElement(element.blockPos, side)));
+                            for (EnumFacing side : EnumFacing.VALUES) {
+                                queue.add(new WireElement(element.blockPos, side));
+                            }
                         }
                     } else if (element.type == WireElement.Type.EMITTER_SIDE) {
                         if (holder.getPluggable(element.emitterSide) instanceof PluggableGate) {
@@ -135,7 +140,9 @@ public class WireSystem {
         while (!queue.isEmpty()) {
             build.accept(queue.remove());
         }
-        BCLog.logger.info("[transport.wire] Wire rebuild took " + (System.currentTimeMillis() - time) + "ms");
+        if (WorldSavedDataWireSystems.DEBUG) {
+            BCLog.logger.info("[transport.wire] Wire rebuild of " + elements.size() + " elements took " + (System.currentTimeMillis() - time) + "ms");
+        }
         return this;
     }
 
@@ -143,9 +150,18 @@ public class WireSystem {
         return elements.stream().filter(element -> element.type == WireElement.Type.WIRE_PART).count() == 0;
     }
 
+    /** Recounts every emitter in this system that is emitting its colour.
+     *
+     * @return True if this system is powered. */
     public boolean update(WorldSavedDataWireSystems wireSystems) {
-        return elements.stream().filter(element -> element.type == WireElement.Type.EMITTER_SIDE).map(element -> wireSystems.isEmitterEmitting(element, color)).reduce(Boolean::logicalOr).orElse(
-            false);
+        int count = 0;
+        for (WireElement element : elements) {
+            if (element.type == WireElement.Type.EMITTER_SIDE && wireSystems.countEmitter(element, color)) {
+                count++;
+            }
+        }
+        emittingCount = count;
+        return count > 0;
     }
 
     public List<ChunkPos> getChunkPoses() {
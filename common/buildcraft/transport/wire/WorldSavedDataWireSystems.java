@@ -1,24 +1,24 @@
 package buildcraft.transport.wire;
 
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
-import com.google.common.base.Predicates;
-
-import org.apache.commons.lang3.tuple.Pair;
+import javax.annotation.Nullable;
 
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.item.EnumDyeColor;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
 import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldSavedData;
 import net.minecraft.world.storage.MapStorage;
 
 import net.minecraftforge.common.util.Constants;
 
+import buildcraft.api.core.BCDebugging;
 import buildcraft.api.core.BCLog;
 import buildcraft.api.transport.EnumWirePart;
 import buildcraft.api.transport.pipe.IPipeHolder;
@@ -28,13 +28,42 @@ import buildcraft.transport.plug.PluggableGate;
 
 public class WorldSavedDataWireSystems extends WorldSavedData {
     public static final String DATA_NAME = "buildcraft_wire_systems";
+    public static final boolean DEBUG = BCDebugging.shouldDebugLog("transport.wire");
+
     public World world;
-    public final Map<WireSystem, Boolean> wireSystems = new HashMap<>();
+    /** Every wire system in the world, mapped to whether it is powered or not. This uses identity equality as wire
+     * systems are modified in place when wires are added or removed. */
+    public final Map<WireSystem, Boolean> wireSystems = new IdentityHashMap<>();
+    /** True if every wire system needs to count its emitters again. This is only needed after loading, as the
+     * emitter counts aren't saved: every other change only recounts the systems that it touched. */
     public boolean gatesChanged = true;
     public boolean structureChanged = true;
-    public final List<WireSystem> changedSystems = new ArrayList<>();
-    public final List<EntityPlayerMP> changedPlayers = new ArrayList<>();
+    /** Every wire system that has changed whether it is powered since the last tick. */
+    public final Set<WireSystem> changedSystems = Collections.newSetFromMap(new IdentityHashMap<>());
     public final Map<WireSystem.WireElement, IWireEmitter> emittersCache = new HashMap<>();
+    /** Maps {@link BlockPos#toLong()} to the wire system of every wire part at that position, indexed by
+     * {@link EnumWirePart#ordinal()}. */
+    private final Map<Long, WireSystem[]> partIndex = new HashMap<>();
+    /** Maps every emitter to all of the wire systems (one per colour) that it emits into. */
+    private final Map<WireSystem.WireElement, List<WireSystem>> emitterIndex = new HashMap<>();
+    /** The colours that every indexed emitter was last counted as emitting, as a mask of {@link EnumDyeColor}
+     * ordinals. Each {@link WireSystem#emittingCount} is the number of its emitters with its colour set in here. */
+    private final Map<WireSystem.WireElement, Integer> emitterColours = new HashMap<>();
+    /** Maps {@link ChunkPos#asLong(int, int)} to every wire system with elements in that chunk, and how many of its
+     * elements are in it. */
+    private final Map<Long, Map<WireSystem, Integer>> chunkIndex = new HashMap<>();
+    /** Every chunk with a wire system that has changed shape since the last tick. */
+    private final Set<Long> changedChunks = new HashSet<>();
+    /** A cache of {@link WireSystem#getWiresHashCode()}, which is removed whenever a system changes shape. */
+    private final Map<WireSystem, Integer> hashCache = new IdentityHashMap<>();
+    private final Map<EntityPlayerMP, PlayerSync> players = new IdentityHashMap<>();
+    /** Incremented at the end of every tick in which any wire system changed shape or whether it is powered. Gates
+     * with wire triggers compare this to the last value they saw to find out if they need to test them again. */
+    private long wireVersion;
+
+    /** The number of emitters checked by full recounts, and the number of wire systems changed by a single emitter
+     * changing. For debugging. */
+    public long statFullUpdates, statEmitterUpdates;
 
     public WorldSavedDataWireSystems() {
         super(DATA_NAME);
@@ -44,37 +73,392 @@ public class WorldSavedDataWireSystems extends WorldSavedData {
         super(name);
     }
 
+    /** Marks the shape of the wire systems as changed, so that they are saved and synced. This doesn't recount any
+     * emitters: every change recounts only the systems that it touched with {@link #recount(WireSystem)}. */
     public void markStructureChanged() {
         structureChanged = true;
-        gatesChanged = true;
-        emittersCache.clear();
     }
 
+    // Element index
+
     public List<WireSystem> getWireSystemsWithElement(WireSystem.WireElement element) {
-        return wireSystems.keySet().stream().filter(wireSystem -> wireSystem.hasElement(element)).collect(Collectors.toList());
+        if (element.type == WireSystem.WireElement.Type.WIRE_PART) {
+            WireSystem system = getWireSystemOfPart(element.blockPos, element.wirePart);
+            return system == null ? Collections.emptyList() : Collections.singletonList(system);
+        }
+        List<WireSystem> systems = emitterIndex.get(element);
+        return systems == null ? Collections.emptyList() : new ArrayList<>(systems);
+    }
+
+    @Nullable
+    public WireSystem getWireSystemOfPart(BlockPos pos, EnumWirePart part) {
+        WireSystem[] systems = partIndex.get(pos.toLong());
+        return systems == null ? null : systems[part.ordinal()];
+    }
+
+    boolean isInSystem(WireSystem system, WireSystem.WireElement element) {
+        if (element.type == WireSystem.WireElement.Type.WIRE_PART) {
+            return getWireSystemOfPart(element.blockPos, element.wirePart) == system;
+        }
+        List<WireSystem> systems = emitterIndex.get(element);
+        return systems != null && systems.contains(system);
+    }
+
+    private void index(WireSystem system, WireSystem.WireElement element) {
+        if (element.type == WireSystem.WireElement.Type.WIRE_PART) {
+            WireSystem[] systems = partIndex.computeIfAbsent(element.blockPos.toLong(), k -> new WireSystem[EnumWirePart.VALUES.length]);
+            WireSystem old = systems[element.wirePart.ordinal()];
+            if (old != system) {
+                if (old != null) {
+                    indexChunk(old, element.blockPos, -1);
+                }
+                systems[element.wirePart.ordinal()] = system;
+                indexChunk(system, element.blockPos, 1);
+            }
+        } else {
+            List<WireSystem> systems = emitterIndex.computeIfAbsent(element, k -> new ArrayList<>(1));
+            if (!systems.contains(system)) {
+                systems.add(system);
+                indexChunk(system, element.blockPos, 1);
+            }
+        }
+    }
+
+    private void unindex(WireSystem system, WireSystem.WireElement element) {
+        if (element.type == WireSystem.WireElement.Type.WIRE_PART) {
+            long key = element.blockPos.toLong();
+            WireSystem[] systems = partIndex.get(key);
+            if (systems != null && systems[element.wirePart.ordinal()] == system) {
+                systems[element.wirePart.ordinal()] = null;
+                indexChunk(system, element.blockPos, -1);
+                for (WireSystem other : systems) {
+                    if (other != null) {
+                        return;
+                    }
+                }
+                partIndex.remove(key);
+            }
+        } else {
+            List<WireSystem> systems = emitterIndex.get(element);
+            if (systems != null && systems.remove(system)) {
+                indexChunk(system, element.blockPos, -1);
+                if (systems.isEmpty()) {
+                    emitterIndex.remove(element);
+                    emitterColours.remove(element);
+                    emittersCache.remove(element);
+                }
+            }
+        }
+    }
+
+    /** Changes the number of elements of the given system in the chunk of the given position. */
+    private void indexChunk(WireSystem system, BlockPos pos, int delta) {
+        long key = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+        changedChunks.add(key);
+        hashCache.remove(system);
+        Map<WireSystem, Integer> systems = chunkIndex.computeIfAbsent(key, k -> new IdentityHashMap<>());
+        int count = systems.getOrDefault(system, 0) + delta;
+        if (count > 0) {
+            systems.put(system, count);
+        } else {
+            systems.remove(system);
+            if (systems.isEmpty()) {
+                chunkIndex.remove(key);
+            }
+        }
+    }
+
+    private int getWiresHashCode(WireSystem system) {
+        return hashCache.computeIfAbsent(system, WireSystem::getWiresHashCode);
+    }
+
+    /** Adds the given element to the given wire system, if it wasn't already in it. */
+    void addElement(WireSystem system, WireSystem.WireElement element) {
+        if (!isInSystem(system, element)) {
+            system.elements.add(element);
+            index(system, element);
+        }
+    }
+
+    public void addWireSystem(WireSystem wireSystem) {
+        for (WireSystem.WireElement element : wireSystem.elements) {
+            index(wireSystem, element);
+        }
+        recount(wireSystem);
+        markStructureChanged();
     }
 
     public void removeWireSystem(WireSystem wireSystem) {
-        wireSystems.remove(wireSystem);
+        if (wireSystems.remove(wireSystem) != null) {
+            for (WireSystem.WireElement element : wireSystem.elements) {
+                unindex(wireSystem, element);
+            }
+        }
         markStructureChanged();
     }
 
+    // Full rebuilds
+
     public void buildAndAddWireSystem(WireSystem.WireElement element) {
         WireSystem wireSystem = new WireSystem().build(this, element);
-        if(!wireSystem.isEmpty()) {
-            wireSystems.put(wireSystem, false);
-            wireSystems.put(wireSystem, wireSystem.update(this));
+        if (!wireSystem.isEmpty()) {
+            addWireSystem(wireSystem);
         }
         markStructureChanged();
     }
 
     public void rebuildWireSystemsAround(IPipeHolder holder) {
+        // The gates on this holder might have been added, removed or replaced
+        for (EnumFacing side : EnumFacing.VALUES) {
+            WireSystem.WireElement emitter = new WireSystem.WireElement(holder.getPipePos(), side);
+            emittersCache.remove(emitter);
+            emitterColours.remove(emitter);
+        }
         Arrays.stream(EnumWirePart.values())
                 .flatMap(part -> WireSystem.getConnectedElementsOfElement(world, new WireSystem.WireElement(holder.getPipePos(), part)).stream())
                 .distinct()
                 .forEach(this::buildAndAddWireSystem);
     }
 
+    // Incremental changes
+
+    /** Called after a wire part has been added to the given holder. This either creates a new wire system, adds the
+     * part to an adjacent system, or merges every adjacent system of the same colour into the largest one. */
+    public void addWirePart(IPipeHolder holder, EnumWirePart part, EnumDyeColor colour) {
+        long start = System.nanoTime();
+        WireSystem.WireElement element = new WireSystem.WireElement(holder.getPipePos(), part);
+        List<WireSystem> adjacent = new ArrayList<>();
+        for (WireSystem.WireElement other : WireSystem.getConnectedElementsOfElement(holder, element)) {
+            WireSystem system = getWireSystemOfPart(other.blockPos, other.wirePart);
+            if (system != null && system.color == colour && !adjacent.contains(system)) {
+                adjacent.add(system);
+            }
+        }
+
+        WireSystem into;
+        if (adjacent.isEmpty()) {
+            into = new WireSystem();
+            into.color = colour;
+            wireSystems.put(into, false);
+        } else {
+            into = adjacent.get(0);
+            for (WireSystem system : adjacent) {
+                if (system.elements.size() > into.elements.size()) {
+                    into = system;
+                }
+            }
+            // Always merge the smaller systems into the larger one
+            for (WireSystem system : adjacent) {
+                if (system != into) {
+                    wireSystems.remove(system);
+                    for (WireSystem.WireElement moved : system.elements) {
+                        unindex(system, moved);
+                        addElement(into, moved);
+                    }
+                }
+            }
+        }
+        addElement(into, element);
+        addEmitters(into, holder);
+        recount(into);
+        markStructureChanged();
+        if (DEBUG) {
+            BCLog.logger.info("[transport.wire] Added a wire part to a system of " + into.elements.size() + " elements (merging "
+                + adjacent.size() + ") in " + (System.nanoTime() - start) / 1000 + "us");
+        }
+    }
+
+    /** Called after a wire part has been removed from the given holder. This removes the part from its wire system,
+     * and then searches outwards from each of its neighbours at the same time to find out if the system has been split
+     * into several pieces. Only the smaller pieces are fully explored, as the search stops as soon as a single piece
+     * remains unexplored. */
+    public void removeWirePart(IPipeHolder holder, EnumWirePart part) {
+        long start = System.nanoTime();
+        WireSystem.WireElement element = new WireSystem.WireElement(holder.getPipePos(), part);
+        WireSystem system = getWireSystemOfPart(element.blockPos, part);
+        if (system == null) {
+            return;
+        }
+        List<WireSystem.WireElement> starts = new ArrayList<>();
+        for (WireSystem.WireElement other : WireSystem.getConnectedElementsOfElement(holder, element)) {
+            if (!other.equals(element) && isInSystem(system, other)) {
+                starts.add(other);
+            }
+        }
+        unindex(system, element);
+        system.elements.remove(element);
+
+        List<Set<WireSystem.WireElement>> pieces = starts.size() > 1 ? findSplitPieces(system, starts) : Collections.emptyList();
+        for (Set<WireSystem.WireElement> piece : pieces) {
+            WireSystem split = new WireSystem();
+            split.color = system.color;
+            Set<BlockPos> positions = new HashSet<>();
+            for (WireSystem.WireElement moved : piece) {
+                unindex(system, moved);
+                positions.add(moved.blockPos);
+            }
+            system.elements.removeAll(piece);
+            split.elements.addAll(piece);
+            for (WireSystem.WireElement moved : piece) {
+                index(split, moved);
+            }
+            for (BlockPos pos : positions) {
+                moveEmitters(system, split, pos);
+            }
+            recount(split);
+        }
+
+        if (system.isEmpty()) {
+            removeWireSystem(system);
+        } else {
+            removeStaleEmitters(system, element.blockPos);
+            recount(system);
+        }
+        markStructureChanged();
+        if (DEBUG) {
+            BCLog.logger.info("[transport.wire] Removed a wire part from a system of " + system.elements.size() + " elements (split off "
+                + pieces.size() + ") in " + (System.nanoTime() - start) / 1000 + "us");
+        }
+    }
+
+    /** Searches outwards from every start element at once, one element at a time. Searches that meet are joined
+     * together, and searches that run out of elements have found a piece that is no longer connected to the rest.
+     *
+     * @return Every piece that should be split off from the given system. The largest piece is not included, as it
+     *         stays in the original system. */
+    private List<Set<WireSystem.WireElement>> findSplitPieces(WireSystem system, List<WireSystem.WireElement> starts) {
+        Map<WireSystem.WireElement, SplitSearch> owners = new HashMap<>();
+        List<SplitSearch> active = new ArrayList<>();
+        List<SplitSearch> finished = new ArrayList<>();
+        for (WireSystem.WireElement start : starts) {
+            if (owners.containsKey(start)) {
+                continue;
+            }
+            SplitSearch search = new SplitSearch();
+            search.visit(start, owners);
+            active.add(search);
+        }
+        while (active.size() > 1) {
+            for (int i = 0; i < active.size(); i++) {
+                SplitSearch search = active.get(i);
+                if (search.joined != null) {
+                    continue;
+                }
+                WireSystem.WireElement next = search.queue.poll();
+                if (next == null) {
+                    finished.add(search);
+                    search.joined = search;
+                    continue;
+                }
+                for (WireSystem.WireElement other : WireSystem.getConnectedElementsOfElement(world, next)) {
+                    if (!isInSystem(system, other)) {
+                        continue;
+                    }
+                    SplitSearch owner = owners.get(other);
+                    if (owner == null) {
+                        search.visit(other, owners);
+                    } else if (owner.joined == owner) {
+                        // Only happens if the connections are not symmetrical, but it's simple to handle anyway
+                        finished.remove(owner);
+                        search.join(owner, owners);
+                    } else if (owner != search) {
+                        // Both searches are in the same piece, so join the smaller one into the larger one
+                        SplitSearch larger = owner.visited.size() > search.visited.size() ? owner : search;
+                        SplitSearch smaller = larger == owner ? search : owner;
+                        larger.join(smaller, owners);
+                        search = larger;
+                    }
+                }
+            }
+            active.removeIf(search -> search.joined != null);
+        }
+        if (active.isEmpty()) {
+            // Every piece was fully explored, so keep the largest in the original system
+            SplitSearch largest = finished.get(0);
+            for (SplitSearch search : finished) {
+                if (search.visited.size() > largest.visited.size()) {
+                    largest = search;
+                }
+            }
+            finished.remove(largest);
+        }
+        List<Set<WireSystem.WireElement>> pieces = new ArrayList<>();
+        for (SplitSearch search : finished) {
+            pieces.add(search.visited);
+        }
+        return pieces;
+    }
+
+    private static class SplitSearch {
+        final Set<WireSystem.WireElement> visited = new HashSet<>();
+        final Deque<WireSystem.WireElement> queue = new ArrayDeque<>();
+        /** Non-null if this search has either finished (points to itself) or been joined into another search. */
+        SplitSearch joined;
+
+        void visit(WireSystem.WireElement element, Map<WireSystem.WireElement, SplitSearch> owners) {
+            visited.add(element);
+            queue.add(element);
+            owners.put(element, this);
+        }
+
+        void join(SplitSearch other, Map<WireSystem.WireElement, SplitSearch> owners) {
+            for (WireSystem.WireElement element : other.visited) {
+                owners.put(element, this);
+            }
+            visited.addAll(other.visited);
+            queue.addAll(other.queue);
+            other.visited.clear();
+            other.queue.clear();
+            other.joined = this;
+        }
+    }
+
+    private void addEmitters(WireSystem system, IPipeHolder holder) {
+        for (EnumFacing side : EnumFacing.VALUES) {
+            if (holder.getPluggable(side) instanceof PluggableGate) {
+                addElement(system, new WireSystem.WireElement(holder.getPipePos(), side));
+            }
+        }
+    }
+
+    private void moveEmitters(WireSystem from, WireSystem to, BlockPos pos) {
+        for (EnumFacing side : EnumFacing.VALUES) {
+            WireSystem.WireElement emitter = new WireSystem.WireElement(pos, side);
+            if (isInSystem(from, emitter)) {
+                if (!hasPartAt(from, pos)) {
+                    unindex(from, emitter);
+                    from.elements.remove(emitter);
+                }
+                addElement(to, emitter);
+            }
+        }
+    }
+
+    private void removeStaleEmitters(WireSystem system, BlockPos pos) {
+        if (hasPartAt(system, pos)) {
+            return;
+        }
+        for (EnumFacing side : EnumFacing.VALUES) {
+            WireSystem.WireElement emitter = new WireSystem.WireElement(pos, side);
+            if (isInSystem(system, emitter)) {
+                unindex(system, emitter);
+                system.elements.remove(emitter);
+            }
+        }
+    }
+
+    private boolean hasPartAt(WireSystem system, BlockPos pos) {
+        WireSystem[] systems = partIndex.get(pos.toLong());
+        if (systems != null) {
+            for (WireSystem other : systems) {
+                if (other == system) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     public IWireEmitter getEmitter(WireSystem.WireElement element) {
         if(element.type == WireSystem.WireElement.Type.EMITTER_SIDE) {
             if(!emittersCache.containsKey(element)) {
@@ -95,6 +479,78 @@ public class WorldSavedDataWireSystems extends WorldSavedData {
         return null;
     }
 
+    /** Checks if the given emitter is emitting the given colour. Every colour of the emitter is read, and remembered
+     * for {@link #emitterChanged(WireSystem.WireElement, Set)} and {@link #recount(WireSystem)}. */
+    boolean countEmitter(WireSystem.WireElement element, EnumDyeColor color) {
+        int mask = 0;
+        TileEntity tile = world.getTileEntity(element.blockPos);
+        if (tile instanceof IPipeHolder && ((IPipeHolder) tile).getPluggable(element.emitterSide) instanceof PluggableGate) {
+            IWireEmitter emitter = getEmitter(element);
+            for (EnumDyeColor colour : EnumDyeColor.values()) {
+                if (emitter.isEmitting(colour)) {
+                    mask |= 1 << colour.ordinal();
+                }
+            }
+        }
+        emitterColours.put(element, mask);
+        statFullUpdates++;
+        return (mask & (1 << color.ordinal())) != 0;
+    }
+
+    /** Counts the emitters of a single wire system that has just been created, merged or split. Emitters that have
+     * already been counted use their remembered colours, so only new emitters are read from the world. */
+    private void recount(WireSystem system) {
+        int bit = 1 << system.color.ordinal();
+        int count = 0;
+        for (WireSystem.WireElement element : system.elements) {
+            if (element.type != WireSystem.WireElement.Type.EMITTER_SIDE) {
+                continue;
+            }
+            Integer mask = emitterColours.get(element);
+            if (mask == null ? countEmitter(element, system.color) : (mask & bit) != 0) {
+                count++;
+            }
+        }
+        system.emittingCount = count;
+        boolean powered = count > 0;
+        Boolean wasPowered = wireSystems.put(system, powered);
+        if (wasPowered == null || wasPowered != powered) {
+            changedSystems.add(system);
+        }
+    }
+
+    /** Called when the colours that an emitter emits have changed. Only the wire systems that it emits into are
+     * changed, by adding or removing it from their count of emitting emitters, rather than recounting every wire
+     * system in the world. */
+    public void emitterChanged(WireSystem.WireElement emitter, Set<EnumDyeColor> emitting) {
+        List<WireSystem> systems = emitterIndex.get(emitter);
+        if (systems == null) {
+            return;
+        }
+        int mask = 0;
+        for (EnumDyeColor colour : emitting) {
+            mask |= 1 << colour.ordinal();
+        }
+        Integer old = emitterColours.put(emitter, mask);
+        int changed = (old == null ? 0 : old) ^ mask;
+        if (changed == 0) {
+            return;
+        }
+        for (WireSystem system : systems) {
+            int bit = 1 << system.color.ordinal();
+            if ((changed & bit) == 0) {
+                continue;
+            }
+            system.emittingCount = Math.max(0, system.emittingCount + ((mask & bit) != 0 ? 1 : -1));
+            boolean powered = system.emittingCount > 0;
+            Boolean wasPowered = wireSystems.put(system, powered);
+            if (wasPowered == null || wasPowered != powered) {
+                changedSystems.add(system);
+            }
+            statEmitterUpdates++;
+        }
+    }
+
     public boolean isEmitterEmitting(WireSystem.WireElement element, EnumDyeColor color) {
         TileEntity tile = world.getTileEntity(element.blockPos);
         if(tile instanceof IPipeHolder) {
@@ -106,39 +562,108 @@ public class WorldSavedDataWireSystems extends WorldSavedData {
         return false;
     }
 
+    // Syncing to players
+
+    public long getWireVersion() {
+        return wireVersion;
+    }
+
+    public void onChunkWatch(EntityPlayerMP player, ChunkPos chunk, boolean watching) {
+        PlayerSync sync = players.computeIfAbsent(player, p -> new PlayerSync());
+        long key = ChunkPos.asLong(chunk.chunkXPos, chunk.chunkZPos);
+        if (watching ? sync.watchedChunks.add(key) : sync.watchedChunks.remove(key)) {
+            sync.dirty = true;
+        }
+    }
+
     public void tick() {
         if(gatesChanged) {
-            wireSystems.keySet().stream()
-                    .filter(wireSystem -> {
-                        boolean newPowered = wireSystem.update(this);
-                        return wireSystems.put(wireSystem, newPowered) != newPowered;
-                    })
-                    .forEach(changedSystems::add);
-        }
-        world.getPlayers(EntityPlayerMP.class, Predicates.alwaysTrue()).forEach(player -> {
-            Map<Integer, WireSystem> wireSystems = this.wireSystems.keySet().stream()
-                    .filter(wireSystem -> wireSystem.isPlayerWatching(player) && (structureChanged || changedPlayers.contains(player)))
-                    .collect(Collectors.toMap(WireSystem::getWiresHashCode, Function.identity()));
-            if(!wireSystems.isEmpty()) {
-                BCMessageHandler.netWrapper.sendTo(new MessageWireSystems(wireSystems), player);
-            }
-            Map<Integer, Boolean> hashesPowered = this.wireSystems.entrySet().stream()
-                    .filter(systemPower ->
-                            systemPower.getKey().isPlayerWatching(player) &&
-                                    (structureChanged || changedSystems.contains(systemPower.getKey()) || changedPlayers.contains(player))
-                    )
-                    .map(systemPowered -> Pair.of(systemPowered.getKey().getWiresHashCode(), systemPowered.getValue()))
-                    .collect(Collectors.toMap(Pair::getLeft, Pair::getRight));
-            if(!hashesPowered.isEmpty()) {
-                BCMessageHandler.netWrapper.sendTo(new MessageWireSystemsPowered(hashesPowered), player);
+            for (Map.Entry<WireSystem, Boolean> entry : wireSystems.entrySet()) {
+                boolean newPowered = entry.getKey().update(this);
+                if (entry.setValue(newPowered) != newPowered) {
+                    changedSystems.add(entry.getKey());
+                }
+            }
+            gatesChanged = false;
+        }
+        players.keySet().removeIf(player -> player.isDead || player.world != world);
+        players.forEach((player, sync) -> {
+            MessageWireSystems message = sync.createUpdate(this);
+            if (message != null) {
+                BCMessageHandler.netWrapper.sendTo(message, player);
             }
         });
         if(structureChanged || !changedSystems.isEmpty()) {
             markDirty();
+            wireVersion++;
         }
         structureChanged = false;
         changedSystems.clear();
-        changedPlayers.clear();
+        changedChunks.clear();
+    }
+
+    /** The wire systems that a single player knows about. */
+    private static class PlayerSync {
+        final Set<Long> watchedChunks = new HashSet<>();
+        /** Every wire system that has been sent to the player, mapped to the hash that it was sent with. */
+        final Map<WireSystem, Integer> sent = new IdentityHashMap<>();
+        /** True if the set of wire systems in the watched chunks might have changed. */
+        boolean dirty = true;
+        /** True if the client might still have wire systems from a different world. */
+        boolean clear = true;
+
+        /** @return A message with every change since the last one, or null if nothing changed. */
+        @Nullable
+        MessageWireSystems createUpdate(WorldSavedDataWireSystems data) {
+            if (!dirty) {
+                for (long chunk : data.changedChunks) {
+                    if (watchedChunks.contains(chunk)) {
+                        dirty = true;
+                        break;
+                    }
+                }
+            }
+            MessageWireSystems message = new MessageWireSystems();
+            message.clear = clear;
+            if (dirty) {
+                Set<WireSystem> visible = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (long chunk : watchedChunks) {
+                    Map<WireSystem, Integer> systems = data.chunkIndex.get(chunk);
+                    if (systems != null) {
+                        visible.addAll(systems.keySet());
+                    }
+                }
+                Iterator<Map.Entry<WireSystem, Integer>> iterator = sent.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<WireSystem, Integer> entry = iterator.next();
+                    WireSystem system = entry.getKey();
+                    if (!visible.contains(system) || data.getWiresHashCode(system) != entry.getValue()) {
+                        message.removed.add(entry.getValue());
+                        iterator.remove();
+                    }
+                }
+                for (WireSystem system : visible) {
+                    if (!sent.containsKey(system)) {
+                        int hash = data.getWiresHashCode(system);
+                        sent.put(system, hash);
+                        message.added.put(hash, system);
+                        message.powered.put(hash, data.wireSystems.get(system) == Boolean.TRUE);
+                    }
+                }
+                dirty = false;
+            }
+            for (WireSystem system : data.changedSystems) {
+                Integer hash = sent.get(system);
+                if (hash != null) {
+                    message.powered.put(hash, data.wireSystems.get(system) == Boolean.TRUE);
+                }
+            }
+            clear = false;
+            if (message.clear || !message.removed.isEmpty() || !message.added.isEmpty() || !message.powered.isEmpty()) {
+                return message;
+            }
+            return null;
+        }
     }
 
     @Override
@@ -157,10 +682,24 @@ public class WorldSavedDataWireSystems extends WorldSavedData {
     @Override
     public void readFromNBT(NBTTagCompound nbt) {
         wireSystems.clear();
+        partIndex.clear();
+        emitterIndex.clear();
+        emitterColours.clear();
+        chunkIndex.clear();
+        hashCache.clear();
+        for (PlayerSync sync : players.values()) {
+            sync.dirty = true;
+        }
+        // The emitter counts aren't saved
+        gatesChanged = true;
         NBTTagList entriesList = nbt.getTagList("entries", Constants.NBT.TAG_COMPOUND);
         for(int i = 0; i < entriesList.tagCount(); i++) {
             NBTTagCompound entry = entriesList.getCompoundTagAt(i);
-            wireSystems.put(new WireSystem().readFromNBT(entry.getCompoundTag("wireSystem")), entry.getBoolean("powered"));
+            WireSystem wireSystem = new WireSystem().readFromNBT(entry.getCompoundTag("wireSystem"));
+            wireSystems.put(wireSystem, entry.getBoolean("powered"));
+            for (WireSystem.WireElement element : wireSystem.elements) {
+                index(wireSystem, element);
+            }
         }
     }
 
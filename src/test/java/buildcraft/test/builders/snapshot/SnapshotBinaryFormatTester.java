@@ -0,0 +1,206 @@
+package buildcraft.test.builders.snapshot;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Stopwatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.minecraft.block.BlockChest;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+
+import buildcraft.lib.nbt.NbtSquisher;
+import buildcraft.lib.net.PacketBufferBC;
+
+import buildcraft.builders.snapshot.Blueprint;
+import buildcraft.builders.snapshot.SchematicBlock;
+import buildcraft.builders.snapshot.Snapshot;
+import buildcraft.builders.snapshot.SnapshotBinaryFormat;
+import buildcraft.builders.snapshot.Template;
+import buildcraft.test.VanillaSetupBaseTester;
+
+import io.netty.buffer.Unpooled;
+
+public class SnapshotBinaryFormatTester extends VanillaSetupBaseTester {
+    @Test
+    public void testTemplateRoundTrip() throws IOException {
+        Template template = createTemplate(new BlockPos(17, 9, 23));
+        Template read = (Template) roundTrip(template);
+        assertHeadersEqual(template, read);
+        for (int z = 0; z < template.size.getZ(); z++) {
+            for (int y = 0; y < template.size.getY(); y++) {
+                for (int x = 0; x < template.size.getX(); x++) {
+                    Assert.assertEquals(template.get(x, y, z), read.get(x, y, z));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyAndFullTemplates() throws IOException {
+        Template empty = createTemplate(new BlockPos(4, 4, 4));
+        empty.data.clear();
+        Assert.assertTrue(((Template) roundTrip(empty)).data.isEmpty());
+
+        Template full = createTemplate(new BlockPos(4, 4, 4));
+        full.data.set(0, full.getDataSize());
+        Assert.assertEquals(full.getDataSize(), ((Template) roundTrip(full)).data.cardinality());
+    }
+
+    @Test
+    public void testBlueprintRoundTrip() throws IOException {
+        Blueprint blueprint = createBlueprint(new BlockPos(19, 11, 13));
+        Blueprint read = (Blueprint) roundTrip(blueprint);
+        assertHeadersEqual(blueprint, read);
+        Assert.assertEquals(blueprint.palette.size(), read.palette.size());
+        for (int z = 0; z < blueprint.size.getZ(); z++) {
+            for (int y = 0; y < blueprint.size.getY(); y++) {
+                for (int x = 0; x < blueprint.size.getX(); x++) {
+                    Assert.assertEquals(blueprint.get(x, y, z), read.get(x, y, z));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNbtPaletteWithDuplicates() {
+        Blueprint blueprint = createBlueprint(new BlockPos(9, 7, 5));
+        // Insert a duplicate of the first entry, which will be merged when the NBT is read back
+        blueprint.palette.add(1, blueprint.palette.get(0).copy());
+        for (int i = 0; i < blueprint.getDataSize(); i++) {
+            int index = blueprint.data.get(i);
+            if (index >= 1) {
+                blueprint.data.set(i, index + 1);
+            }
+        }
+        Blueprint read = (Blueprint) Snapshot.readFromNBT(Snapshot.writeToNBT(blueprint));
+        Assert.assertTrue(read.isValid());
+        Assert.assertEquals(blueprint.palette.size() - 1, read.palette.size());
+        for (int z = 0; z < blueprint.size.getZ(); z++) {
+            for (int y = 0; y < blueprint.size.getY(); y++) {
+                for (int x = 0; x < blueprint.size.getX(); x++) {
+                    Assert.assertEquals(blueprint.get(x, y, z), read.get(x, y, z));
+                }
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testHugeSizeRejected() throws IOException {
+        Template template = createTemplate(new BlockPos(4, 4, 4));
+        template.size = new BlockPos(Integer.MAX_VALUE / 2, 2, 2);
+        roundTrip(template);
+    }
+
+    @Test
+    public void testSizes() throws IOException {
+        Blueprint blueprint = createBlueprint(new BlockPos(64, 64, 64));
+        Stopwatch watch = Stopwatch.createStarted();
+        byte[] vanilla = NbtSquisher.squishVanillaUncompressed(Snapshot.writeToNBT(blueprint));
+        print("vanilla   [un]", vanilla.length, watch);
+        watch.reset().start();
+        byte[] vanillaCompressed = NbtSquisher.squishVanilla(Snapshot.writeToNBT(blueprint));
+        print("vanilla   [cp]", vanillaCompressed.length, watch);
+        watch.reset().start();
+        byte[] bcV1 = NbtSquisher.squishBuildCraftV1Uncompressed(Snapshot.writeToNBT(blueprint));
+        print("buildcraft[un]", bcV1.length, watch);
+        watch.reset().start();
+        PacketBufferBC buffer = new PacketBufferBC(Unpooled.buffer());
+        SnapshotBinaryFormat.writeToBuffer(blueprint, buffer);
+        int binary = buffer.readableBytes();
+        print("binary        ", binary, watch);
+        watch.reset().start();
+        SnapshotBinaryFormat.readFromBuffer(buffer);
+        print("binary   read ", binary, watch);
+        Assert.assertTrue(binary < vanilla.length);
+    }
+
+    private static void print(String name, int bytes, Stopwatch watch) {
+        System.out.println(name + " took " + watch.elapsed(TimeUnit.MICROSECONDS) + "us for " + bytes + " bytes");
+    }
+
+    private static Snapshot roundTrip(Snapshot snapshot) throws IOException {
+        PacketBufferBC buffer = new PacketBufferBC(Unpooled.buffer());
+        SnapshotBinaryFormat.writeToBuffer(snapshot, buffer);
+        Snapshot read = SnapshotBinaryFormat.readFromBuffer(buffer);
+        Assert.assertEquals(0, buffer.readableBytes());
+        return read;
+    }
+
+    private static void assertHeadersEqual(Snapshot expected, Snapshot actual) {
+        Assert.assertEquals(expected.getType(), actual.getType());
+        Assert.assertEquals(expected.header, actual.header);
+        Assert.assertEquals(expected.size, actual.size);
+        Assert.assertEquals(expected.facing, actual.facing);
+        Assert.assertEquals(expected.offset, actual.offset);
+    }
+
+    private static void setup(Snapshot snapshot, BlockPos size) {
+        snapshot.header = new Snapshot.Header(UUID.randomUUID(), UUID.randomUUID(), new Date(), "test");
+        snapshot.size = size;
+        snapshot.facing = EnumFacing.EAST;
+        snapshot.offset = new BlockPos(-3, 1, -size.getZ());
+    }
+
+    private static Template createTemplate(BlockPos size) {
+        Template template = new Template();
+        setup(template, size);
+        Random rand = new Random(0x5eed);
+        for (int z = 0; z < size.getZ(); z++) {
+            for (int y = 0; y < size.getY(); y++) {
+                for (int x = 0; x < size.getX(); x++) {
+                    template.set(x, y, z, y < 3 || rand.nextInt(8) == 0);
+                }
+            }
+        }
+        return template;
+    }
+
+    private static Blueprint createBlueprint(BlockPos size) {
+        Blueprint blueprint = new Blueprint();
+        setup(blueprint, size);
+        Random rand = new Random(0x5eed);
+        SchematicBlock air = createSchematic(Blocks.AIR.getDefaultState(), null);
+        SchematicBlock stone = createSchematic(Blocks.STONE.getDefaultState(), null);
+        SchematicBlock glass = createSchematic(Blocks.GLASS.getDefaultState(), null);
+        NBTTagCompound chestNbt = new NBTTagCompound();
+        chestNbt.setString("id", "minecraft:chest");
+        for (int z = 0; z < size.getZ(); z++) {
+            for (int y = 0; y < size.getY(); y++) {
+                for (int x = 0; x < size.getX(); x++) {
+                    SchematicBlock schematic = air;
+                    if (y < 3) {
+                        schematic = stone;
+                    } else if (rand.nextInt(16) == 0) {
+                        schematic = glass;
+                    } else if (rand.nextInt(256) == 0) {
+                        // Every chest has the same tile tag, but a different facing
+                        EnumFacing facing = EnumFacing.HORIZONTALS[rand.nextInt(4)];
+                        IBlockState chest = Blocks.CHEST.getDefaultState().withProperty(BlockChest.FACING, facing);
+                        schematic = createSchematic(chest, chestNbt);
+                    }
+                    blueprint.set(x, y, z, schematic);
+                }
+            }
+        }
+        return blueprint;
+    }
+
+    private static SchematicBlock createSchematic(IBlockState state, NBTTagCompound tileNbt) {
+        SchematicBlock schematic = new SchematicBlock();
+        schematic.blockState = state;
+        schematic.placeBlock = state.getBlock();
+        schematic.canBeReplacedWithBlocks.add(state.getBlock());
+        schematic.tileNbt = tileNbt == null ? null : tileNbt.copy();
+        return schematic;
+    }
+}
@@ -1,5 +1,7 @@
 package buildcraft.test.lib.list;
 
+import java.util.function.Predicate;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -8,6 +10,8 @@ import net.minecraft.item.ItemStack;
 
 import buildcraft.api.lists.ListMatchHandler.Type;
 
+import buildcraft.lib.list.ListHandler;
+import buildcraft.lib.list.ListHandler.Line;
 import buildcraft.lib.list.ListMatchHandlerFluid;
 import buildcraft.lib.list.ListMatchHandlerTools;
 import buildcraft.test.VanillaSetupBaseTester;
@@ -32,4 +36,45 @@ public class ListTester extends VanillaSetupBaseTester {
         Assert.assertFalse(matcher.matches(Type.TYPE, woodenAxe, woodenShovel, false));
         Assert.assertFalse(matcher.matches(Type.TYPE, woodenAxe, apple, false));
     }
+
+    @Test
+    public void testCompiledTools() {
+        ListMatchHandlerTools matcher = new ListMatchHandlerTools();
+        ItemStack woodenAxe = new ItemStack(Items.WOODEN_AXE);
+        Predicate<ItemStack> compiled = matcher.compile(Type.TYPE, woodenAxe, false);
+
+        Assert.assertNotNull(compiled);
+        Assert.assertTrue(compiled.test(new ItemStack(Items.IRON_AXE)));
+        Assert.assertFalse(compiled.test(new ItemStack(Items.WOODEN_SHOVEL)));
+        Assert.assertNull(matcher.compile(Type.TYPE, new ItemStack(Items.APPLE), false));
+        Assert.assertNull(matcher.compile(Type.MATERIAL, woodenAxe, false));
+    }
+
+    @Test
+    public void testCompiledLists() {
+        ItemStack list = new ItemStack(Items.PAPER);
+        ItemStack apple = new ItemStack(Items.APPLE);
+        ItemStack stick = new ItemStack(Items.STICK);
+        ItemStack redDye = new ItemStack(Items.DYE, 1, 1);
+        ItemStack blueDye = new ItemStack(Items.DYE, 1, 4);
+
+        Line[] lines = ListHandler.getLines(list);
+        lines[0].setStack(0, apple);
+        lines[1].setStack(3, redDye);
+        ListHandler.saveLines(list, lines);
+
+        Assert.assertTrue(ListHandler.matches(list, apple));
+        Assert.assertTrue(ListHandler.matches(list, redDye));
+        Assert.assertFalse(ListHandler.matches(list, blueDye));
+        Assert.assertFalse(ListHandler.matches(list, stick));
+        for (ItemStack target : new ItemStack[] { apple, stick, redDye, blueDye }) {
+            Assert.assertEquals(lines[1].matches(target), lines[1].compile().test(target));
+        }
+
+        // Saving different lines must not use the old compiled lines
+        lines[0].setStack(0, stick);
+        ListHandler.saveLines(list, lines);
+        Assert.assertFalse(ListHandler.matches(list, apple));
+        Assert.assertTrue(ListHandler.matches(list, stick));
+    }
 }
@@ -0,0 +1,78 @@
+package buildcraft.test.lib.misc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import buildcraft.lib.misc.data.DelayedList;
+
+public class DelayedListTester {
+
+    @Test
+    public void testShortDelays() {
+        DelayedList<String> list = new DelayedList<>(4);
+        list.add(0, "a");
+        list.add(2, "c");
+        list.add(1, "b");
+        list.add(-3, "a2");
+        Assert.assertEquals(4, list.size());
+        Assert.assertEquals(3, list.getMaxDelay());
+
+        Assert.assertEquals(asList("a", "a2"), list.advance());
+        Assert.assertEquals(asList("b"), list.advance());
+        Assert.assertEquals(asList("c"), list.advance());
+        Assert.assertEquals(asList(), list.advance());
+        Assert.assertEquals(0, list.size());
+        Assert.assertEquals(0, list.getMaxDelay());
+    }
+
+    @Test
+    public void testOverflowDelays() {
+        DelayedList<Integer> list = new DelayedList<>(8);
+        for (int delay = 0; delay < 100; delay += 3) {
+            list.add(delay, delay);
+        }
+        Assert.assertEquals(100, list.getMaxDelay());
+        for (int tick = 0; tick < 120; tick++) {
+            List<Integer> advanced = list.advance();
+            if (tick < 100 && tick % 3 == 0) {
+                Assert.assertEquals(asList(tick), advanced);
+                // Add more while advancing to check that the wheel doesn't mix up the head
+                list.add(19, 1000 + tick);
+            } else if (tick >= 20 && (tick - 20) % 3 == 0 && tick - 20 < 100) {
+                Assert.assertEquals(asList(1000 + tick - 20), advanced);
+            } else {
+                Assert.assertEquals("tick " + tick, asList(), advanced);
+            }
+            Assert.assertEquals(advanced.size(), list.getLastAdvancedCount());
+        }
+        Assert.assertEquals(0, list.size());
+    }
+
+    @Test
+    public void testAllElements() {
+        DelayedList<Integer> list = new DelayedList<>(4);
+        list.add(1, 1);
+        list.add(10, 10);
+        list.advance();
+        int count = 0;
+        for (List<Integer> inner : list.getAllElements()) {
+            count += inner.size();
+        }
+        Assert.assertEquals(2, count);
+        list.clear();
+        Assert.assertEquals(0, list.size());
+        Assert.assertEquals(asList(), list.advance());
+    }
+
+    @SafeVarargs
+    private static <E> List<E> asList(E... elements) {
+        List<E> list = new ArrayList<>();
+        for (E e : elements) {
+            list.add(e);
+        }
+        return list;
+    }
+}
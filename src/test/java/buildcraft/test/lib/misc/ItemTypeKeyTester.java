@@ -0,0 +1,132 @@
+package buildcraft.test.lib.misc;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Stopwatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+
+import buildcraft.lib.misc.ItemStackKey;
+import buildcraft.lib.misc.ItemTypeKey;
+import buildcraft.lib.misc.StackUtil;
+
+import buildcraft.test.VanillaSetupBaseTester;
+
+public class ItemTypeKeyTester extends VanillaSetupBaseTester {
+    private static final int LOOKUPS = 1_000_000;
+
+    @Test
+    public void testEquality() {
+        ItemStack a = new ItemStack(Items.DYE, 3, 4);
+        ItemStack b = new ItemStack(Items.DYE, 17, 4);
+        ItemStack c = new ItemStack(Items.DYE, 3, 5);
+
+        Assert.assertSame(ItemTypeKey.of(a), ItemTypeKey.of(b));
+        Assert.assertNotEquals(ItemTypeKey.of(a), ItemTypeKey.of(c));
+        Assert.assertTrue(ItemTypeKey.of(a).matches(b));
+        Assert.assertFalse(ItemTypeKey.of(a).matches(c));
+        Assert.assertSame(ItemTypeKey.EMPTY, ItemTypeKey.of(StackUtil.EMPTY));
+        Assert.assertFalse(ItemTypeKey.EMPTY.matches(a));
+
+        // ItemStackKey still compares counts
+        Assert.assertNotEquals(new ItemStackKey(a), new ItemStackKey(b));
+        Assert.assertEquals(new ItemStackKey(a), new ItemStackKey(a.copy()));
+    }
+
+    @Test
+    public void testTags() {
+        ItemStack plain = new ItemStack(Items.DIAMOND_SWORD);
+        ItemStack named = new ItemStack(Items.DIAMOND_SWORD);
+        named.setStackDisplayName("Sharp");
+        ItemStack named2 = named.copy();
+        named2.setCount(2);
+
+        Assert.assertNotEquals(ItemTypeKey.of(plain), ItemTypeKey.of(named));
+        Assert.assertSame(ItemTypeKey.of(named), ItemTypeKey.of(named2));
+
+        // Changing the original stack doesn't change the key
+        ItemTypeKey key = ItemTypeKey.of(named);
+        named.setStackDisplayName("Blunt");
+        Assert.assertFalse(key.matches(named));
+        Assert.assertTrue(key.matches(named2));
+        Assert.assertEquals(5, key.createStack(5).getCount());
+    }
+
+    @Test
+    public void testLookupSpeed() {
+        ItemStack[] stacks = new ItemStack[64];
+        ItemStack[] copies = new ItemStack[stacks.length];
+        for (int i = 0; i < stacks.length; i++) {
+            stacks[i] = new ItemStack(Items.DYE, 1 + i % 64, i % 16);
+            if (i >= 16) {
+                NBTTagCompound tag = new NBTTagCompound();
+                tag.setInteger("variant", i / 16);
+                stacks[i].setTagCompound(tag);
+            }
+            copies[i] = stacks[i].copy();
+        }
+
+        Map<ItemStackKey, Integer> stackKeys = new HashMap<>();
+        Map<ItemTypeKey, Integer> typeKeys = new HashMap<>();
+        ItemStackKey[] stackLookups = new ItemStackKey[stacks.length];
+        ItemTypeKey[] typeLookups = new ItemTypeKey[stacks.length];
+        for (int i = 0; i < stacks.length; i++) {
+            stackKeys.put(new ItemStackKey(stacks[i]), i);
+            typeKeys.put(ItemTypeKey.of(stacks[i]), i);
+            stackLookups[i] = new ItemStackKey(copies[i]);
+            typeLookups[i] = ItemTypeKey.of(copies[i]);
+        }
+
+        // Warm up
+        lookupSerialised(stacks, copies);
+        lookup(stackKeys, stackLookups);
+        lookup(typeKeys, typeLookups);
+
+        Stopwatch watch = Stopwatch.createStarted();
+        int found = lookupSerialised(stacks, copies);
+        print("serializeNBT() equality", found, watch);
+
+        watch = Stopwatch.createStarted();
+        found = lookup(stackKeys, stackLookups);
+        print("ItemStackKey lookup    ", found, watch);
+
+        watch = Stopwatch.createStarted();
+        found = lookup(typeKeys, typeLookups);
+        print("ItemTypeKey lookup     ", found, watch);
+
+        Assert.assertEquals(LOOKUPS, found);
+    }
+
+    /** The equality check that ItemStackKey used to do. */
+    private static int lookupSerialised(ItemStack[] stacks, ItemStack[] copies) {
+        int found = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            int index = i % stacks.length;
+            if (stacks[index].serializeNBT().equals(copies[index].serializeNBT())) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static <K> int lookup(Map<K, Integer> map, K[] keys) {
+        int found = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (map.get(keys[i % keys.length]) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static void print(String name, int found, Stopwatch watch) {
+        System.out.println(name + " took " + watch.elapsed(TimeUnit.MILLISECONDS) + "ms for " + found + " lookups");
+    }
+}
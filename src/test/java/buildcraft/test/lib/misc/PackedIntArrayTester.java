@@ -0,0 +1,66 @@
+package buildcraft.test.lib.misc;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import buildcraft.lib.misc.data.LoadingException;
+import buildcraft.lib.misc.data.PackedIntArray;
+
+public class PackedIntArrayTester {
+
+    @Test
+    public void testGrowing() {
+        PackedIntArray array = new PackedIntArray(1000);
+        Assert.assertEquals(1, array.getBits());
+        for (int i = 0; i < 1000; i++) {
+            array.set(i, i % 7);
+        }
+        Assert.assertEquals(3, array.getBits());
+        array.set(500, 1 << 20);
+        Assert.assertEquals(21, array.getBits());
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(i == 500 ? 1 << 20 : i % 7, array.get(i));
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws LoadingException {
+        Random rand = new Random(42);
+        PackedIntArray array = new PackedIntArray(4097, 5);
+        int[] expected = new int[4097];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = rand.nextInt(32);
+            array.set(i, expected[i]);
+        }
+        PackedIntArray read = PackedIntArray.fromByteArray(expected.length, array.toByteArray());
+        Assert.assertEquals(5, read.getBits());
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertEquals(expected[i], read.get(i));
+        }
+    }
+
+    @Test(expected = LoadingException.class)
+    public void testWrongLength() throws LoadingException {
+        PackedIntArray.fromByteArray(100, new PackedIntArray(1000).toByteArray());
+    }
+
+    /** Compares the memory used by the blocks of a 64x64x64 blueprint with 12 unique blocks. The old layout used a
+     * SchematicBlock[][][] (one 4 byte reference per block, plus 16 bytes of header for every inner array). */
+    @Test
+    public void testMemoryPerBlock() {
+        int side = 64;
+        int blocks = side * side * side;
+        PackedIntArray array = new PackedIntArray(blocks);
+        for (int i = 0; i < blocks; i++) {
+            array.set(i, i % 12);
+        }
+        long oldBytes = blocks * 4L + (side + side * side) * 16L;
+        double oldPerBlock = oldBytes / (double) blocks;
+        double newPerBlock = array.getStorageBytes() / (double) blocks;
+        System.out.println("Blueprint index bytes per block: old = " + oldPerBlock + ", new = " + newPerBlock);
+        Assert.assertTrue(newPerBlock <= 0.5);
+        Assert.assertEquals(4, array.getBits());
+    }
+}
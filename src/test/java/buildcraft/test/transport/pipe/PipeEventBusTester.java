@@ -3,6 +3,7 @@ package buildcraft.test.transport.pipe;
 import org.junit.Assert;
 import org.junit.Test;
 
+import buildcraft.api.transport.pipe.PipeEvent;
 import buildcraft.api.transport.pipe.PipeEventHandler;
 import buildcraft.api.transport.pipe.PipeEventItem;
 
@@ -36,4 +37,54 @@ public class PipeEventBusTester {
     public void modifySpeed(PipeEventItem.ModifySpeed event) {
         event.targetSpeed = 1;
     }
+
+    /** Not a real benchmark (as it doesn't use JMH) but fires events at a bus set up like a pipe with a gate, a
+     * pluggable and a behaviour, and prints out the number of events per second. */
+    @Test
+    public void testSpeed() {
+        PipeEventBus bus = new PipeEventBus();
+        bus.registerHandler(new GateHandler());
+        bus.registerHandler(new PluggableHandler());
+        bus.registerHandler(new BehaviourHandler());
+
+        PipeEventItem.ModifySpeed event = new PipeEventItem.ModifySpeed(null, null, null, 1);
+        for (int i = 0; i < 100_000; i++) {
+            bus.fireEvent(event);
+        }
+        int count = 10_000_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            bus.fireEvent(event);
+        }
+        long end = System.nanoTime();
+        double seconds = (end - start) / 1_000_000_000.0;
+        System.out.println("Fired " + count + " events in " + seconds + "s (" + (long) (count / seconds) + " events per second)");
+        Assert.assertTrue(dontInlineThis > 0);
+    }
+
+    public static class GateHandler {
+        @PipeEventHandler
+        public void anyEvent(PipeEvent event) {
+            dontInlineThis++;
+        }
+    }
+
+    public static class PluggableHandler {
+        @PipeEventHandler
+        public void modifySpeed(PipeEventItem.ModifySpeed event) {
+            event.targetSpeed += 0.01;
+        }
+    }
+
+    public static class BehaviourHandler {
+        @PipeEventHandler
+        public void modifySpeed(PipeEventItem.ModifySpeed event) {
+            dontInlineThis += (long) event.targetSpeed;
+        }
+
+        @PipeEventHandler
+        public void drop(PipeEventItem.Drop event) {
+            dontInlineThis--;
+        }
+    }
 }